@@ -0,0 +1,235 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json.bench;
+
+import com.sigio.json.JSONArray;
+import com.sigio.json.JSONLiteral;
+import com.sigio.json.JSONObject;
+import com.sigio.json.JSONWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Generator for the documents used by the benchmarks.
+ *
+ * <p>The small documents are checked in under <code>bench/data</code>
+ * so that results stay comparable between runs and revisions; they
+ * only need to be regenerated if this class changes.  The large
+ * NDJSON document is generated into the build directory by
+ * <code>make bench</code>.  All documents are produced from a fixed
+ * random seed.</p>
+ *
+ * <pre>
+ * java com.sigio.json.bench.Documents &lt;directory&gt; [small|large]
+ * </pre>
+ */
+public class Documents {
+
+  /** Names of the checked in documents, without the .json suffix. */
+  public static final String[] NAMES = { "small", "wide", "deep", "numbers", "escapes" };
+
+  /** Name of the generated NDJSON document. */
+  public static final String LARGE_NDJSON = "large.ndjson";
+
+  private static final String[] WORDS = {
+    "alpha", "bravo", "charlie", "delta", "echo", "foxtrot", "golf",
+    "hotel", "india", "juliett", "kilo", "lima", "mike", "november"
+  };
+
+  private static final String[] STATUSES = { "ok", "error", "timeout", "redirect" };
+
+  private final Random random;
+
+  private Documents(long seed) {
+    this.random = new Random(seed);
+  }
+
+  /**
+   * Generate documents into a directory.
+   *
+   * @param args the directory, then <code>small</code> for the
+   * checked in documents or <code>large</code> for the NDJSON
+   * document
+   * @throws IOException if a document cannot be written
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println("usage: Documents <directory> small|large");
+      System.exit(2);
+    }
+    Path dir = Paths.get(args[0]);
+    Files.createDirectories(dir);
+    if (args[1].equals("large")) {
+      Path file = dir.resolve(LARGE_NDJSON);
+      if (!Files.exists(file))
+        new Documents(31).writeNDJSON(file, 250000);
+    } else {
+      Documents documents = new Documents(26);
+      for (String name : NAMES)
+        documents.writeDocument(dir.resolve(name + ".json"), documents.document(name));
+    }
+  }
+
+  /*
+   * Build one of the checked in documents by name.
+   */
+  private Object document(String name) {
+    switch (name) {
+    case "small":
+      return this.message(1);
+    case "wide":
+      return this.wideObject(2000);
+    case "deep":
+      return this.deepNesting(200);
+    case "numbers":
+      return this.numericArray(10000);
+    case "escapes":
+      return this.escapedStrings(2000);
+    default:
+      throw new IllegalArgumentException(name);
+    }
+  }
+
+  /*
+   * A small API style message.
+   */
+  private JSONObject message(long id) {
+    JSONObject message = new JSONObject();
+    message.put("id", id);
+    message.put("status", STATUSES[this.random.nextInt(STATUSES.length)]);
+    message.put("host", "host-" + this.random.nextInt(64) + ".example.com");
+    message.put("bytes", (long) this.random.nextInt(1 << 20));
+    message.put("latency", this.random.nextDouble() * 250.0);
+    message.put("cached", this.random.nextBoolean() ? JSONLiteral.TRUE : JSONLiteral.FALSE);
+    message.put("referrer", JSONLiteral.NULL);
+    JSONObject user = new JSONObject();
+    user.put("id", (long) this.random.nextInt(100000));
+    user.put("name", this.words(2));
+    message.put("user", user);
+    JSONArray tags = new JSONArray();
+    for (int i = this.random.nextInt(4); i >= 0; i--)
+      tags.add(WORDS[this.random.nextInt(WORDS.length)]);
+    message.put("tags", tags);
+    return message;
+  }
+
+  private JSONObject wideObject(int fields) {
+    JSONObject object = new JSONObject();
+    for (int i = 0; i < fields; i++) {
+      String key = "field_" + i;
+      switch (i % 3) {
+      case 0:
+        object.put(key, (long) this.random.nextInt());
+        break;
+      case 1:
+        object.put(key, this.words(1 + this.random.nextInt(3)));
+        break;
+      default:
+        object.put(key, this.random.nextBoolean() ? JSONLiteral.TRUE : JSONLiteral.NULL);
+        break;
+      }
+    }
+    return object;
+  }
+
+  private Object deepNesting(int depth) {
+    Object value = this.words(1);
+    for (int i = 0; i < depth; i++) {
+      if (i % 2 == 0) {
+        JSONObject object = new JSONObject();
+        object.put("level", (long) i);
+        object.put("child", value);
+        value = object;
+      } else {
+        JSONArray array = new JSONArray();
+        array.add((long) i);
+        array.add(value);
+        value = array;
+      }
+    }
+    return value;
+  }
+
+  private JSONArray numericArray(int count) {
+    JSONArray array = new JSONArray();
+    for (int i = 0; i < count; i++) {
+      if (i % 2 == 0)
+        array.add(this.random.nextLong() >> this.random.nextInt(64));
+      else
+        array.add((this.random.nextDouble() - 0.5) * Math.pow(10, this.random.nextInt(20) - 10));
+    }
+    return array;
+  }
+
+  private JSONArray escapedStrings(int count) {
+    String specials = "\"\\/\b\f\n\r\t";
+    JSONArray array = new JSONArray();
+    for (int i = 0; i < count; i++) {
+      StringBuilder sb = new StringBuilder();
+      for (int j = 0; j < 40; j++) {
+        int k = this.random.nextInt(10);
+        if (k < 3)
+          sb.append(specials.charAt(this.random.nextInt(specials.length())));
+        else if (k < 4)
+          sb.append((char) (0x00e0 + this.random.nextInt(0x20)));
+        else
+          sb.append((char) ('a' + this.random.nextInt(26)));
+      }
+      array.add(sb.toString());
+    }
+    return array;
+  }
+
+  private String words(int count) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      if (i > 0)
+        sb.append(' ');
+      sb.append(WORDS[this.random.nextInt(WORDS.length)]);
+    }
+    return sb.toString();
+  }
+
+  private void writeDocument(Path file, Object document) throws IOException {
+    StringWriter sw = new StringWriter();
+    JSONWriter writer = new JSONWriter(sw);
+    writer.write(document);
+    writer.flush();
+    Files.write(file, (sw.toString() + "\n").getBytes(StandardCharsets.UTF_8));
+  }
+
+  private void writeNDJSON(Path file, int records) throws IOException {
+    try (Writer out = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+      JSONWriter writer = new JSONWriter(out);
+      for (int i = 0; i < records; i++) {
+        writer.write(this.message(i));
+        out.write('\n');
+      }
+      writer.flush();
+    }
+  }
+
+}
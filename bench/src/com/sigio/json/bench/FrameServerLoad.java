@@ -0,0 +1,179 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json.bench;
+
+import com.sigio.json.JSONException;
+import com.sigio.json.JSONFrameCodec;
+import com.sigio.json.JSONFrameServer;
+import com.sigio.json.JSONObject;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loopback load test for {@link JSONFrameServer}.
+ *
+ * <p>Starts a server on the loopback interface with a few selector
+ * threads, opens many client connections to it from one client
+ * selector thread, and has every connection send a number of request
+ * messages, each sent when the reply to the previous one has
+ * arrived.  The server replies to each request with an object
+ * echoing its sequence number, which the client checks.  The number
+ * of connections open at once and the rate of round trips are
+ * printed at the end.</p>
+ *
+ * <pre>
+ * java com.sigio.json.bench.FrameServerLoad [connections] [messages] [threads] [length|newline]
+ * </pre>
+ *
+ * <p>The defaults are 2000 connections of 100 messages each on 2
+ * server threads with length prefixed framing.  Large numbers of
+ * connections may need a higher limit on open files.</p>
+ */
+public class FrameServerLoad {
+
+  private FrameServerLoad() {
+  }
+
+  /**
+   * Run the load test.
+   *
+   * @param args connections, messages per connection, server
+   * threads and framing, all optional
+   * @throws IOException if a connection fails
+   * @throws JSONException if a reply is malformed
+   */
+  public static void main(String[] args) throws IOException, JSONException {
+    int connections = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+    int messages = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+    int threads = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+    JSONFrameCodec.Framing framing = args.length > 3 && args[3].equals("newline")
+      ? JSONFrameCodec.Framing.NEWLINE : JSONFrameCodec.Framing.LENGTH_PREFIXED;
+
+    InetSocketAddress loopback = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+    try (JSONFrameServer server = new JSONFrameServer(loopback, framing, threads, message -> {
+          Map<?,?> request = (Map<?,?>) message;
+          JSONObject reply = new JSONObject();
+          reply.put("client", request.get("client"));
+          reply.put("seq", request.get("seq"));
+          reply.put("status", "ok");
+          return reply;
+        });
+         Selector selector = Selector.open()) {
+      InetSocketAddress address = server.getLocalAddress();
+      List<Client> clients = new ArrayList<Client>();
+      long start = System.nanoTime();
+      for (int i = 0; i < connections; i++) {
+        SocketChannel channel = SocketChannel.open(address);
+        channel.configureBlocking(false);
+        Client client = new Client(i, channel, new JSONFrameCodec(framing));
+        channel.register(selector, SelectionKey.OP_READ, client);
+        clients.add(client);
+      }
+      long connected = System.nanoTime();
+      int peak = server.getConnectionCount();
+      for (Client client : clients)
+        client.send();
+      int finished = 0;
+      while (finished < connections) {
+        selector.select();
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          Client client = (Client) key.attachment();
+          if (client.receive(messages)) {
+            finished++;
+            key.cancel();
+          }
+        }
+        peak = Math.max(peak, server.getConnectionCount());
+      }
+      long end = System.nanoTime();
+      for (Client client : clients)
+        client.channel.close();
+      long trips = (long) connections * messages;
+      System.out.printf("%d connections on %d server threads (%s), peak %d open%n",
+                        connections, threads, framing, peak);
+      System.out.printf("connected in %.0f ms; %d round trips in %.0f ms, %.0f per second%n",
+                        (connected - start) / 1e6, trips, (end - connected) / 1e6,
+                        trips / ((end - connected) / 1e9));
+    }
+  }
+
+  /*
+   * One client connection: sends a request, waits for its reply and
+   * checks it, until it has sent all of its messages.
+   */
+  private static class Client {
+    final long id;
+    final SocketChannel channel;
+    final JSONFrameCodec codec;
+    final ByteBuffer input = ByteBuffer.allocateDirect(4096);
+    long seq = 0;
+
+    Client(long id, SocketChannel channel, JSONFrameCodec codec) {
+      this.id = id;
+      this.channel = channel;
+      this.codec = codec;
+    }
+
+    void send() throws IOException {
+      JSONObject request = new JSONObject();
+      request.put("client", this.id);
+      request.put("seq", this.seq);
+      ByteBuffer frame = this.codec.encode(request);
+      while (frame.hasRemaining())
+        this.channel.write(frame);
+      this.codec.release(frame);
+    }
+
+    /*
+     * Read what has arrived.  Returns true once the last reply has
+     * been received.
+     */
+    boolean receive(int messages) throws IOException, JSONException {
+      if (this.channel.read(this.input) < 0)
+        throw new IOException("Connection " + this.id + " closed by server");
+      this.input.flip();
+      Object reply;
+      while ((reply = this.codec.decode(this.input)) != null) {
+        Map<?,?> map = (Map<?,?>) reply;
+        if (!Long.valueOf(this.id).equals(map.get("client")) || !Long.valueOf(this.seq).equals(map.get("seq")))
+          throw new IOException("Connection " + this.id + " got reply " + reply + " for " + this.seq);
+        if (++this.seq == messages) {
+          this.input.compact();
+          return true;
+        }
+        this.send();
+      }
+      this.input.compact();
+      return false;
+    }
+  }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json.bench;
+
+import com.sigio.json.JSONException;
+import com.sigio.json.JSONReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for parsing with {@link JSONReader}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReaderBenchmark {
+
+  /**
+   * A checked in document, held in memory as text.
+   */
+  @State(Scope.Benchmark)
+  public static class Document {
+    /** Name of the document. */
+    @Param({ "small", "wide", "deep", "numbers", "escapes" })
+    public String name;
+
+    String text;
+    long bytes;
+
+    /**
+     * Load the document.
+     *
+     * @throws IOException if the document cannot be read
+     */
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+      this.text = Throughput.load(this.name + ".json");
+      this.bytes = Throughput.utf8Length(this.text);
+    }
+  }
+
+  /**
+   * The generated NDJSON document, held in memory as text.
+   */
+  @State(Scope.Benchmark)
+  public static class NDJSON {
+    String text;
+    long bytes;
+
+    /**
+     * Load the document.
+     *
+     * @throws IOException if the document cannot be read
+     */
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+      this.text = Throughput.load(Documents.LARGE_NDJSON);
+      this.bytes = Throughput.utf8Length(this.text);
+    }
+  }
+
+  /**
+   * Parse a whole document with readValue().
+   *
+   * @param document the document to parse
+   * @param throughput counter of the bytes parsed
+   * @return the parsed value
+   * @throws IOException never
+   * @throws JSONException if the document is malformed
+   */
+  @Benchmark
+  public Object parse(Document document, Throughput throughput) throws IOException, JSONException {
+    JSONReader reader = new JSONReader(new StringReader(document.text));
+    Object value = reader.readValue();
+    throughput.add(document.bytes);
+    return value;
+  }
+
+  /**
+   * Parse every record of the NDJSON document in turn.
+   *
+   * @param ndjson the document to parse
+   * @param throughput counter of the bytes parsed
+   * @param blackhole sink for the parsed records
+   * @throws IOException never
+   * @throws JSONException if the document is malformed
+   */
+  @Benchmark
+  @Warmup(iterations = 2)
+  @Measurement(iterations = 3)
+  public void parseNDJSON(NDJSON ndjson, Throughput throughput, Blackhole blackhole) throws IOException, JSONException {
+    JSONReader reader = new JSONReader(new StringReader(ndjson.text));
+    Object value;
+    while ((value = reader.readValue()) != JSONReader.EOF)
+      blackhole.consume(value);
+    throughput.add(ndjson.bytes);
+  }
+
+}
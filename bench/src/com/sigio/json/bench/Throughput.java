@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json.bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Per-thread counter of the data processed by a benchmark.  JMH
+ * reports the <code>megabytes</code> field as a rate alongside the
+ * primary result, which gives the throughput in MB/s.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class Throughput {
+
+  /** Megabytes (10^6 bytes) of JSON text processed. */
+  public double megabytes;
+
+  /**
+   * Reset the counter at the start of each iteration.
+   */
+  @Setup(Level.Iteration)
+  public void reset() {
+    this.megabytes = 0;
+  }
+
+  /**
+   * Count one operation over a document of the given size.
+   *
+   * @param bytes the size of the document in bytes
+   */
+  public void add(long bytes) {
+    this.megabytes += bytes / 1e6;
+  }
+
+  /**
+   * Read a benchmark document as text.  Documents are looked up in
+   * the directory named by the <code>sigio.bench.data</code> system
+   * property, which defaults to <code>bench/data</code>.
+   *
+   * @param name the file name of the document
+   * @return the contents of the document
+   * @throws IOException if the document cannot be read
+   */
+  static String load(String name) throws IOException {
+    Path dir = Paths.get(System.getProperty("sigio.bench.data", "bench/data"));
+    return new String(Files.readAllBytes(dir.resolve(name)), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Get the size of some text once encoded as UTF-8.
+   *
+   * @param text the text
+   * @return the number of bytes
+   */
+  static long utf8Length(String text) {
+    return text.getBytes(StandardCharsets.UTF_8).length;
+  }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json.bench;
+
+import com.sigio.json.JSONException;
+import com.sigio.json.JSONReader;
+import com.sigio.json.JSONWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for serializing with {@link JSONWriter}.  String
+ * escaping by the package's string adapter is exercised by every
+ * document, and dominates the <code>escapes</code> one.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriterBenchmark {
+
+  /**
+   * A checked in document, parsed into a tree.
+   */
+  @State(Scope.Benchmark)
+  public static class Document {
+    /** Name of the document. */
+    @Param({ "small", "wide", "deep", "numbers", "escapes" })
+    public String name;
+
+    Object tree;
+    long bytes;
+
+    /**
+     * Load and parse the document.
+     *
+     * @throws IOException if the document cannot be read
+     * @throws JSONException if the document is malformed
+     */
+    @Setup(Level.Trial)
+    public void load() throws IOException, JSONException {
+      String text = Throughput.load(this.name + ".json");
+      this.tree = new JSONReader(new StringReader(text)).readValue();
+      this.bytes = Throughput.utf8Length(text);
+    }
+  }
+
+  /**
+   * The generated NDJSON document, parsed into a list of records.
+   */
+  @State(Scope.Benchmark)
+  public static class NDJSON {
+    List<Object> records;
+    long bytes;
+
+    /**
+     * Load and parse the document.
+     *
+     * @throws IOException if the document cannot be read
+     * @throws JSONException if the document is malformed
+     */
+    @Setup(Level.Trial)
+    public void load() throws IOException, JSONException {
+      String text = Throughput.load(Documents.LARGE_NDJSON);
+      JSONReader reader = new JSONReader(new StringReader(text));
+      this.records = new ArrayList<Object>();
+      Object value;
+      while ((value = reader.readValue()) != JSONReader.EOF)
+        this.records.add(value);
+      this.bytes = Throughput.utf8Length(text);
+    }
+  }
+
+  /**
+   * Serialize a whole document with write(Object).
+   *
+   * @param document the document to serialize
+   * @param throughput counter of the bytes written
+   * @throws IOException never
+   */
+  @Benchmark
+  public void serialize(Document document, Throughput throughput) throws IOException {
+    JSONWriter writer = new JSONWriter(Writer.nullWriter());
+    writer.write(document.tree);
+    writer.flush();
+    throughput.add(document.bytes);
+  }
+
+  /**
+   * Serialize every record of the NDJSON document in turn.
+   *
+   * @param ndjson the records to serialize
+   * @param throughput counter of the bytes written
+   * @throws IOException never
+   */
+  @Benchmark
+  @Warmup(iterations = 2)
+  @Measurement(iterations = 3)
+  public void serializeNDJSON(NDJSON ndjson, Throughput throughput) throws IOException {
+    JSONWriter writer = new JSONWriter(Writer.nullWriter());
+    for (Object record : ndjson.records) {
+      writer.write(record);
+      writer.writeRaw('\n');
+    }
+    writer.flush();
+    throughput.add(ndjson.bytes);
+  }
+
+}
@@ -0,0 +1,383 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.io;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A Writer that encodes characters into a pair of ByteBuffers and
+ * writes full buffers to an AsynchronousFileChannel.
+ *
+ * <p>Characters are encoded on the calling thread into one buffer
+ * while the other buffer is being written to the channel, so that
+ * producing the output and writing it to disk overlap.  The calling
+ * thread only waits when it fills a buffer before the previous write
+ * has finished.  Calling <code>flush()</code> hands the current
+ * buffer to the channel but does not wait for it to be written.</p>
+ *
+ * <p>When output is complete, <code>closeAsync()</code> returns a
+ * CompletableFuture that completes with the total number of bytes
+ * written once everything is on the channel.  If an asynchronous
+ * write fails, the failure is reported by the next call that has to
+ * wait for it and by the future.</p>
+ *
+ * <p>Instances are not intended to be shared by several threads
+ * writing concurrently, though the methods are synchronized on the
+ * writer's lock like other Writers.</p>
+ */
+public class AsyncChannelWriter extends Writer {
+
+  /** The default size of each of the two buffers, 64KiB. */
+  public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  private final AsynchronousFileChannel m_channel;
+  private final boolean m_ownsChannel;
+  private final CharsetEncoder m_encoder;
+  // Whether ASCII characters can be put in the buffer as they are.
+  private final boolean m_utf8;
+  // Holds the character passed to write(int).
+  private final CharBuffer m_single = CharBuffer.allocate(1);
+
+  // The buffer being filled and the buffer that is (or was last)
+  // being written.
+  private ByteBuffer m_current;
+  private ByteBuffer m_spare;
+
+  // Channel position of the next buffer to be handed off.
+  private long m_position;
+  // Total bytes handed off so far.
+  private long m_handedOff = 0;
+  // Completion of the write of m_spare.
+  private CompletableFuture<Void> m_inFlight = CompletableFuture.completedFuture(null);
+  // Result of closeAsync(), or null if not closed.
+  private CompletableFuture<Long> m_closed = null;
+
+  // A high surrogate left over from the end of the previous write.
+  private char m_leftover;
+  private boolean m_hasLeftover = false;
+
+  /**
+   * Construct an AsyncChannelWriter that writes UTF-8 to a channel
+   * starting at the specified position.  The channel is not closed
+   * when the writer is closed.
+   *
+   * @param channel the channel to write to
+   * @param position the file position at which to start writing
+   */
+  public AsyncChannelWriter(AsynchronousFileChannel channel, long position) {
+    this(channel, position, StandardCharsets.UTF_8, DEFAULT_BUFFER_SIZE, false);
+  }
+
+  /**
+   * Construct an AsyncChannelWriter with a specific character set
+   * and buffer size.
+   *
+   * @param channel the channel to write to
+   * @param position the file position at which to start writing
+   * @param charset the character set used to encode output
+   * @param bufferSize the size in bytes of each of the two buffers
+   * @param ownsChannel <code>true</code> if closing the writer
+   * should also close the channel
+   * @throws IllegalArgumentException if bufferSize is too small to
+   * hold a single encoded character or position is negative
+   */
+  public AsyncChannelWriter(AsynchronousFileChannel channel, long position, Charset charset, int bufferSize, boolean ownsChannel) {
+    m_encoder = charset.newEncoder()
+      .onMalformedInput(CodingErrorAction.REPLACE)
+      .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    if (position < 0 || bufferSize < m_encoder.maxBytesPerChar() * 2)
+      throw new IllegalArgumentException();
+    if (channel == null)
+      throw new NullPointerException();
+    m_channel = channel;
+    m_ownsChannel = ownsChannel;
+    m_utf8 = charset.equals(StandardCharsets.UTF_8);
+    m_position = position;
+    m_current = ByteBuffer.allocateDirect(bufferSize);
+    m_spare = ByteBuffer.allocateDirect(bufferSize);
+  }
+
+  /**
+   * Open a file for writing, truncating it if it exists, and return
+   * an AsyncChannelWriter that writes UTF-8 to it.  The file is
+   * closed when the writer is closed.
+   *
+   * @param path the file to write
+   * @return a new writer positioned at the start of the file
+   * @throws IOException if the file cannot be opened
+   */
+  public static AsyncChannelWriter open(Path path) throws IOException {
+    AsynchronousFileChannel channel = AsynchronousFileChannel.open(path,
+      StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+    return new AsyncChannelWriter(channel, 0, StandardCharsets.UTF_8, DEFAULT_BUFFER_SIZE, true);
+  }
+
+  @Override
+  public void write(char[] cbuf, int off, int len) throws IOException {
+    synchronized (this.lock) {
+      this.encode(CharBuffer.wrap(cbuf, off, len));
+    }
+  }
+
+  @Override
+  public void write(String str, int off, int len) throws IOException {
+    synchronized (this.lock) {
+      this.encode(CharBuffer.wrap(str, off, off + len));
+    }
+  }
+
+  @Override
+  public void write(int c) throws IOException {
+    char ch = (char) c;
+    synchronized (this.lock) {
+      if (m_utf8 && ch < 0x80 && !m_hasLeftover && m_closed == null) {
+        if (!m_current.hasRemaining())
+          this.handOff();
+        m_current.put((byte) ch);
+        return;
+      }
+      m_single.clear();
+      m_single.put(ch);
+      m_single.flip();
+      this.encode(m_single);
+    }
+  }
+
+  /**
+   * Hands any buffered output to the channel without waiting for it
+   * to be written.  Waits only if the previous buffer is still being
+   * written.
+   *
+   * @throws IOException if the writer is closed or a previous
+   * asynchronous write failed
+   */
+  @Override
+  public void flush() throws IOException {
+    synchronized (this.lock) {
+      this.ensureOpen();
+      this.handOff();
+    }
+  }
+
+  /**
+   * Closes the writer and waits until all output has been written
+   * to the channel.
+   *
+   * @throws IOException if an asynchronous write failed
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      this.closeAsync().get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    } catch (ExecutionException e) {
+      throw AsyncChannelWriter.asIOException(e.getCause());
+    }
+  }
+
+  /**
+   * Closes the writer without waiting for output to be written.
+   * Any buffered output is handed to the channel and the returned
+   * future completes when it has all been written, and the channel
+   * closed if the writer owns it.  Calling this method more than
+   * once returns the same future.
+   *
+   * @return a future that completes with the total number of bytes
+   * written
+   */
+  public CompletableFuture<Long> closeAsync() {
+    synchronized (this.lock) {
+      if (m_closed != null)
+        return m_closed;
+      try {
+        this.finishEncoding();
+        this.handOff();
+      } catch (IOException e) {
+        m_closed = new CompletableFuture<Long>();
+        m_closed.completeExceptionally(e);
+        this.closeChannel();
+        return m_closed;
+      }
+      final long total = m_handedOff;
+      m_closed = m_inFlight.handle((ignored, failure) -> {
+        this.closeChannel();
+        if (failure != null)
+          throw new CompletionException(failure);
+        return total;
+      });
+      return m_closed;
+    }
+  }
+
+  /*
+   * Encode characters into the current buffer, handing it off each
+   * time it fills.
+   */
+  private void encode(CharBuffer in) throws IOException {
+    this.ensureOpen();
+    while (m_hasLeftover && in.hasRemaining()) {
+      CharBuffer pair = CharBuffer.wrap(new char[] { m_leftover, in.get() });
+      m_hasLeftover = false;
+      this.encode(pair, false);
+      if (pair.hasRemaining()) {
+        m_leftover = pair.get();
+        m_hasLeftover = true;
+      }
+    }
+    if (!m_hasLeftover) {
+      this.encode(in, false);
+      if (in.hasRemaining()) {
+        // An unpaired high surrogate at the end of the input; keep
+        // it until we see what follows.
+        m_leftover = in.get();
+        m_hasLeftover = true;
+      }
+    }
+  }
+
+  private void encode(CharBuffer in, boolean endOfInput) throws IOException {
+    while (true) {
+      CoderResult result = m_encoder.encode(in, m_current, endOfInput);
+      if (result.isOverflow())
+        this.handOff();
+      else if (result.isError())
+        result.throwException();
+      else
+        break;
+    }
+  }
+
+  /*
+   * Encode any leftover character and flush the encoder.
+   */
+  private void finishEncoding() throws IOException {
+    CharBuffer in;
+    if (m_hasLeftover)
+      in = CharBuffer.wrap(new char[] { m_leftover });
+    else
+      in = CharBuffer.allocate(0);
+    m_hasLeftover = false;
+    this.encode(in, true);
+    while (m_encoder.flush(m_current).isOverflow())
+      this.handOff();
+  }
+
+  /*
+   * Wait for the previous write, then swap buffers and start
+   * writing the current one.
+   */
+  private void handOff() throws IOException {
+    this.awaitInFlight();
+    if (m_current.position() == 0)
+      return;
+    ByteBuffer full = m_current;
+    full.flip();
+    m_current = m_spare;
+    m_current.clear();
+    m_spare = full;
+    long position = m_position;
+    m_position += full.remaining();
+    m_handedOff += full.remaining();
+    CompletableFuture<Void> future = new CompletableFuture<Void>();
+    m_inFlight = future;
+    m_channel.write(full, position, position, new WriteHandler(full, future));
+  }
+
+  private void awaitInFlight() throws IOException {
+    try {
+      m_inFlight.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    } catch (ExecutionException e) {
+      throw AsyncChannelWriter.asIOException(e.getCause());
+    }
+  }
+
+  private void ensureOpen() throws IOException {
+    if (m_closed != null)
+      throw new IOException("Writer closed");
+  }
+
+  private void closeChannel() {
+    if (m_ownsChannel) {
+      try {
+        m_channel.close();
+      } catch (IOException e) {
+      }
+    }
+  }
+
+  private static IOException asIOException(Throwable t) {
+    if (t instanceof IOException)
+      return (IOException) t;
+    return new IOException(t);
+  }
+
+  /*
+   * Completion handler that keeps writing until the buffer is empty,
+   * since an asynchronous write may be partial.
+   */
+  private class WriteHandler implements CompletionHandler<Integer, Long> {
+    private final ByteBuffer m_buffer;
+    private final CompletableFuture<Void> m_future;
+
+    WriteHandler(ByteBuffer buffer, CompletableFuture<Void> future) {
+      m_buffer = buffer;
+      m_future = future;
+    }
+
+    @Override
+    public void completed(Integer count, Long position) {
+      if (m_buffer.hasRemaining()) {
+        long next = position + count;
+        try {
+          m_channel.write(m_buffer, next, next, this);
+        } catch (Throwable t) {
+          m_future.completeExceptionally(t);
+        }
+      } else {
+        m_future.complete(null);
+      }
+    }
+
+    @Override
+    public void failed(Throwable t, Long position) {
+      m_future.completeExceptionally(t);
+    }
+  }
+
+}
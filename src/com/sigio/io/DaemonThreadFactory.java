@@ -0,0 +1,41 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.io;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * A ThreadFactory for the worker threads of the stream classes in
+ * this package.  The threads are daemons, so a stream that is never
+ * closed does not keep the virtual machine alive.
+ */
+class DaemonThreadFactory implements ThreadFactory {
+
+  static final DaemonThreadFactory INSTANCE = new DaemonThreadFactory();
+
+  private final AtomicInteger m_count = new AtomicInteger();
+
+  @Override
+  public Thread newThread(Runnable r) {
+    Thread t = new Thread(r, "sigio-io-" + m_count.incrementAndGet());
+    t.setDaemon(true);
+    return t;
+  }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.io;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of direct ByteBuffers of one size.
+ *
+ * <p>Direct buffers can be read from and written to channels without
+ * the copy into a temporary direct buffer that the JDK makes for heap
+ * buffers, but they are slow to allocate and are freed only when
+ * they are garbage collected.  A pool allocates them once and hands
+ * them out again: a buffer is taken with {@link #acquire()} and given
+ * back with {@link #release(ByteBuffer)} once its contents have been
+ * written.  Buffers beyond the pool's capacity, or of other sizes,
+ * are dropped on release and left to the garbage collector.</p>
+ *
+ * <p>Pools are safe for use by multiple threads.</p>
+ */
+public class DirectBufferPool {
+
+  /** The default buffer size, 64KiB. */
+  public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  /** The default number of buffers kept, 256. */
+  public static final int DEFAULT_CAPACITY = 256;
+
+  private static final DirectBufferPool s_default = new DirectBufferPool(DEFAULT_BUFFER_SIZE, DEFAULT_CAPACITY);
+
+  private final int m_bufferSize;
+  private final int m_capacity;
+  private final ConcurrentLinkedQueue<ByteBuffer> m_buffers = new ConcurrentLinkedQueue<ByteBuffer>();
+  private final AtomicInteger m_size = new AtomicInteger();
+
+  /**
+   * Construct an empty pool.
+   *
+   * @param bufferSize the capacity of each buffer
+   * @param capacity the most buffers to keep
+   * @throws IllegalArgumentException if bufferSize is not positive
+   * or capacity is negative
+   */
+  public DirectBufferPool(int bufferSize, int capacity) {
+    if (bufferSize <= 0 || capacity < 0)
+      throw new IllegalArgumentException();
+    m_bufferSize = bufferSize;
+    m_capacity = capacity;
+  }
+
+  /**
+   * Get a pool shared by the users of this library that were not
+   * given a pool of their own.
+   *
+   * @return the shared default pool
+   */
+  public static DirectBufferPool getDefault() {
+    return s_default;
+  }
+
+  /**
+   * Get the capacity of the buffers in this pool.
+   *
+   * @return the buffer size
+   */
+  public int getBufferSize() {
+    return m_bufferSize;
+  }
+
+  /**
+   * Get the number of buffers waiting in the pool.
+   *
+   * @return the number of idle buffers
+   */
+  public int size() {
+    return m_size.get();
+  }
+
+  /**
+   * Take a cleared buffer from the pool, allocating one if the pool
+   * is empty.
+   *
+   * @return a direct buffer of the pool's buffer size
+   */
+  public ByteBuffer acquire() {
+    ByteBuffer buffer = m_buffers.poll();
+    if (buffer == null)
+      return ByteBuffer.allocateDirect(m_bufferSize);
+    m_size.decrementAndGet();
+    buffer.clear();
+    return buffer;
+  }
+
+  /**
+   * Give a buffer back to the pool.  The buffer must not be used
+   * afterwards.  Buffers that are not direct or not of the pool's
+   * buffer size are ignored.
+   *
+   * @param buffer the buffer
+   */
+  public void release(ByteBuffer buffer) {
+    if (buffer == null || !buffer.isDirect() || buffer.capacity() != m_bufferSize)
+      return;
+    if (m_size.incrementAndGet() > m_capacity) {
+      m_size.decrementAndGet();
+      return;
+    }
+    m_buffers.offer(buffer);
+  }
+
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.io;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * An InputStream that reads gzip format data (RFC1952),
+ * decompressing it on a separate thread.
+ *
+ * <p>A deflate stream can only be decoded sequentially, so instead of
+ * splitting the inflation itself, this stream runs it on a background
+ * thread that reads ahead into a small queue of blocks, checking the
+ * CRC as it goes.  The consumer, typically a {@link
+ * com.sigio.json.JSONReader} parsing the data, then runs in parallel
+ * with the decompression rather than after it:</p>
+ *
+ * <pre>
+ * JSONReader reader = new JSONReader(new InputStreamReader(
+ *   new ParallelGZIPInputStream(new FileInputStream(file)), StandardCharsets.UTF_8));
+ * </pre>
+ *
+ * <p>Concatenated gzip members, such as those written by pigz or by
+ * {@link ParallelGZIPOutputStream}, are read as one stream.  Errors
+ * found by the background thread are thrown by the next read after
+ * the data that preceded them.  Instances are not safe for use by
+ * multiple threads.</p>
+ */
+public class ParallelGZIPInputStream extends InputStream {
+
+  /** The default size of the decompressed blocks, 128KiB. */
+  public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+  // Number of decompressed blocks that may be waiting to be read.
+  private static final int QUEUE_SIZE = 4;
+
+  // Marks the end of the data in the queue.
+  private static final byte[] END = new byte[0];
+
+  private final InputStream m_in;
+  private final int m_blockSize;
+  private final BlockingQueue<byte[]> m_queue = new ArrayBlockingQueue<byte[]>(QUEUE_SIZE);
+  private final Thread m_thread;
+  private volatile Throwable m_failure = null;
+  private volatile boolean m_closed = false;
+
+  private byte[] m_block = null;
+  private int m_pos = 0;
+  private int m_limit = 0;
+  private boolean m_eof = false;
+
+  /**
+   * Construct a stream that decompresses using the default block
+   * size.
+   *
+   * @param in the input stream of compressed data
+   */
+  public ParallelGZIPInputStream(InputStream in) {
+    this(in, DEFAULT_BLOCK_SIZE);
+  }
+
+  /**
+   * Construct a stream that decompresses into blocks of the
+   * specified size.
+   *
+   * @param in the input stream of compressed data
+   * @param blockSize the size of the decompressed blocks
+   * @throws IllegalArgumentException if blockSize &lt;= 0
+   */
+  public ParallelGZIPInputStream(InputStream in, int blockSize) {
+    if (blockSize <= 0)
+      throw new IllegalArgumentException();
+    if (in == null)
+      throw new NullPointerException();
+    m_in = in;
+    m_blockSize = blockSize;
+    m_thread = DaemonThreadFactory.INSTANCE.newThread(this::inflate);
+    m_thread.start();
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!this.fill())
+      return -1;
+    return m_block[m_pos++] & 0xff;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (off < 0 || len < 0 || off + len > b.length)
+      throw new IndexOutOfBoundsException();
+    if (len == 0)
+      return 0;
+    if (!this.fill())
+      return -1;
+    int n = Math.min(len, m_limit - m_pos);
+    System.arraycopy(m_block, m_pos, b, off, n);
+    m_pos += n;
+    return n;
+  }
+
+  @Override
+  public int available() throws IOException {
+    if (m_closed)
+      throw new IOException("Stream closed");
+    return m_limit - m_pos;
+  }
+
+  /**
+   * Stops the decompression thread and closes the underlying
+   * stream.
+   *
+   * @throws IOException if an I/O error occurs
+   */
+  @Override
+  public void close() throws IOException {
+    if (m_closed)
+      return;
+    m_closed = true;
+    m_thread.interrupt();
+    m_queue.clear();
+    m_in.close();
+  }
+
+  /*
+   * Make sure there is data in the current block, taking the next
+   * one from the queue if needed.  Returns false at end of stream.
+   */
+  private boolean fill() throws IOException {
+    if (m_closed)
+      throw new IOException("Stream closed");
+    while (m_pos == m_limit) {
+      if (m_eof)
+        return false;
+      byte[] next;
+      try {
+        next = m_queue.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException();
+      }
+      if (next == END) {
+        m_eof = true;
+        Throwable t = m_failure;
+        if (t instanceof IOException)
+          throw (IOException) t;
+        else if (t != null)
+          throw new IOException(t);
+        return false;
+      }
+      m_block = next;
+      m_pos = 0;
+      m_limit = next.length;
+    }
+    return true;
+  }
+
+  /*
+   * Body of the decompression thread.
+   */
+  private void inflate() {
+    try {
+      GZIPInputStream gzip = new GZIPInputStream(m_in, 64 * 1024);
+      while (!m_closed) {
+        byte[] buf = new byte[m_blockSize];
+        int count = 0;
+        int n;
+        while (count < buf.length && (n = gzip.read(buf, count, buf.length - count)) != -1)
+          count += n;
+        if (count > 0) {
+          if (count < buf.length) {
+            byte[] shorter = new byte[count];
+            System.arraycopy(buf, 0, shorter, 0, count);
+            buf = shorter;
+          }
+          m_queue.put(buf);
+        }
+        if (count < m_blockSize)
+          break;
+      }
+    } catch (InterruptedException e) {
+      return;
+    } catch (Throwable t) {
+      if (m_closed)
+        return;
+      m_failure = t;
+    }
+    try {
+      m_queue.put(END);
+    } catch (InterruptedException e) {
+    }
+  }
+
+}
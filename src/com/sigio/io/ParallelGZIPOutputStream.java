@@ -0,0 +1,320 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.io;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * An OutputStream that writes data in the gzip format (RFC1952),
+ * compressing blocks of input in parallel.
+ *
+ * <p>In the style of pigz, the input is split into fixed size blocks
+ * and each block is deflated by a separate task, using the last 32KiB
+ * of the previous block as a preset dictionary so that the
+ * compression ratio stays close to that of a single stream.  Every
+ * block but the last ends with a sync flush, so the compressed
+ * blocks can simply be concatenated in order to produce one valid
+ * deflate stream inside a single gzip member.  The CRC-32 of the
+ * uncompressed data is computed on the calling thread.</p>
+ *
+ * <p>The output can be read by any gzip implementation, including
+ * <code>java.util.zip.GZIPInputStream</code> and {@link
+ * ParallelGZIPInputStream}.</p>
+ *
+ * <p>Instances are not safe for use by multiple threads.</p>
+ */
+public class ParallelGZIPOutputStream extends FilterOutputStream {
+
+  /** The default block size, 128KiB. */
+  public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+  // Size of the deflate window and so of the preset dictionary.
+  private static final int DICTIONARY_SIZE = 32 * 1024;
+
+  private static final byte[] HEADER = {
+    (byte) 0x1f, (byte) 0x8b, // magic
+    Deflater.DEFLATED,        // compression method
+    0,                        // flags
+    0, 0, 0, 0,               // modification time
+    0,                        // extra flags
+    (byte) 0xff               // operating system: unknown
+  };
+
+  private final ExecutorService m_executor;
+  private final boolean m_ownsExecutor;
+  private final int m_level;
+  private final int m_blockSize;
+  private final int m_maxPending;
+
+  private byte[] m_block;
+  private int m_count = 0;
+  private byte[] m_dictionary = null;
+  private final CRC32 m_crc = new CRC32();
+  private long m_length = 0;
+  private final Deque<Future<byte[]>> m_pending = new ArrayDeque<Future<byte[]>>();
+  private boolean m_headerWritten = false;
+  private boolean m_finished = false;
+
+  /**
+   * Construct a stream that compresses at the default level using
+   * one thread per available processor.  The threads are shut down
+   * when the stream is closed.
+   *
+   * @param out the output stream to write compressed data to
+   */
+  public ParallelGZIPOutputStream(OutputStream out) {
+    this(out, Deflater.DEFAULT_COMPRESSION, DEFAULT_BLOCK_SIZE,
+         Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), DaemonThreadFactory.INSTANCE),
+         true);
+  }
+
+  /**
+   * Construct a stream that compresses blocks using the specified
+   * executor.
+   *
+   * @param out the output stream to write compressed data to
+   * @param level the compression level, 0-9 or
+   * <code>Deflater.DEFAULT_COMPRESSION</code>
+   * @param blockSize the number of bytes of input in each block
+   * @param executor the executor that runs the compression tasks
+   * @param ownsExecutor <code>true</code> if closing the stream
+   * should shut down the executor
+   * @throws IllegalArgumentException if the level is invalid or the
+   * block size is smaller than the 32KiB deflate window
+   */
+  public ParallelGZIPOutputStream(OutputStream out, int level, int blockSize, ExecutorService executor, boolean ownsExecutor) {
+    super(out);
+    if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION)
+      throw new IllegalArgumentException();
+    if (blockSize < DICTIONARY_SIZE)
+      throw new IllegalArgumentException();
+    if (executor == null)
+      throw new NullPointerException();
+    m_level = level;
+    m_blockSize = blockSize;
+    m_executor = executor;
+    m_ownsExecutor = ownsExecutor;
+    m_maxPending = Runtime.getRuntime().availableProcessors() * 2;
+    m_block = new byte[blockSize];
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    this.ensureOpen();
+    m_block[m_count++] = (byte) b;
+    if (m_count == m_blockSize)
+      this.submitBlock(false);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    this.ensureOpen();
+    if (off < 0 || len < 0 || off + len > b.length)
+      throw new IndexOutOfBoundsException();
+    while (len > 0) {
+      int n = Math.min(len, m_blockSize - m_count);
+      System.arraycopy(b, off, m_block, m_count, n);
+      m_count += n;
+      off += n;
+      len -= n;
+      if (m_count == m_blockSize)
+        this.submitBlock(false);
+    }
+  }
+
+  /**
+   * Compresses any buffered input, waits for all outstanding blocks
+   * and flushes them to the underlying stream.  Flushing often will
+   * reduce both the compression ratio and the parallelism.
+   *
+   * @throws IOException if an I/O error occurs
+   */
+  @Override
+  public void flush() throws IOException {
+    this.ensureOpen();
+    if (m_count > 0)
+      this.submitBlock(false);
+    this.drain(0);
+    out.flush();
+  }
+
+  /**
+   * Finishes writing compressed data to the underlying stream
+   * without closing it.
+   *
+   * @throws IOException if an I/O error occurs
+   */
+  public void finish() throws IOException {
+    if (m_finished)
+      return;
+    this.submitBlock(true);
+    this.drain(0);
+    this.writeTrailer();
+    m_finished = true;
+  }
+
+  /**
+   * Finishes writing compressed data and closes the underlying
+   * stream.  If the stream owns its executor, the executor is shut
+   * down.
+   *
+   * @throws IOException if an I/O error occurs
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      this.finish();
+    } finally {
+      for (Future<byte[]> f : m_pending)
+        f.cancel(false);
+      m_pending.clear();
+      if (m_ownsExecutor)
+        m_executor.shutdown();
+      out.close();
+    }
+  }
+
+  /*
+   * Hand the current block to the executor and start a new one.
+   */
+  private void submitBlock(boolean last) throws IOException {
+    if (!m_headerWritten) {
+      out.write(HEADER);
+      m_headerWritten = true;
+    }
+    byte[] input = m_block;
+    int count = m_count;
+    m_crc.update(input, 0, count);
+    m_length += count;
+    m_pending.add(m_executor.submit(new DeflateTask(input, count, m_dictionary, last, m_level)));
+    if (!last) {
+      if (count >= DICTIONARY_SIZE) {
+        m_dictionary = new byte[DICTIONARY_SIZE];
+        System.arraycopy(input, count - DICTIONARY_SIZE, m_dictionary, 0, DICTIONARY_SIZE);
+      } else {
+        // A short block after a flush: slide the window along.
+        byte[] previous = m_dictionary;
+        int keep = previous == null ? 0 : Math.min(previous.length, DICTIONARY_SIZE - count);
+        m_dictionary = new byte[keep + count];
+        if (keep > 0)
+          System.arraycopy(previous, previous.length - keep, m_dictionary, 0, keep);
+        System.arraycopy(input, 0, m_dictionary, keep, count);
+      }
+      m_block = new byte[m_blockSize];
+    }
+    m_count = 0;
+    this.drain(m_maxPending);
+  }
+
+  /*
+   * Write completed blocks in order until no more than max remain
+   * outstanding, then write any further blocks that are already done.
+   */
+  private void drain(int max) throws IOException {
+    while (!m_pending.isEmpty() && (m_pending.size() > max || m_pending.peek().isDone())) {
+      Future<byte[]> f = m_pending.remove();
+      try {
+        out.write(f.get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException();
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException)
+          throw (IOException) cause;
+        throw new IOException(cause);
+      }
+    }
+  }
+
+  private void writeTrailer() throws IOException {
+    int crc = (int) m_crc.getValue();
+    int size = (int) m_length;
+    byte[] trailer = {
+      (byte) crc, (byte) (crc >> 8), (byte) (crc >> 16), (byte) (crc >> 24),
+      (byte) size, (byte) (size >> 8), (byte) (size >> 16), (byte) (size >> 24)
+    };
+    out.write(trailer);
+  }
+
+  private void ensureOpen() throws IOException {
+    if (m_finished)
+      throw new IOException("Stream finished");
+  }
+
+  /*
+   * Task to deflate one block of input as raw deflate data.
+   */
+  private static class DeflateTask implements Callable<byte[]> {
+    private final byte[] m_input;
+    private final int m_count;
+    private final byte[] m_dictionary;
+    private final boolean m_last;
+    private final int m_level;
+
+    DeflateTask(byte[] input, int count, byte[] dictionary, boolean last, int level) {
+      m_input = input;
+      m_count = count;
+      m_dictionary = dictionary;
+      m_last = last;
+      m_level = level;
+    }
+
+    @Override
+    public byte[] call() {
+      Deflater deflater = new Deflater(m_level, true);
+      try {
+        if (m_dictionary != null)
+          deflater.setDictionary(m_dictionary);
+        deflater.setInput(m_input, 0, m_count);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(m_count / 2 + 64);
+        byte[] buf = new byte[16 * 1024];
+        if (m_last) {
+          deflater.finish();
+          while (!deflater.finished()) {
+            int n = deflater.deflate(buf);
+            bos.write(buf, 0, n);
+          }
+        } else {
+          int n;
+          do {
+            n = deflater.deflate(buf, 0, buf.length, Deflater.SYNC_FLUSH);
+            bos.write(buf, 0, n);
+          } while (n == buf.length);
+        }
+        return bos.toByteArray();
+      } finally {
+        deflater.end();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Writer class to write java objects in the canonical form of the
+ * JSON Canonicalization Scheme (RFC 8785).
+ *
+ * <p>Equal values always have the same canonical text, whatever the
+ * iteration order of their maps, so the text, or a digest of it, can
+ * be used to compare, deduplicate or cache documents by content.  In
+ * canonical form:</p>
+ *
+ * <ul>
+ * <li>Object members are sorted by the UTF-16 code units of their
+ * names.</li>
+ *
+ * <li>Strings escape only quotation mark, reverse solidus and control
+ * characters, using the two character escapes where there are
+ * some, and are not normalized.</li>
+ *
+ * <li>Numbers are written as IEEE 754 doubles, in the shortest form
+ * that reads back as the same double, formatted as ECMAScript
+ * formats numbers.  Integers too large for a double to hold exactly
+ * lose precision, and NaN and the infinities cannot be written.</li>
+ *
+ * <li>There is no whitespace between tokens.</li>
+ * </ul>
+ *
+ * <p>Maps, collections, strings and other <code>CharSequence</code>s,
+ * numbers, Booleans, JSONLiterals and null are written as the JSON
+ * values they stand for; any other object is written as the string
+ * returned by its <code>toString()</code> method.  The serializer
+ * registry is not used.  The canonical text should be encoded in
+ * UTF-8 to be hashed, as {@link #digest(Object, MessageDigest)}
+ * does.</p>
+ */
+public class CanonicalJSONWriter extends JSONWriter {
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  // Doubles with integer values below this are written as longs.
+  private static final double EXACT_LONG = 9007199254740992.0;
+
+  /**
+   * Construct a new CanonicalJSONWriter.
+   *
+   * @param out the writer to write canonical JSON text to
+   */
+  public CanonicalJSONWriter(Writer out) {
+    super(out);
+  }
+
+  /**
+   * Get the canonical JSON text of a value.
+   *
+   * @param o the value
+   * @return the canonical text
+   * @throws IllegalArgumentException if the value holds a number
+   * that is NaN or infinite
+   */
+  public static String toString(Object o) {
+    StringWriter out = new StringWriter();
+    try {
+      new CanonicalJSONWriter(out).write(o);
+    } catch (IOException e) {
+      // StringWriter does not throw.
+      throw new IllegalStateException(e);
+    }
+    return out.toString();
+  }
+
+  /**
+   * Compute a digest of the UTF-8 encoding of the canonical JSON
+   * text of a value.  The text is encoded and digested as it is
+   * written, so it is never held in memory as a whole.  The digest
+   * is reset before it is used.
+   *
+   * @param o the value
+   * @param digest the digest to compute
+   * @return the digest value
+   * @throws IllegalArgumentException if the value holds a number
+   * that is NaN or infinite
+   */
+  public static byte[] digest(Object o, MessageDigest digest) {
+    digest.reset();
+    OutputStream sink = new DigestOutputStream(OutputStream.nullOutputStream(), digest);
+    try (Writer out = new OutputStreamWriter(sink, StandardCharsets.UTF_8)) {
+      new CanonicalJSONWriter(out).write(o);
+    } catch (IOException e) {
+      // Nothing in the chain does I/O.
+      throw new IllegalStateException(e);
+    }
+    return digest.digest();
+  }
+
+  /**
+   * Compute the SHA-256 digest of the UTF-8 encoding of the canonical
+   * JSON text of a value.
+   *
+   * @param o the value
+   * @return the 32 byte digest
+   * @throws IllegalArgumentException if the value holds a number
+   * that is NaN or infinite
+   */
+  public static byte[] sha256(Object o) {
+    try {
+      return CanonicalJSONWriter.digest(o, MessageDigest.getInstance("SHA-256"));
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256.
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Write a java object as canonical JSON text.
+   *
+   * @param o Object to write
+   * @throws IOException If an I/O error occurs
+   * @throws IllegalArgumentException if the value holds a number
+   * that is NaN or infinite
+   */
+  @Override
+  public void write(Object o) throws IOException {
+    if (o == null) {
+      super.out.write(JSONLiteral.NULL.value());
+    } else if (o instanceof Map<?,?>) {
+      this.writeObject((Map<?,?>) o);
+    } else if (o instanceof Collection<?>) {
+      int count = 0;
+      super.out.write(JSON.BEGIN_ARRAY);
+      for (Object element : (Collection<?>) o) {
+        if (count++ > 0)
+          super.out.write(JSON.VALUE_SEPARATOR);
+        this.write(element);
+      }
+      super.out.write(JSON.END_ARRAY);
+    } else if (o instanceof CharSequence) {
+      this.write(o.toString());
+    } else if (o instanceof Number) {
+      super.out.write(CanonicalJSONWriter.formatNumber(((Number) o).doubleValue()));
+    } else if (o instanceof Boolean) {
+      super.out.write(((Boolean) o).booleanValue() ? JSONLiteral.TRUE.value() : JSONLiteral.FALSE.value());
+    } else if (o instanceof JSONLiteral) {
+      super.out.write(((JSONLiteral) o).value());
+    } else {
+      this.write(o.toString());
+    }
+  }
+
+  /**
+   * Writes a string as a canonical JSON string.
+   *
+   * @param str String to write
+   * @throws IOException If an I/O error occurs
+   */
+  @Override
+  public void write(String str) throws IOException {
+    super.out.write(JSON.QUOTE_CHAR);
+    int start = 0;
+    int length = str.length();
+    for (int i = 0; i < length; i++) {
+      char c = str.charAt(i);
+      if (c >= 0x0020 && c != JSON.QUOTE_CHAR && c != JSON.ESCAPE_CHAR)
+        continue;
+      super.out.write(str, start, i - start);
+      start = i + 1;
+      super.out.write(JSON.ESCAPE_CHAR);
+      switch (c) {
+      case JSON.QUOTE_CHAR:
+      case JSON.ESCAPE_CHAR:
+        super.out.write(c);
+        break;
+      case '\b':
+        super.out.write('b');
+        break;
+      case '\t':
+        super.out.write('t');
+        break;
+      case '\n':
+        super.out.write('n');
+        break;
+      case '\f':
+        super.out.write('f');
+        break;
+      case '\r':
+        super.out.write('r');
+        break;
+      default:
+        super.out.write("u00");
+        super.out.write(HEX[c >> 4]);
+        super.out.write(HEX[c & 0xf]);
+        break;
+      }
+    }
+    super.out.write(str, start, length - start);
+    super.out.write(JSON.QUOTE_CHAR);
+  }
+
+  /**
+   * Writes a portion of a string as a canonical JSON string.
+   *
+   * @param str String to be written
+   * @param off Offset from which to start reading characters
+   * @param len Number of characters to write
+   * @throws IOException If an I/O error occurs
+   * @throws IndexOutOfBoundsException If {@code off} or {@code len}
+   * are negative or if {@code off + len} exceed the length of str
+   */
+  @Override
+  public void write(String str, int off, int len) throws IOException, IndexOutOfBoundsException {
+    this.write(str.substring(off, (off + len)));
+  }
+
+  /*
+   * Write a map's members sorted by name.  String.compareTo orders
+   * by UTF-16 code units, as the RFC requires.
+   */
+  private void writeObject(Map<?,?> map) throws IOException {
+    int n = map.size();
+    String[] names = new String[n];
+    Object[] values = new Object[n];
+    Integer[] order = new Integer[n];
+    int i = 0;
+    for (Map.Entry<?,?> entry : map.entrySet()) {
+      names[i] = String.valueOf(entry.getKey());
+      values[i] = entry.getValue();
+      order[i] = i;
+      i++;
+    }
+    Arrays.sort(order, (a, b) -> names[a].compareTo(names[b]));
+    super.out.write(JSON.BEGIN_OBJECT);
+    for (i = 0; i < n; i++) {
+      if (i > 0)
+        super.out.write(JSON.VALUE_SEPARATOR);
+      this.write(names[order[i]]);
+      super.out.write(JSON.NAME_SEPARATOR);
+      this.write(values[order[i]]);
+    }
+    super.out.write(JSON.END_OBJECT);
+  }
+
+  /*
+   * Format a double as ECMAScript's Number.prototype.toString does:
+   * the shortest digits that read back as the same double, in plain
+   * notation for decimal exponents from -6 to 21 and in exponent
+   * notation otherwise.
+   */
+  static String formatNumber(double d) {
+    if (Double.isNaN(d) || Double.isInfinite(d))
+      throw new IllegalArgumentException(String.valueOf(d));
+    if (d == 0)
+      return "0";
+    if (d == Math.rint(d) && Math.abs(d) < EXACT_LONG)
+      return Long.toString((long) d);
+    BigDecimal exact = new BigDecimal(d);
+    BigDecimal shortest = exact;
+    for (int p = 1; p <= 17; p++) {
+      BigDecimal rounded = exact.round(new MathContext(p, RoundingMode.HALF_EVEN));
+      if (rounded.doubleValue() == d) {
+        shortest = rounded;
+        break;
+      }
+    }
+    shortest = shortest.stripTrailingZeros();
+    String digits = shortest.unscaledValue().abs().toString();
+    int k = digits.length();
+    // The value is 0.digits times ten to the n.
+    int n = k - shortest.scale();
+    StringBuilder sb = new StringBuilder(k + 8);
+    if (d < 0)
+      sb.append('-');
+    if (k <= n && n <= 21) {
+      sb.append(digits);
+      for (int i = k; i < n; i++)
+        sb.append('0');
+    } else if (0 < n && n <= 21) {
+      sb.append(digits, 0, n).append('.').append(digits, n, k);
+    } else if (-6 < n && n <= 0) {
+      sb.append("0.");
+      for (int i = n; i < 0; i++)
+        sb.append('0');
+      sb.append(digits);
+    } else {
+      sb.append(digits.charAt(0));
+      if (k > 1)
+        sb.append('.').append(digits, 1, k);
+      sb.append('e').append(n - 1 < 0 ? '-' : '+').append(Math.abs(n - 1));
+    }
+    return sb.toString();
+  }
+
+}
@@ -0,0 +1,563 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import java.io.ObjectStreamException;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A JSONObject that stores small objects in a flat array.
+ *
+ * <p>Up to {@link #THRESHOLD} members are kept as alternating keys
+ * and values in one array and found by a linear search, which for a
+ * handful of members is as fast as hashing and needs no hash table
+ * or per-entry nodes.  When a member beyond the threshold is added,
+ * the members move into the inherited HashMap and the object behaves
+ * exactly as a JSONObject from then on.  While compact, members are
+ * iterated in the order they were added.</p>
+ *
+ * <p>{@link JSONReader} builds its objects as CompactJSONObjects.  A
+ * CompactJSONObject is serialized as a plain JSONObject.</p>
+ */
+public final class CompactJSONObject extends JSONObject {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The largest number of members stored in the flat array.
+   */
+  public static final int THRESHOLD = 8;
+
+  // Keys at even and values at odd indexes, or null once inflated.
+  private transient Object[] members;
+  private transient int count = 0;
+  // Changes to the members, for failing fast in iterators.
+  private transient int mods = 0;
+
+  /**
+   * Construct an empty object.
+   */
+  public CompactJSONObject() {
+    super(0);
+    this.members = new Object[8];
+  }
+
+  /**
+   * Construct an object with the members of a map.
+   *
+   * @param map the members
+   * @throws NullPointerException if the map has a null key
+   * @throws ClassCastException if a value is not a valid JSON value
+   */
+  public CompactJSONObject(Map<? extends String, ? extends Object> map) {
+    this();
+    this.putAll(map);
+  }
+
+  @Override
+  public int size() {
+    return this.members != null ? this.count : super.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return this.size() == 0;
+  }
+
+  @Override
+  public Object get(Object key) {
+    if (this.members == null)
+      return super.get(key);
+    int i = this.indexOf(key);
+    return i < 0 ? null : this.members[i + 1];
+  }
+
+  @Override
+  public Object getOrDefault(Object key, Object defaultValue) {
+    if (this.members == null)
+      return super.getOrDefault(key, defaultValue);
+    int i = this.indexOf(key);
+    return i < 0 ? defaultValue : this.members[i + 1];
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    if (this.members == null)
+      return super.containsKey(key);
+    return this.indexOf(key) >= 0;
+  }
+
+  @Override
+  public boolean containsValue(Object value) {
+    if (this.members == null)
+      return super.containsValue(value);
+    for (int i = 1; i < 2 * this.count; i += 2) {
+      if (Objects.equals(value, this.members[i]))
+        return true;
+    }
+    return false;
+  }
+
+  @Override
+  public Object put(String key, Object value) throws ClassCastException {
+    if (key == null)
+      throw new NullPointerException();
+    this.checkInstance(value);
+    return this.putTrusted(key, value);
+  }
+
+  @Override
+  public void putAll(Map<? extends String, ? extends Object> map) throws ClassCastException {
+    for (Map.Entry<? extends String, ? extends Object> entry : map.entrySet()) {
+      if (entry.getKey() == null)
+        throw new NullPointerException();
+      this.checkInstance(entry.getValue());
+    }
+    for (Map.Entry<? extends String, ? extends Object> entry : map.entrySet())
+      this.putTrusted(entry.getKey(), entry.getValue());
+  }
+
+  @Override
+  Object putTrusted(String key, Object value) {
+    if (this.members == null)
+      return super.putTrusted(key, value);
+    int i = this.indexOf(key);
+    if (i >= 0) {
+      Object old = this.members[i + 1];
+      this.members[i + 1] = value;
+      return old;
+    }
+    if (this.count == THRESHOLD) {
+      this.inflate();
+      return super.putTrusted(key, value);
+    }
+    if (2 * this.count == this.members.length)
+      this.members = Arrays.copyOf(this.members, 2 * THRESHOLD);
+    this.members[2 * this.count] = key;
+    this.members[2 * this.count + 1] = value;
+    this.count++;
+    this.mods++;
+    return null;
+  }
+
+  @Override
+  public Object remove(Object key) {
+    if (this.members == null)
+      return super.remove(key);
+    int i = this.indexOf(key);
+    return i < 0 ? null : this.removeAt(i);
+  }
+
+  @Override
+  public boolean remove(Object key, Object value) {
+    if (this.members == null)
+      return super.remove(key, value);
+    int i = this.indexOf(key);
+    if (i < 0 || !Objects.equals(value, this.members[i + 1]))
+      return false;
+    this.removeAt(i);
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    if (this.members == null) {
+      super.clear();
+      return;
+    }
+    Arrays.fill(this.members, null);
+    this.count = 0;
+    this.mods++;
+  }
+
+  @Override
+  public Object putIfAbsent(String key, Object value) {
+    Object old = this.get(key);
+    if (old == null)
+      this.putTrusted(key, value);
+    return old;
+  }
+
+  @Override
+  public boolean replace(String key, Object oldValue, Object newValue) {
+    if (this.members == null)
+      return super.replace(key, oldValue, newValue);
+    int i = this.indexOf(key);
+    if (i < 0 || !Objects.equals(oldValue, this.members[i + 1]))
+      return false;
+    this.members[i + 1] = newValue;
+    return true;
+  }
+
+  @Override
+  public Object replace(String key, Object value) {
+    if (this.members == null)
+      return super.replace(key, value);
+    int i = this.indexOf(key);
+    if (i < 0)
+      return null;
+    Object old = this.members[i + 1];
+    this.members[i + 1] = value;
+    return old;
+  }
+
+  @Override
+  public Object computeIfAbsent(String key, Function<? super String, ? extends Object> function) {
+    if (this.members == null)
+      return super.computeIfAbsent(key, function);
+    Object old = this.get(key);
+    if (old != null)
+      return old;
+    Object value = function.apply(key);
+    if (value != null)
+      this.putTrusted(key, value);
+    return value;
+  }
+
+  @Override
+  public Object computeIfPresent(String key, BiFunction<? super String, ? super Object, ? extends Object> function) {
+    if (this.members == null)
+      return super.computeIfPresent(key, function);
+    Object old = this.get(key);
+    if (old == null)
+      return null;
+    Object value = function.apply(key, old);
+    if (value == null)
+      this.remove(key);
+    else
+      this.putTrusted(key, value);
+    return value;
+  }
+
+  @Override
+  public Object compute(String key, BiFunction<? super String, ? super Object, ? extends Object> function) {
+    if (this.members == null)
+      return super.compute(key, function);
+    Object value = function.apply(key, this.get(key));
+    if (value == null)
+      this.remove(key);
+    else
+      this.putTrusted(key, value);
+    return value;
+  }
+
+  @Override
+  public Object merge(String key, Object value, BiFunction<? super Object, ? super Object, ? extends Object> function) {
+    if (this.members == null)
+      return super.merge(key, value, function);
+    if (value == null)
+      throw new NullPointerException();
+    Object old = this.get(key);
+    Object merged = old == null ? value : function.apply(old, value);
+    if (merged == null)
+      this.remove(key);
+    else
+      this.putTrusted(key, merged);
+    return merged;
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super String, ? super Object> action) {
+    if (this.members == null) {
+      super.forEach(action);
+      return;
+    }
+    int expected = this.mods;
+    for (int i = 0; i < 2 * this.count; i += 2) {
+      action.accept((String) this.members[i], this.members[i + 1]);
+      if (this.mods != expected)
+        throw new ConcurrentModificationException();
+    }
+  }
+
+  @Override
+  public void replaceAll(BiFunction<? super String, ? super Object, ? extends Object> function) {
+    if (this.members == null) {
+      super.replaceAll(function);
+      return;
+    }
+    int expected = this.mods;
+    for (int i = 0; i < 2 * this.count; i += 2) {
+      this.members[i + 1] = function.apply((String) this.members[i], this.members[i + 1]);
+      if (this.mods != expected)
+        throw new ConcurrentModificationException();
+    }
+  }
+
+  @Override
+  public Set<String> keySet() {
+    return this.members == null ? super.keySet() : new KeySet();
+  }
+
+  @Override
+  public Collection<Object> values() {
+    return this.members == null ? super.values() : new Values();
+  }
+
+  @Override
+  public Set<Map.Entry<String, Object>> entrySet() {
+    return this.members == null ? super.entrySet() : new EntrySet();
+  }
+
+  @Override
+  public Object clone() {
+    if (this.members == null)
+      return super.clone();
+    CompactJSONObject copy = new CompactJSONObject();
+    copy.members = this.members.clone();
+    copy.count = this.count;
+    return copy;
+  }
+
+  /*
+   * Serialize as a plain JSONObject, since the members held in the
+   * array are not part of the HashMap's serialized form.
+   */
+  private Object writeReplace() throws ObjectStreamException {
+    return new JSONObject(this);
+  }
+
+  /*
+   * The index of a key in the array, or -1.
+   */
+  private int indexOf(Object key) {
+    if (key == null)
+      return -1;
+    Object[] m = this.members;
+    for (int i = 0; i < 2 * this.count; i += 2) {
+      if (m[i] == key)
+        return i;
+    }
+    for (int i = 0; i < 2 * this.count; i += 2) {
+      if (key.equals(m[i]))
+        return i;
+    }
+    return -1;
+  }
+
+  /*
+   * Remove the member at an index, keeping the others in order.
+   */
+  private Object removeAt(int i) {
+    Object old = this.members[i + 1];
+    int end = 2 * this.count;
+    System.arraycopy(this.members, i + 2, this.members, i, end - i - 2);
+    this.members[end - 2] = null;
+    this.members[end - 1] = null;
+    this.count--;
+    this.mods++;
+    return old;
+  }
+
+  /*
+   * Move the members into the HashMap.
+   */
+  private void inflate() {
+    Object[] m = this.members;
+    int n = this.count;
+    this.members = null;
+    this.count = 0;
+    this.mods++;
+    for (int i = 0; i < 2 * n; i += 2)
+      super.putTrusted((String) m[i], m[i + 1]);
+  }
+
+  /*
+   * Iterates over the array, failing if the object changes other
+   * than through the iterator.  Once the object has inflated, the
+   * views made while it was compact iterate over the HashMap.
+   */
+  private abstract class CompactIterator<E> implements Iterator<E> {
+    private int next = 0;
+    private int last = -1;
+    private int expected = CompactJSONObject.this.mods;
+
+    @Override
+    public boolean hasNext() {
+      return this.next < CompactJSONObject.this.count;
+    }
+
+    int nextIndex() {
+      if (CompactJSONObject.this.mods != this.expected)
+        throw new ConcurrentModificationException();
+      if (this.next >= CompactJSONObject.this.count)
+        throw new NoSuchElementException();
+      this.last = this.next++;
+      return 2 * this.last;
+    }
+
+    @Override
+    public void remove() {
+      if (this.last < 0)
+        throw new IllegalStateException();
+      if (CompactJSONObject.this.mods != this.expected)
+        throw new ConcurrentModificationException();
+      CompactJSONObject.this.removeAt(2 * this.last);
+      this.next = this.last;
+      this.last = -1;
+      this.expected = CompactJSONObject.this.mods;
+    }
+  }
+
+  private final class KeySet extends AbstractSet<String> {
+    @Override
+    public Iterator<String> iterator() {
+      if (CompactJSONObject.this.members == null)
+        return CompactJSONObject.super.keySet().iterator();
+      return new CompactIterator<String>() {
+        @Override
+        public String next() {
+          return (String) CompactJSONObject.this.members[this.nextIndex()];
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return CompactJSONObject.this.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return CompactJSONObject.this.containsKey(o);
+    }
+
+    @Override
+    public void clear() {
+      CompactJSONObject.this.clear();
+    }
+  }
+
+  private final class Values extends AbstractCollection<Object> {
+    @Override
+    public Iterator<Object> iterator() {
+      if (CompactJSONObject.this.members == null)
+        return CompactJSONObject.super.values().iterator();
+      return new CompactIterator<Object>() {
+        @Override
+        public Object next() {
+          return CompactJSONObject.this.members[this.nextIndex() + 1];
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return CompactJSONObject.this.size();
+    }
+
+    @Override
+    public void clear() {
+      CompactJSONObject.this.clear();
+    }
+  }
+
+  private final class EntrySet extends AbstractSet<Map.Entry<String, Object>> {
+    @Override
+    public Iterator<Map.Entry<String, Object>> iterator() {
+      if (CompactJSONObject.this.members == null)
+        return CompactJSONObject.super.entrySet().iterator();
+      return new CompactIterator<Map.Entry<String, Object>>() {
+        @Override
+        public Map.Entry<String, Object> next() {
+          return new Entry(this.nextIndex());
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return CompactJSONObject.this.size();
+    }
+
+    @Override
+    public void clear() {
+      CompactJSONObject.this.clear();
+    }
+  }
+
+  /*
+   * An entry that reads and writes its value in the array for as long
+   * as the member stays at the same index.
+   */
+  private final class Entry implements Map.Entry<String, Object> {
+    private final String key;
+    private final int index;
+    private final int expected;
+
+    Entry(int index) {
+      this.key = (String) CompactJSONObject.this.members[index];
+      this.index = index;
+      this.expected = CompactJSONObject.this.mods;
+    }
+
+    @Override
+    public String getKey() {
+      return this.key;
+    }
+
+    @Override
+    public Object getValue() {
+      if (CompactJSONObject.this.mods == this.expected)
+        return CompactJSONObject.this.members[this.index + 1];
+      return CompactJSONObject.this.get(this.key);
+    }
+
+    @Override
+    public Object setValue(Object value) {
+      if (CompactJSONObject.this.mods == this.expected) {
+        Object old = CompactJSONObject.this.members[this.index + 1];
+        CompactJSONObject.this.members[this.index + 1] = value;
+        return old;
+      }
+      return CompactJSONObject.this.putTrusted(this.key, value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Map.Entry))
+        return false;
+      Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+      return this.key.equals(e.getKey()) && Objects.equals(this.getValue(), e.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+      return this.key.hashCode() ^ Objects.hashCode(this.getValue());
+    }
+
+    @Override
+    public String toString() {
+      return this.key + "=" + this.getValue();
+    }
+  }
+
+}
@@ -83,7 +83,37 @@ public class JSON {
    * specification for a number, <code>false</code> if not
    */
   public static boolean isNumber(String str) {
-    return str.matches("-?[0-9]+(?:\\.[0-9]+)?(?:[eE][-+]?[0-9]+)?");
+    int n = str.length();
+    int i = 0;
+    if (i < n && str.charAt(i) == '-')
+      i++;
+    int start = i;
+    while (i < n && JSON.isDigit(str.charAt(i)))
+      i++;
+    if (i == start)
+      return false;
+    if (i < n && str.charAt(i) == '.') {
+      start = ++i;
+      while (i < n && JSON.isDigit(str.charAt(i)))
+        i++;
+      if (i == start)
+        return false;
+    }
+    if (i < n && (str.charAt(i) == 'e' || str.charAt(i) == 'E')) {
+      i++;
+      if (i < n && (str.charAt(i) == '+' || str.charAt(i) == '-'))
+        i++;
+      start = i;
+      while (i < n && JSON.isDigit(str.charAt(i)))
+        i++;
+      if (i == start)
+        return false;
+    }
+    return i == n;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
   }
 
   // Private constructor, so we don't see it in javadoc and so we
@@ -165,4 +165,13 @@ public class JSONArray extends ArrayList<Object> {
     return super.set(idx, o);
   }
 
+  /*
+   * Appends an element without checking it.  This is for use by
+   * JSONReader and other code in this package that only ever
+   * produces valid JSON values.
+   */
+  boolean addTrusted(Object o) {
+    return super.add(o);
+  }
+
 }
@@ -0,0 +1,830 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.DoublePredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Selected fields of a stream of JSON object records, stored by
+ * column in primitive arrays.
+ *
+ * <p>Loading reads the records of an NDJSON file or stream with the
+ * parser and stores only the chosen fields, without building a
+ * JSONObject for any record.  Each field is named by a dotted path of
+ * member names, such as <code>user.id</code>, and becomes a {@link
+ * Column} of one of the {@link ColumnType}s: integers in a
+ * <code>long[]</code>, other numbers in a <code>double[]</code>,
+ * booleans in a bitmap, and everything else as codes into a
+ * dictionary of distinct strings.  Missing fields and JSON nulls are
+ * marked in a null bitmap.  For example, to total the bytes sent by
+ * requests that failed:</p>
+ *
+ * <pre>
+ * JSONColumnTable table = JSONColumnTable.load(path, "status", "bytes");
+ * BitSet errors = table.getColumn("status").selectStrings(s -&gt; s.equals("error"));
+ * double bytes = table.getColumn("bytes").sum(errors);
+ * </pre>
+ *
+ * <p>A column's type can be given in a schema, or left to be
+ * inferred from the values.  An inferred column starts out as the
+ * type of its first value and is widened as needed: integers become
+ * doubles when a number with a fraction or exponent turns up, and
+ * any other mix becomes strings, numbers and booleans being kept as
+ * their JSON text.  Objects and arrays are always stored as their
+ * JSON text, and integers outside the range of <code>long</code> as
+ * doubles.</p>
+ *
+ * <p>A table is not modified once it is loaded and may be read by
+ * any number of threads.</p>
+ */
+public class JSONColumnTable {
+
+  /**
+   * The ways a column can store its values.
+   */
+  public enum ColumnType {
+    /** Integers in the range of <code>long</code>. */
+    LONG,
+    /** Numbers stored as <code>double</code>. */
+    DOUBLE,
+    /** Booleans. */
+    BOOLEAN,
+    /** Dictionary encoded strings. */
+    STRING
+  }
+
+  private final List<Column> columns;
+  private final Map<String, Column> byName = new HashMap<String, Column>();
+  private final int size;
+
+  private JSONColumnTable(List<Column> columns) {
+    this.columns = Collections.unmodifiableList(columns);
+    for (Column column : columns)
+      this.byName.put(column.name, column);
+    this.size = columns.isEmpty() ? 0 : columns.get(0).size;
+  }
+
+  /**
+   * Load fields of an NDJSON file, inferring the type of each
+   * column.
+   *
+   * @param path the file to read
+   * @param paths the fields to load
+   * @return the table
+   * @throws IOException if the file cannot be read
+   * @throws JSONException if a record is malformed
+   */
+  public static JSONColumnTable load(Path path, String... paths) throws IOException, JSONException {
+    Map<String, ColumnType> schema = new LinkedHashMap<String, ColumnType>();
+    for (String p : paths)
+      schema.put(p, null);
+    return JSONColumnTable.load(path, schema, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Load fields of an NDJSON file with a schema.  The file is split
+   * into ranges of lines that are loaded in parallel and then joined
+   * in order, so rows are in the same order as the records in the
+   * file.
+   *
+   * @param path the file to read
+   * @param schema the fields to load, in column order, each mapped
+   * to its type or to <code>null</code> to infer it
+   * @param threads the number of ranges to load in parallel
+   * @return the table
+   * @throws IOException if the file cannot be read
+   * @throws JSONException if a record is malformed or a value does
+   * not fit the type given for its column
+   * @throws IllegalArgumentException if the schema is empty or
+   * threads is less than 1
+   */
+  public static JSONColumnTable load(Path path, Map<String, ColumnType> schema, int threads) throws IOException, JSONException {
+    if (schema.isEmpty() || threads < 1)
+      throw new IllegalArgumentException();
+    final NDJSONPartitioner partitioner = new NDJSONPartitioner(path);
+    final long[] bounds = partitioner.split(threads);
+    final List<String> names = new ArrayList<String>(schema.keySet());
+    final List<ColumnType> types = new ArrayList<ColumnType>(schema.values());
+    final JSONFieldSelector selector = new JSONFieldSelector(names);
+    int n = bounds.length - 1;
+    ExecutorService executor = Executors.newFixedThreadPool(n);
+    try {
+      List<Future<List<Column>>> futures = new ArrayList<Future<List<Column>>>();
+      for (int i = 0; i < n; i++) {
+        final long start = bounds[i];
+        final long end = bounds[i + 1];
+        futures.add(executor.submit(new Callable<List<Column>>() {
+          @Override
+          public List<Column> call() throws IOException, JSONException {
+            try (JSONReader reader = partitioner.open(start, end)) {
+              return JSONColumnTable.shred(reader, selector, names, types);
+            }
+          }
+        }));
+      }
+      List<Column> columns = JSONColumnTable.get(futures.get(0));
+      for (int i = 1; i < n; i++) {
+        List<Column> part = JSONColumnTable.get(futures.get(i));
+        for (int c = 0; c < columns.size(); c++)
+          columns.get(c).append(part.get(c));
+      }
+      for (Column column : columns)
+        column.trim();
+      return new JSONColumnTable(columns);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Load fields of NDJSON records from a stream with a schema.
+   *
+   * @param in the stream to read
+   * @param schema the fields to load, in column order, each mapped
+   * to its type or to <code>null</code> to infer it
+   * @return the table
+   * @throws IOException if the stream cannot be read
+   * @throws JSONException if a record is malformed or a value does
+   * not fit the type given for its column
+   * @throws IllegalArgumentException if the schema is empty
+   */
+  public static JSONColumnTable read(Reader in, Map<String, ColumnType> schema) throws IOException, JSONException {
+    if (schema.isEmpty())
+      throw new IllegalArgumentException();
+    List<String> names = new ArrayList<String>(schema.keySet());
+    JSONReader reader = in instanceof JSONReader ? (JSONReader) in : new JSONReader(in);
+    List<Column> columns = JSONColumnTable.shred(reader, new JSONFieldSelector(names), names, new ArrayList<ColumnType>(schema.values()));
+    for (Column column : columns)
+      column.trim();
+    return new JSONColumnTable(columns);
+  }
+
+  /**
+   * Get the number of rows.
+   *
+   * @return the number of records loaded
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Get the columns in the order they were given.
+   *
+   * @return an unmodifiable list of the columns
+   */
+  public List<Column> getColumns() {
+    return this.columns;
+  }
+
+  /**
+   * Get a column by its path.
+   *
+   * @param path the path the column was loaded from
+   * @return the column, or <code>null</code> if there is none
+   */
+  public Column getColumn(String path) {
+    return this.byName.get(path);
+  }
+
+  /**
+   * Rebuild a row as a JSON object, with the dotted paths of the
+   * columns turned back into nested objects.
+   *
+   * @param row the index of the row
+   * @return the row
+   * @throws IndexOutOfBoundsException if the row does not exist
+   */
+  public JSONObject getRow(int row) {
+    if (row < 0 || row >= this.size)
+      throw new IndexOutOfBoundsException(String.valueOf(row));
+    JSONObject result = new JSONObject();
+    for (Column column : this.columns) {
+      String[] names = column.name.split("\\.", -1);
+      JSONObject target = result;
+      for (int i = 0; i < names.length - 1; i++) {
+        Object child = target.get(names[i]);
+        if (!(child instanceof JSONObject)) {
+          child = new JSONObject();
+          target.putTrusted(names[i], child);
+        }
+        target = (JSONObject) child;
+      }
+      target.putTrusted(names[names.length - 1], column.get(row));
+    }
+    return result;
+  }
+
+  /*
+   * Read records into new columns until the end of the input.
+   */
+  private static List<Column> shred(JSONReader reader, JSONFieldSelector selector, List<String> names, List<ColumnType> types) throws IOException, JSONException {
+    List<Column> columns = new ArrayList<Column>(names.size());
+    for (int i = 0; i < names.size(); i++)
+      columns.add(new Column(names.get(i), types.get(i)));
+    Object[] slots = new Object[selector.size()];
+    while (selector.readRecord(reader, slots)) {
+      for (int i = 0; i < slots.length; i++)
+        columns.get(i).add(slots[i]);
+    }
+    return columns;
+  }
+
+  /*
+   * Wait for a partition, rethrowing its failure as thrown.
+   */
+  private static <T> T get(Future<T> future) throws IOException, JSONException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException)
+        throw (IOException) cause;
+      if (cause instanceof JSONException)
+        throw (JSONException) cause;
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException) cause;
+      throw new IOException(cause);
+    }
+  }
+
+  /**
+   * One field of every row.  Values are read by row index with the
+   * getter for the column's type; {@link #get(int)} works for any
+   * type.  The select methods return the set of rows whose values
+   * pass a test, which can be combined with the methods of BitSet
+   * and passed to {@link #sum(BitSet)} and {@link #count(BitSet)} of
+   * any column of the same table.
+   */
+  public static final class Column {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final String name;
+    private final ColumnType declared;
+    private ColumnType type;
+    private int size = 0;
+    private int capacity = INITIAL_CAPACITY;
+    // A set bit marks a missing value or JSON null.
+    private long[] nulls = new long[INITIAL_CAPACITY >> 6];
+    // Storage for the current type; the others are null.
+    private long[] longs;
+    private double[] doubles;
+    private long[] bits;
+    private int[] codes;
+    private List<String> dictionary;
+    private Map<String, Integer> codeOf;
+
+    Column(String name, ColumnType declared) {
+      this.name = name;
+      this.declared = declared;
+      if (declared != null)
+        this.convert(declared);
+    }
+
+    /**
+     * Get the path the column was loaded from.
+     *
+     * @return the dotted path
+     */
+    public String getName() {
+      return this.name;
+    }
+
+    /**
+     * Get the type of the column.  A column whose values were all
+     * null and whose type was not given has no type.
+     *
+     * @return the type, or <code>null</code>
+     */
+    public ColumnType getType() {
+      return this.type;
+    }
+
+    /**
+     * Get the number of rows.
+     *
+     * @return the number of rows
+     */
+    public int size() {
+      return this.size;
+    }
+
+    /**
+     * Check whether a row's value is missing or JSON null.
+     *
+     * @param row the index of the row
+     * @return <code>true</code> if there is no value
+     */
+    public boolean isNull(int row) {
+      this.check(row);
+      return (this.nulls[row >>> 6] & (1L << row)) != 0;
+    }
+
+    /**
+     * Get a value of a {@link ColumnType#LONG} column.  Null rows
+     * read as 0.
+     *
+     * @param row the index of the row
+     * @return the value
+     * @throws ClassCastException if the column is of another type
+     */
+    public long getLong(int row) {
+      this.check(row);
+      this.require(this.longs != null);
+      return this.longs[row];
+    }
+
+    /**
+     * Get a value of a {@link ColumnType#DOUBLE} or {@link
+     * ColumnType#LONG} column.  Null rows read as 0.
+     *
+     * @param row the index of the row
+     * @return the value
+     * @throws ClassCastException if the column is of another type
+     */
+    public double getDouble(int row) {
+      this.check(row);
+      if (this.longs != null)
+        return this.longs[row];
+      this.require(this.doubles != null);
+      return this.doubles[row];
+    }
+
+    /**
+     * Get a value of a {@link ColumnType#BOOLEAN} column.  Null rows
+     * read as <code>false</code>.
+     *
+     * @param row the index of the row
+     * @return the value
+     * @throws ClassCastException if the column is of another type
+     */
+    public boolean getBoolean(int row) {
+      this.check(row);
+      this.require(this.bits != null);
+      return (this.bits[row >>> 6] & (1L << row)) != 0;
+    }
+
+    /**
+     * Get a value of any column as a string: the string itself for a
+     * {@link ColumnType#STRING} column, and the JSON text of the
+     * value for the others.
+     *
+     * @param row the index of the row
+     * @return the value, or <code>null</code> for a null row
+     */
+    public String getString(int row) {
+      return this.isNull(row) ? null : this.text(row);
+    }
+
+    /**
+     * Get the dictionary code of a value of a {@link
+     * ColumnType#STRING} column.  Equal strings have equal codes.
+     *
+     * @param row the index of the row
+     * @return the index of the value in {@link #getDictionary()}, or
+     * -1 for a null row
+     * @throws ClassCastException if the column is of another type
+     */
+    public int getCode(int row) {
+      this.require(this.codes != null);
+      return this.isNull(row) ? -1 : this.codes[row];
+    }
+
+    /**
+     * Get the distinct strings of a {@link ColumnType#STRING}
+     * column, in the order they were first seen.
+     *
+     * @return an unmodifiable list of the strings
+     * @throws ClassCastException if the column is of another type
+     */
+    public List<String> getDictionary() {
+      this.require(this.dictionary != null);
+      return Collections.unmodifiableList(this.dictionary);
+    }
+
+    /**
+     * Get a value as a JSON value: a Long, Double, JSONLiteral or
+     * String according to the column's type.
+     *
+     * @param row the index of the row
+     * @return the value, or <code>JSONLiteral.NULL</code> for a null
+     * row
+     */
+    public Object get(int row) {
+      if (this.isNull(row))
+        return JSONLiteral.NULL;
+      switch (this.type) {
+      case LONG:
+        return Long.valueOf(this.longs[row]);
+      case DOUBLE:
+        return Double.valueOf(this.doubles[row]);
+      case BOOLEAN:
+        return this.getBoolean(row) ? JSONLiteral.TRUE : JSONLiteral.FALSE;
+      default:
+        return this.dictionary.get(this.codes[row]);
+      }
+    }
+
+    /**
+     * Select the rows of a {@link ColumnType#LONG} column whose
+     * values pass a test.  Null rows are never selected.
+     *
+     * @param test the test
+     * @return the selected rows
+     * @throws ClassCastException if the column is of another type
+     */
+    public BitSet selectLongs(LongPredicate test) {
+      this.require(this.longs != null);
+      BitSet rows = new BitSet(this.size);
+      long[] values = this.longs;
+      for (int i = 0; i < this.size; i++) {
+        if ((this.nulls[i >>> 6] & (1L << i)) == 0 && test.test(values[i]))
+          rows.set(i);
+      }
+      return rows;
+    }
+
+    /**
+     * Select the rows of a {@link ColumnType#DOUBLE} or {@link
+     * ColumnType#LONG} column whose values pass a test.  Null rows
+     * are never selected.
+     *
+     * @param test the test
+     * @return the selected rows
+     * @throws ClassCastException if the column is of another type
+     */
+    public BitSet selectDoubles(DoublePredicate test) {
+      this.require(this.doubles != null || this.longs != null);
+      BitSet rows = new BitSet(this.size);
+      for (int i = 0; i < this.size; i++) {
+        if ((this.nulls[i >>> 6] & (1L << i)) == 0) {
+          double d = this.doubles != null ? this.doubles[i] : this.longs[i];
+          if (test.test(d))
+            rows.set(i);
+        }
+      }
+      return rows;
+    }
+
+    /**
+     * Select the rows whose values pass a test on their strings, as
+     * returned by {@link #getString(int)}.  For a {@link
+     * ColumnType#STRING} column the test is run once per distinct
+     * string rather than once per row.  Null rows are never
+     * selected.
+     *
+     * @param test the test
+     * @return the selected rows
+     */
+    public BitSet selectStrings(Predicate<String> test) {
+      BitSet rows = new BitSet(this.size);
+      if (this.codes != null) {
+        boolean[] passes = new boolean[this.dictionary.size()];
+        for (int i = 0; i < passes.length; i++)
+          passes[i] = test.test(this.dictionary.get(i));
+        int[] values = this.codes;
+        for (int i = 0; i < this.size; i++) {
+          if ((this.nulls[i >>> 6] & (1L << i)) == 0 && passes[values[i]])
+            rows.set(i);
+        }
+      } else if (this.type != null) {
+        for (int i = 0; i < this.size; i++) {
+          if ((this.nulls[i >>> 6] & (1L << i)) == 0 && test.test(this.text(i)))
+            rows.set(i);
+        }
+      }
+      return rows;
+    }
+
+    /**
+     * Total the values of a {@link ColumnType#LONG} or {@link
+     * ColumnType#DOUBLE} column, ignoring null rows.
+     *
+     * @param rows the rows to total, or <code>null</code> for all
+     * @return the total
+     * @throws ClassCastException if the column is of another type
+     */
+    public double sum(BitSet rows) {
+      this.require(this.doubles != null || this.longs != null);
+      double total = 0;
+      if (rows == null) {
+        if (this.longs != null) {
+          long[] values = this.longs;
+          long t = 0;
+          for (int i = 0; i < this.size; i++)
+            t += values[i];
+          // Null rows hold 0, so need not be skipped.
+          return t;
+        }
+        double[] values = this.doubles;
+        for (int i = 0; i < this.size; i++)
+          total += values[i];
+        return total;
+      }
+      for (int i = rows.nextSetBit(0); i >= 0 && i < this.size; i = rows.nextSetBit(i + 1))
+        total += this.longs != null ? this.longs[i] : this.doubles[i];
+      return total;
+    }
+
+    /**
+     * Count the rows that are not null.
+     *
+     * @param rows the rows to count, or <code>null</code> for all
+     * @return the number of rows with values
+     */
+    public int count(BitSet rows) {
+      int n = 0;
+      if (rows == null) {
+        int words = (this.size + 63) >>> 6;
+        for (int w = 0; w < words; w++)
+          n += Long.bitCount(this.nulls[w]);
+        return this.size - n;
+      }
+      for (int i = rows.nextSetBit(0); i >= 0 && i < this.size; i = rows.nextSetBit(i + 1)) {
+        if ((this.nulls[i >>> 6] & (1L << i)) == 0)
+          n++;
+      }
+      return n;
+    }
+
+    /*
+     * Add a value read by the field selector: null when missing.
+     */
+    void add(Object value) throws JSONException {
+      if (this.size == this.capacity)
+        this.grow(this.capacity * 2);
+      int row = this.size;
+      if (value == null || value == JSONLiteral.NULL) {
+        this.nulls[row >>> 6] |= 1L << row;
+        this.size++;
+        return;
+      }
+      ColumnType kind = Column.kindOf(value);
+      ColumnType target = this.widen(kind);
+      if (target == null) {
+        ResourceBundle bundle = com.sigio.json.BundleLoader.getBundle();
+        String message = String.format(bundle.getString("COLUMN_TYPE_MISMATCH"), kind, this.name, this.declared);
+        throw new JSONException(message);
+      }
+      if (target != this.type)
+        this.convert(target);
+      switch (target) {
+      case LONG:
+        this.longs[row] = ((Number) value).longValue();
+        break;
+      case DOUBLE:
+        this.doubles[row] = ((Number) value).doubleValue();
+        break;
+      case BOOLEAN:
+        if (value == JSONLiteral.TRUE || Boolean.TRUE.equals(value))
+          this.bits[row >>> 6] |= 1L << row;
+        break;
+      default:
+        this.codes[row] = this.encode(Column.toText(value));
+        break;
+      }
+      this.size++;
+    }
+
+    /*
+     * Append the rows of a column loaded from a later part of the
+     * input.  The other column may be converted in the process.
+     */
+    void append(Column other) {
+      ColumnType target = other.type == null ? this.type : this.widen(other.type);
+      if (target != this.type)
+        this.convert(target);
+      if (target != null && other.type != target)
+        other.convert(target);
+      int total = this.size + other.size;
+      if (total > this.capacity)
+        this.grow(Math.max(total, this.capacity * 2));
+      int base = this.size;
+      for (int i = 0; i < other.size; i++) {
+        if ((other.nulls[i >>> 6] & (1L << i)) != 0)
+          this.nulls[(base + i) >>> 6] |= 1L << (base + i);
+      }
+      if (target != null) {
+        switch (target) {
+        case LONG:
+          System.arraycopy(other.longs, 0, this.longs, base, other.size);
+          break;
+        case DOUBLE:
+          System.arraycopy(other.doubles, 0, this.doubles, base, other.size);
+          break;
+        case BOOLEAN:
+          for (int i = 0; i < other.size; i++) {
+            if ((other.bits[i >>> 6] & (1L << i)) != 0)
+              this.bits[(base + i) >>> 6] |= 1L << (base + i);
+          }
+          break;
+        default:
+          int[] remap = new int[other.dictionary.size()];
+          for (int i = 0; i < remap.length; i++)
+            remap[i] = this.encode(other.dictionary.get(i));
+          for (int i = 0; i < other.size; i++)
+            this.codes[base + i] = (other.nulls[i >>> 6] & (1L << i)) != 0 ? 0 : remap[other.codes[i]];
+          break;
+        }
+      }
+      this.size = total;
+    }
+
+    /*
+     * Shrink the arrays to the number of rows once loading is done.
+     */
+    void trim() {
+      this.grow(Math.max(this.size, 1));
+      this.codeOf = null;
+    }
+
+    /*
+     * The type a column must have to hold its values and a value of
+     * another type, or null if the column's type was given and the
+     * value does not fit it.
+     */
+    private ColumnType widen(ColumnType kind) {
+      if (this.declared != null) {
+        if (kind == this.declared || this.declared == ColumnType.STRING
+            || (kind == ColumnType.LONG && this.declared == ColumnType.DOUBLE))
+          return this.declared;
+        return null;
+      }
+      if (this.type == null || this.type == kind)
+        return kind;
+      if ((this.type == ColumnType.LONG || this.type == ColumnType.DOUBLE)
+          && (kind == ColumnType.LONG || kind == ColumnType.DOUBLE))
+        return ColumnType.DOUBLE;
+      return ColumnType.STRING;
+    }
+
+    /*
+     * Change the column's storage to another type, converting the
+     * rows already stored.
+     */
+    private void convert(ColumnType target) {
+      int n = this.size;
+      switch (target) {
+      case LONG:
+        this.longs = new long[this.capacity];
+        break;
+      case DOUBLE:
+        this.doubles = new double[this.capacity];
+        if (this.longs != null) {
+          for (int i = 0; i < n; i++)
+            this.doubles[i] = this.longs[i];
+        }
+        break;
+      case BOOLEAN:
+        this.bits = new long[this.capacity >> 6];
+        break;
+      default:
+        this.dictionary = new ArrayList<String>();
+        this.codeOf = new HashMap<String, Integer>();
+        int[] c = new int[this.capacity];
+        if (this.type != null) {
+          for (int i = 0; i < n; i++) {
+            if ((this.nulls[i >>> 6] & (1L << i)) == 0)
+              c[i] = this.encode(this.text(i));
+          }
+        }
+        this.codes = c;
+        break;
+      }
+      if (target != ColumnType.LONG)
+        this.longs = null;
+      if (target != ColumnType.DOUBLE)
+        this.doubles = null;
+      if (target != ColumnType.BOOLEAN)
+        this.bits = null;
+      this.type = target;
+    }
+
+    /*
+     * Resize the arrays to hold a number of rows, rounded up to a
+     * whole word of the bitmaps.
+     */
+    private void grow(int rows) {
+      int cap = (rows + 63) & ~63;
+      this.nulls = Arrays.copyOf(this.nulls, cap >> 6);
+      if (this.longs != null)
+        this.longs = Arrays.copyOf(this.longs, cap);
+      if (this.doubles != null)
+        this.doubles = Arrays.copyOf(this.doubles, cap);
+      if (this.bits != null)
+        this.bits = Arrays.copyOf(this.bits, cap >> 6);
+      if (this.codes != null)
+        this.codes = Arrays.copyOf(this.codes, cap);
+      this.capacity = cap;
+    }
+
+    private int encode(String s) {
+      Integer code = this.codeOf.get(s);
+      if (code == null) {
+        code = Integer.valueOf(this.dictionary.size());
+        this.dictionary.add(s);
+        this.codeOf.put(s, code);
+      }
+      return code.intValue();
+    }
+
+    /*
+     * The JSON text of a non-null row of any type.
+     */
+    private String text(int row) {
+      switch (this.type) {
+      case LONG:
+        return Long.toString(this.longs[row]);
+      case DOUBLE:
+        return Double.toString(this.doubles[row]);
+      case BOOLEAN:
+        return (this.bits[row >>> 6] & (1L << row)) != 0 ? "true" : "false";
+      default:
+        return this.dictionary.get(this.codes[row]);
+      }
+    }
+
+    private static ColumnType kindOf(Object value) {
+      if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+        return ColumnType.LONG;
+      if (value instanceof JSONNumber && ((JSONNumber) value).isIntegral()) {
+        try {
+          ((JSONNumber) value).longValueExact();
+          return ColumnType.LONG;
+        } catch (ArithmeticException e) {
+          return ColumnType.DOUBLE;
+        }
+      }
+      if (value instanceof Number)
+        return ColumnType.DOUBLE;
+      if (value instanceof JSONLiteral || value instanceof Boolean)
+        return ColumnType.BOOLEAN;
+      return ColumnType.STRING;
+    }
+
+    private static String toText(Object value) {
+      if (value instanceof CharSequence || value instanceof Number || value instanceof JSONLiteral)
+        return value.toString();
+      StringWriter out = new StringWriter();
+      try {
+        new JSONWriter(out).write(value);
+      } catch (IOException e) {
+        // StringWriter does not throw.
+      }
+      return out.toString();
+    }
+
+    private void check(int row) {
+      if (row < 0 || row >= this.size)
+        throw new IndexOutOfBoundsException(String.valueOf(row));
+    }
+
+    private void require(boolean ok) {
+      if (!ok)
+        throw new ClassCastException(this.name + " is " + this.type);
+    }
+
+  }
+
+}
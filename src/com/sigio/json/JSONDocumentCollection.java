@@ -0,0 +1,391 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in-memory collection of JSON objects with secondary indexes.
+ *
+ * <p>Documents are stored under a numeric id assigned when they are
+ * inserted.  Indexes are declared on paths of member names separated
+ * by dots, where a member may be followed by <code>[*]</code> to
+ * index every element of an array, for example
+ * <code>customer.id</code> or <code>tags[*]</code>.  A
+ * {@link IndexType#HASH} index answers equality lookups in constant
+ * time, and a {@link IndexType#SORTED} index answers equality and
+ * range lookups in logarithmic time.  Lookups on paths without an
+ * index fall back to scanning every document.</p>
+ *
+ * <p>Indexes are kept up to date by {@link #insert}, {@link #update}
+ * and {@link #remove}.  A document must not be modified while it is
+ * in the collection; to change one, pass a modified copy to {@link
+ * #update}.  Only strings, numbers and literals are indexed; numbers
+ * match by value whatever their class, so <code>1</code> finds both
+ * <code>1</code> and <code>1.0</code>.</p>
+ *
+ * <p>The collection is safe for use by multiple threads.  Lookups run
+ * concurrently with each other, and changes lock out lookups while
+ * they are being made.</p>
+ */
+public class JSONDocumentCollection {
+
+  /**
+   * The kinds of index that can be declared on a path.
+   */
+  public enum IndexType {
+    /** Hash index for equality lookups. */
+    HASH,
+    /** Sorted index for equality and range lookups. */
+    SORTED
+  }
+
+  private final Map<Long, JSONObject> documents = new LinkedHashMap<Long, JSONObject>();
+  private final Map<String, Index> indexes = new HashMap<String, Index>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private long nextId = 1;
+
+  /**
+   * Construct an empty collection with no indexes.
+   */
+  public JSONDocumentCollection() {
+    super();
+  }
+
+  /**
+   * Declare an index on a path.  The index is built from the
+   * documents already in the collection.  Declaring an index on a
+   * path that already has one replaces it.
+   *
+   * @param path the path of the values to index
+   * @param type the kind of index
+   * @throws IllegalArgumentException if the path is malformed
+   */
+  public void createIndex(String path, IndexType type) {
+    Index index = new Index(new JSONKeyPath(path), type);
+    this.lock.writeLock().lock();
+    try {
+      for (Map.Entry<Long, JSONObject> entry : this.documents.entrySet())
+        index.add(entry.getKey(), entry.getValue());
+      this.indexes.put(path, index);
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Remove the index on a path.
+   *
+   * @param path the path of the index
+   * @return <code>true</code> if there was an index on the path
+   */
+  public boolean dropIndex(String path) {
+    this.lock.writeLock().lock();
+    try {
+      return this.indexes.remove(path) != null;
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Add a document to the collection.
+   *
+   * @param document the document to add
+   * @return the id assigned to the document
+   * @throws NullPointerException if the document is <code>null</code>
+   */
+  public long insert(JSONObject document) {
+    if (document == null)
+      throw new NullPointerException();
+    this.lock.writeLock().lock();
+    try {
+      long id = this.nextId++;
+      this.documents.put(id, document);
+      for (Index index : this.indexes.values())
+        index.add(id, document);
+      return id;
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Replace the document with an id.
+   *
+   * @param id the id of the document
+   * @param document the new document
+   * @return the document that was replaced, or <code>null</code> if
+   * there is no document with the id, in which case nothing changes
+   * @throws NullPointerException if the document is <code>null</code>
+   */
+  public JSONObject update(long id, JSONObject document) {
+    if (document == null)
+      throw new NullPointerException();
+    this.lock.writeLock().lock();
+    try {
+      JSONObject old = this.documents.get(id);
+      if (old == null)
+        return null;
+      this.documents.put(id, document);
+      for (Index index : this.indexes.values()) {
+        index.remove(id);
+        index.add(id, document);
+      }
+      return old;
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Remove the document with an id.
+   *
+   * @param id the id of the document
+   * @return the document that was removed, or <code>null</code> if
+   * there is no document with the id
+   */
+  public JSONObject remove(long id) {
+    this.lock.writeLock().lock();
+    try {
+      JSONObject old = this.documents.remove(id);
+      if (old != null) {
+        for (Index index : this.indexes.values())
+          index.remove(id);
+      }
+      return old;
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Get the document with an id.
+   *
+   * @param id the id of the document
+   * @return the document, or <code>null</code> if there is none
+   */
+  public JSONObject get(long id) {
+    this.lock.readLock().lock();
+    try {
+      return this.documents.get(id);
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Get the number of documents in the collection.
+   *
+   * @return the number of documents
+   */
+  public int size() {
+    this.lock.readLock().lock();
+    try {
+      return this.documents.size();
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Find the documents with a value at a path equal to a given
+   * value.  For a path with <code>[*]</code>, a document matches if
+   * any of its values at the path is equal.  A <code>null</code>
+   * value finds JSON nulls, as {@link JSONLiteral#NULL} does, whether
+   * or not the path has an index; documents without a value at the
+   * path never match.
+   *
+   * @param path the path to look up
+   * @param value the value to look for
+   * @return the matching documents, in order of id
+   */
+  public List<JSONObject> find(String path, Object value) {
+    if (value == null)
+      value = JSONLiteral.NULL;
+    this.lock.readLock().lock();
+    try {
+      Index index = this.indexes.get(path);
+      if (index != null)
+        return this.documents(index.find(value));
+      return this.scan(new JSONKeyPath(path), value, true, value, true);
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Find the documents with a value at a path within a range.
+   * Values are ordered as JSON null, false, true, numbers and then
+   * strings, so a range whose bounds are both numbers or both strings
+   * only matches values of that type.
+   *
+   * @param path the path to look up
+   * @param from the lower bound, or <code>null</code> for none
+   * @param fromInclusive whether the lower bound is included
+   * @param to the upper bound, or <code>null</code> for none
+   * @param toInclusive whether the upper bound is included
+   * @return the matching documents, in order of id
+   */
+  public List<JSONObject> findRange(String path, Object from, boolean fromInclusive, Object to, boolean toInclusive) {
+    this.lock.readLock().lock();
+    try {
+      Index index = this.indexes.get(path);
+      if (index != null && index.sorted != null)
+        return this.documents(index.findRange(from, fromInclusive, to, toInclusive));
+      return this.scan(new JSONKeyPath(path), from, fromInclusive, to, toInclusive);
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /*
+   * Look up the documents for a set of ids, in order of id.
+   */
+  private List<JSONObject> documents(Collection<Long> ids) {
+    long[] sorted = new long[ids.size()];
+    int n = 0;
+    for (Long id : ids)
+      sorted[n++] = id;
+    Arrays.sort(sorted);
+    List<JSONObject> result = new ArrayList<JSONObject>(n);
+    for (long id : sorted)
+      result.add(this.documents.get(id));
+    return result;
+  }
+
+  /*
+   * Find documents without an index.  A null bound is open.
+   */
+  private List<JSONObject> scan(JSONKeyPath path, Object from, boolean fromInclusive, Object to, boolean toInclusive) {
+    JSONValueComparator comparator = JSONValueComparator.INSTANCE;
+    List<JSONObject> result = new ArrayList<JSONObject>();
+    for (JSONObject document : this.documents.values()) {
+      for (Object value : path.collect(document)) {
+        if (!Index.indexable(value))
+          continue;
+        if (from != null) {
+          int c = comparator.compare(value, from);
+          if (c < 0 || (c == 0 && !fromInclusive))
+            continue;
+        }
+        if (to != null) {
+          int c = comparator.compare(value, to);
+          if (c > 0 || (c == 0 && !toInclusive))
+            continue;
+        }
+        result.add(document);
+        break;
+      }
+    }
+    return result;
+  }
+
+  /*
+   * An index on one path.  The keys of each document are remembered
+   * so that they can be removed even if the document has changed.
+   */
+  private static class Index {
+    final JSONKeyPath path;
+    final Map<Object, Set<Long>> hash;
+    final NavigableMap<Object, Set<Long>> sorted;
+    final Map<Long, Object[]> keysById = new HashMap<Long, Object[]>();
+
+    Index(JSONKeyPath path, IndexType type) {
+      this.path = path;
+      if (type == IndexType.SORTED) {
+        this.sorted = new TreeMap<Object, Set<Long>>(JSONValueComparator.INSTANCE);
+        this.hash = this.sorted;
+      } else {
+        this.sorted = null;
+        this.hash = new HashMap<Object, Set<Long>>();
+      }
+    }
+
+    static boolean indexable(Object value) {
+      return value instanceof CharSequence || value instanceof Number
+        || value instanceof JSONLiteral || value instanceof Boolean;
+    }
+
+    void add(long id, JSONObject document) {
+      List<Object> values = this.path.collect(document);
+      List<Object> keys = new ArrayList<Object>(values.size());
+      for (Object value : values) {
+        if (!Index.indexable(value))
+          continue;
+        Object key = JSONValueComparator.normalize(value);
+        Set<Long> ids = this.hash.get(key);
+        if (ids == null) {
+          ids = new HashSet<Long>(2);
+          this.hash.put(key, ids);
+        }
+        if (ids.add(id))
+          keys.add(key);
+      }
+      if (!keys.isEmpty())
+        this.keysById.put(id, keys.toArray());
+    }
+
+    void remove(long id) {
+      Object[] keys = this.keysById.remove(id);
+      if (keys == null)
+        return;
+      for (Object key : keys) {
+        Set<Long> ids = this.hash.get(key);
+        if (ids != null) {
+          ids.remove(id);
+          if (ids.isEmpty())
+            this.hash.remove(key);
+        }
+      }
+    }
+
+    Collection<Long> find(Object value) {
+      if (!Index.indexable(value))
+        return new ArrayList<Long>();
+      Set<Long> ids = this.hash.get(JSONValueComparator.normalize(value));
+      return ids == null ? new ArrayList<Long>() : ids;
+    }
+
+    Collection<Long> findRange(Object from, boolean fromInclusive, Object to, boolean toInclusive) {
+      NavigableMap<Object, Set<Long>> range = this.sorted;
+      if (from != null)
+        range = range.tailMap(JSONValueComparator.normalize(from), fromInclusive);
+      if (to != null)
+        range = range.headMap(JSONValueComparator.normalize(to), toInclusive);
+      Set<Long> ids = new HashSet<Long>();
+      for (Set<Long> s : range.values())
+        ids.addAll(s);
+      return ids;
+    }
+  }
+
+}
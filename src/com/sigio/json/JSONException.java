@@ -54,4 +54,14 @@ public class JSONException extends Exception {
     super(cause);
   }
 
+  /**
+   * Constructs a new exception with the specified detail message,
+   * cause, suppression enabled or disabled, and writable stack trace
+   * enabled or disabled.  Subclasses use this to create exceptions
+   * that do not capture a stack trace.
+   */
+  protected JSONException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+    super(message, cause, enableSuppression, writableStackTrace);
+  }
+
 }
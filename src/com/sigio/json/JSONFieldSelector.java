@@ -0,0 +1,153 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Reads selected members of JSON object records, skipping the rest.
+ *
+ * Fields are given as dotted paths of member names, such as
+ * "user.id", and each path is assigned the slot with the same index
+ * in the array filled by readRecord.  Only the values at those paths
+ * are built; everything else in the record is passed over with
+ * JSONReader.skipValue().  A slot is left null if its path does not
+ * exist in the record, so a JSON null shows up as JSONLiteral.NULL.
+ */
+class JSONFieldSelector {
+
+  private final Node root = new Node();
+  private final int count;
+
+  JSONFieldSelector(List<String> paths) {
+    this.count = paths.size();
+    for (int i = 0; i < this.count; i++) {
+      Node node = this.root;
+      for (String name : paths.get(i).split("\\.", -1)) {
+        if (node.children == null)
+          node.children = new HashMap<String, Node>();
+        Node child = node.children.get(name);
+        if (child == null) {
+          child = new Node();
+          node.children.put(name, child);
+        }
+        node = child;
+      }
+      if (node.slot >= 0)
+        throw new IllegalArgumentException(paths.get(i));
+      node.slot = i;
+    }
+  }
+
+  /*
+   * Number of slots needed by readRecord.
+   */
+  int size() {
+    return this.count;
+  }
+
+  /*
+   * Read the next record from the reader into the slots.  Returns
+   * false at the end of the input.  Records that are not objects are
+   * skipped and leave every slot null.
+   */
+  boolean readRecord(JSONReader reader, Object[] slots) throws IOException, JSONException {
+    Arrays.fill(slots, 0, this.count, null);
+    int c = reader.skipWSRead();
+    if (c == -1)
+      return false;
+    if (c == JSON.BEGIN_OBJECT && this.root.children != null) {
+      this.readObject(reader, this.root, slots);
+    } else {
+      reader.unread(c);
+      reader.skipValue();
+    }
+    return true;
+  }
+
+  /*
+   * Read the members of an object whose opening brace has been read.
+   */
+  private void readObject(JSONReader reader, Node node, Object[] slots) throws IOException, JSONException {
+    int c = reader.skipWSRead();
+    if (c == JSON.END_OBJECT)
+      return;
+    while (true) {
+      if (c != JSON.QUOTE_CHAR)
+        throw reader.syntaxException(JSONSyntaxException.ILLEGAL_CHARACTER, (char) c);
+      String name = reader.readString();
+      c = reader.skipWSRead();
+      if (c != JSON.NAME_SEPARATOR)
+        throw reader.syntaxException(JSONSyntaxException.ILLEGAL_CHARACTER, (char) c);
+      Node child = node.children.get(name);
+      if (child == null) {
+        reader.skipValue();
+      } else if (child.slot >= 0) {
+        Object value = reader.readValue();
+        slots[child.slot] = value;
+        if (child.children != null)
+          JSONFieldSelector.fill(value, child, slots);
+      } else {
+        c = reader.skipWSRead();
+        if (c == JSON.BEGIN_OBJECT) {
+          this.readObject(reader, child, slots);
+        } else {
+          reader.unread(c);
+          reader.skipValue();
+        }
+      }
+      c = reader.skipWSRead();
+      if (c == JSON.END_OBJECT)
+        return;
+      if (c != JSON.VALUE_SEPARATOR)
+        throw reader.syntaxException(JSONSyntaxException.ILLEGAL_CHARACTER, (char) c);
+      c = reader.skipWSRead();
+    }
+  }
+
+  /*
+   * Fill the slots below a node from a value that has already been
+   * read in full.
+   */
+  private static void fill(Object value, Node node, Object[] slots) {
+    if (!(value instanceof Map))
+      return;
+    Map<?,?> map = (Map<?,?>) value;
+    for (Map.Entry<String, Node> entry : node.children.entrySet()) {
+      Node child = entry.getValue();
+      if (!map.containsKey(entry.getKey()))
+        continue;
+      Object member = map.get(entry.getKey());
+      if (child.slot >= 0)
+        slots[child.slot] = member;
+      if (child.children != null)
+        JSONFieldSelector.fill(member, child, slots);
+    }
+  }
+
+  private static class Node {
+    Map<String, Node> children = null;
+    int slot = -1;
+  }
+
+}
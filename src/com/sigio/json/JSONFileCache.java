@@ -0,0 +1,330 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded cache of parsed JSON files.
+ *
+ * <p>{@link #get(Path)} returns the value parsed from a file, reading
+ * and parsing it only if it is not already cached or if the file's
+ * modification time or size has changed since it was parsed.  When
+ * several threads ask for the same file at once, one of them parses
+ * it and the others wait for and share its result.  Failed loads are
+ * not cached.</p>
+ *
+ * <p>The cache is bounded by an estimate of the memory retained by
+ * the parsed values.  When the estimate exceeds the bound, the least
+ * recently used files are dropped.  A file whose value alone exceeds
+ * the bound is parsed and returned but not kept.</p>
+ *
+ * <p>The values returned are shared between callers and must not be
+ * modified.  Callers that need to change one should copy it first.</p>
+ *
+ * <p>A file that is rewritten with the same size within the
+ * resolution of the file system's modification times cannot be told
+ * apart from the original; {@link #invalidate(Path)} can be used when
+ * that matters.</p>
+ */
+public class JSONFileCache {
+
+  private final long maxWeight;
+  private final ConcurrentHashMap<Path, CompletableFuture<Entry>> entries = new ConcurrentHashMap<Path, CompletableFuture<Entry>>();
+  private final AtomicLong weight = new AtomicLong();
+  private final AtomicLong clock = new AtomicLong();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Construct a cache that retains roughly up to the given number of
+   * bytes of parsed values.
+   *
+   * @param maxWeight the bound in bytes
+   * @throws IllegalArgumentException if the bound is not positive
+   */
+  public JSONFileCache(long maxWeight) {
+    if (maxWeight <= 0)
+      throw new IllegalArgumentException(String.valueOf(maxWeight));
+    this.maxWeight = maxWeight;
+  }
+
+  /**
+   * Get the value parsed from a UTF-8 JSON file.
+   *
+   * @param path the file
+   * @return the parsed value
+   * @throws IOException if the file cannot be read
+   * @throws JSONException if the file is not valid JSON
+   */
+  public Object get(Path path) throws IOException, JSONException {
+    path = path.toAbsolutePath().normalize();
+    BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+    long modified = attrs.lastModifiedTime().toMillis();
+    long size = attrs.size();
+    for (;;) {
+      CompletableFuture<Entry> future = this.entries.get(path);
+      if (future == null) {
+        CompletableFuture<Entry> mine = new CompletableFuture<Entry>();
+        future = this.entries.putIfAbsent(path, mine);
+        if (future == null)
+          return this.load(path, mine);
+      }
+      Entry entry = JSONFileCache.await(future);
+      if (entry.modified == modified && entry.size == size) {
+        entry.lastUsed = this.clock.incrementAndGet();
+        this.hits.incrementAndGet();
+        return entry.value;
+      }
+      if (this.entries.remove(path, future) && entry.weight >= 0)
+        this.weight.addAndGet(-entry.weight);
+    }
+  }
+
+  /**
+   * Drop a file from the cache so that the next request for it reads
+   * it again.
+   *
+   * @param path the file
+   */
+  public void invalidate(Path path) {
+    path = path.toAbsolutePath().normalize();
+    CompletableFuture<Entry> future = this.entries.get(path);
+    if (future != null && this.entries.remove(path, future))
+      this.release(future);
+  }
+
+  /**
+   * Drop every file from the cache.
+   */
+  public void clear() {
+    for (Map.Entry<Path, CompletableFuture<Entry>> e : this.entries.entrySet()) {
+      if (this.entries.remove(e.getKey(), e.getValue()))
+        this.release(e.getValue());
+    }
+  }
+
+  /**
+   * Get the number of files in the cache, including any being loaded.
+   *
+   * @return the number of files
+   */
+  public int size() {
+    return this.entries.size();
+  }
+
+  /**
+   * Get the estimated number of bytes retained by the cached values.
+   *
+   * @return the estimate in bytes
+   */
+  public long getWeight() {
+    return this.weight.get();
+  }
+
+  /**
+   * Get the bound on the estimated number of bytes retained.
+   *
+   * @return the bound in bytes
+   */
+  public long getMaxWeight() {
+    return this.maxWeight;
+  }
+
+  /**
+   * Get the number of requests answered from the cache.
+   *
+   * @return the number of hits
+   */
+  public long getHitCount() {
+    return this.hits.get();
+  }
+
+  /**
+   * Get the number of requests that read and parsed a file.
+   *
+   * @return the number of misses
+   */
+  public long getMissCount() {
+    return this.misses.get();
+  }
+
+  /*
+   * Read and parse a file on behalf of every thread waiting on the
+   * future.  The attributes are taken before reading so that a change
+   * made during the read is seen by the next request.
+   */
+  private Object load(Path path, CompletableFuture<Entry> future) throws IOException, JSONException {
+    this.misses.incrementAndGet();
+    Entry entry;
+    try {
+      BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+      Object value;
+      try (Reader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+        value = new JSONReader(in).readValue();
+      }
+      entry = new Entry(value, attrs.lastModifiedTime().toMillis(), attrs.size(), JSONFileCache.estimate(value));
+    } catch (IOException | JSONException | RuntimeException | Error e) {
+      this.entries.remove(path, future);
+      future.completeExceptionally(e);
+      throw e;
+    }
+    entry.lastUsed = this.clock.incrementAndGet();
+    if (entry.weight > this.maxWeight) {
+      entry.weight = -1;
+      this.entries.remove(path, future);
+      future.complete(entry);
+      return entry.value;
+    }
+    this.weight.addAndGet(entry.weight);
+    future.complete(entry);
+    if (this.weight.get() > this.maxWeight)
+      this.evict(path);
+    return entry.value;
+  }
+
+  /*
+   * Drop least recently used files until the cache is within its
+   * bound.  The file just loaded is kept.
+   */
+  private synchronized void evict(Path keep) {
+    while (this.weight.get() > this.maxWeight) {
+      Path oldest = null;
+      CompletableFuture<Entry> oldestFuture = null;
+      long oldestUse = Long.MAX_VALUE;
+      for (Map.Entry<Path, CompletableFuture<Entry>> e : this.entries.entrySet()) {
+        CompletableFuture<Entry> future = e.getValue();
+        if (!future.isDone() || future.isCompletedExceptionally() || e.getKey().equals(keep))
+          continue;
+        long used = future.join().lastUsed;
+        if (used < oldestUse) {
+          oldest = e.getKey();
+          oldestFuture = future;
+          oldestUse = used;
+        }
+      }
+      if (oldest == null)
+        return;
+      if (this.entries.remove(oldest, oldestFuture))
+        this.release(oldestFuture);
+    }
+  }
+
+  /*
+   * Subtract the weight of a removed future's entry if the loader
+   * counted it, waiting for the load to finish if need be.
+   */
+  private void release(CompletableFuture<Entry> future) {
+    Entry entry;
+    try {
+      entry = future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    } catch (ExecutionException e) {
+      return;
+    }
+    if (entry.weight >= 0)
+      this.weight.addAndGet(-entry.weight);
+  }
+
+  /*
+   * Wait for a load, rethrowing its failure as thrown by the loader.
+   */
+  private static Entry await(CompletableFuture<Entry> future) throws IOException, JSONException {
+    boolean interrupted = false;
+    try {
+      for (;;) {
+        try {
+          return future.get();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException)
+        throw (IOException) cause;
+      if (cause instanceof JSONException)
+        throw (JSONException) cause;
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException) cause;
+      throw (Error) cause;
+    } finally {
+      if (interrupted)
+        Thread.currentThread().interrupt();
+    }
+  }
+
+  /*
+   * Estimate the bytes retained by a parsed value, assuming a 64-bit
+   * VM with compressed references.
+   */
+  static long estimate(Object value) {
+    if (value instanceof Map) {
+      Map<?, ?> map = (Map<?, ?>) value;
+      long total = 64 + 16L * map.size() + 32L * map.size();
+      for (Map.Entry<?, ?> e : map.entrySet())
+        total += JSONFileCache.estimate(e.getKey()) + JSONFileCache.estimate(e.getValue());
+      return total;
+    }
+    if (value instanceof Collection) {
+      Collection<?> collection = (Collection<?>) value;
+      long total = 40 + 4L * collection.size();
+      for (Object element : collection)
+        total += JSONFileCache.estimate(element);
+      return total;
+    }
+    if (value instanceof CharSequence)
+      return 40 + 2L * ((CharSequence) value).length();
+    if (value instanceof JSONLiteral || value == null)
+      return 0;
+    return 24;
+  }
+
+  /*
+   * A parsed file.  The weight is -1 for a value too large to keep.
+   */
+  private static class Entry {
+    final Object value;
+    final long modified;
+    final long size;
+    long weight;
+    volatile long lastUsed;
+
+    Entry(Object value, long modified, long size, long weight) {
+      this.value = value;
+      this.modified = modified;
+      this.size = size;
+      this.weight = weight;
+    }
+  }
+
+}
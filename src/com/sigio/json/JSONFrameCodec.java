@@ -0,0 +1,344 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import com.sigio.io.DirectBufferPool;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ResourceBundle;
+
+/**
+ * Encodes JSON values into frames for sending over a byte stream,
+ * such as a socket, and decodes them again.
+ *
+ * <p>Two framings are supported: {@link Framing#LENGTH_PREFIXED},
+ * where each frame is a four byte big-endian length followed by that
+ * many bytes of UTF-8 JSON text, and {@link Framing#NEWLINE}, where
+ * each frame is one line of JSON text as in NDJSON.  Length prefixes
+ * let a receiver skip or bound a frame without looking at its
+ * contents; newlines are easier to produce and inspect by hand.</p>
+ *
+ * <p>{@link #encode(Object)} serializes a value with a {@link
+ * JSONWriter} and encodes it straight into a direct ByteBuffer from
+ * a {@link DirectBufferPool}, ready to be written to a channel and
+ * then given back with {@link #release(ByteBuffer)}.  {@link
+ * #decode(ByteBuffer)} takes a frame from a buffer of received
+ * bytes, decoding the frame's bytes in place into a reused character
+ * array that a {@link JSONReader} parses, so nothing is copied to
+ * find or parse a frame.</p>
+ *
+ * <p>A codec keeps buffers between calls, so each connection should
+ * have its own.  Codecs may share a pool.</p>
+ */
+public class JSONFrameCodec {
+
+  /**
+   * How frames are delimited.
+   */
+  public enum Framing {
+    /** A four byte big-endian length, then the JSON text. */
+    LENGTH_PREFIXED,
+    /** JSON text followed by a newline. */
+    NEWLINE
+  }
+
+  /** The default longest frame, 16MiB. */
+  public static final int DEFAULT_MAX_FRAME_LENGTH = 16 * 1024 * 1024;
+
+  private final Framing framing;
+  private final DirectBufferPool pool;
+  private final int maxFrameLength;
+  private final JSONTextBuffer text = new JSONTextBuffer(256);
+  private final JSONWriter writer;
+  private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+    .onMalformedInput(CodingErrorAction.REPLACE)
+    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+  private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+    .onMalformedInput(CodingErrorAction.REPLACE)
+    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+  private char[] chars = new char[256];
+  // Reused for frames larger than the pool's buffers, and whether it
+  // has been handed out and not yet released.
+  private ByteBuffer large = null;
+  private boolean largeInUse = false;
+  // Bytes after the buffer's position already searched for a newline.
+  private int scanned = 0;
+
+  /**
+   * Construct a codec that uses the default pool, serializer
+   * registry and frame length limit.
+   *
+   * @param framing how frames are delimited
+   */
+  public JSONFrameCodec(Framing framing) {
+    this(framing, DirectBufferPool.getDefault(), JSONSerializerRegistry.getDefault(), DEFAULT_MAX_FRAME_LENGTH);
+  }
+
+  /**
+   * Construct a codec.
+   *
+   * @param framing how frames are delimited
+   * @param pool the pool that encoded frames are taken from
+   * @param registry the registry used to find serializers for values
+   * @param maxFrameLength the longest frame, not counting its length
+   * prefix or newline, that may be encoded or decoded
+   * @throws IllegalArgumentException if maxFrameLength is not
+   * positive
+   */
+  public JSONFrameCodec(Framing framing, DirectBufferPool pool, JSONSerializerRegistry registry, int maxFrameLength) {
+    if (framing == null || pool == null)
+      throw new NullPointerException();
+    if (maxFrameLength <= 0)
+      throw new IllegalArgumentException();
+    this.framing = framing;
+    this.pool = pool;
+    this.maxFrameLength = maxFrameLength;
+    this.writer = new JSONWriter(this.text, registry);
+  }
+
+  /**
+   * Get how frames are delimited.
+   *
+   * @return the framing
+   */
+  public Framing getFraming() {
+    return this.framing;
+  }
+
+  /**
+   * Encode a value as one frame.  The frame is in a direct buffer,
+   * flipped and ready to be written, that should be given back with
+   * {@link #release(ByteBuffer)} once it has been written.  Frames
+   * larger than the pool's buffers are in a direct buffer the codec
+   * keeps and grows, or, while that one is still out, in a heap
+   * buffer of their own, so that replies queued for a slow peer do
+   * not take more direct memory.
+   *
+   * @param value the value to encode
+   * @return the frame
+   * @throws IOException if the frame would be longer than the limit,
+   * or a serializer fails
+   */
+  public ByteBuffer encode(Object value) throws IOException {
+    this.text.reset();
+    this.writer.write(value);
+    // No character takes fewer than one byte in UTF-8, so a frame
+    // with too many characters can be refused before encoding it.
+    int length = this.text.length();
+    if (length > this.maxFrameLength)
+      throw this.tooLarge(length);
+    if (this.framing == Framing.NEWLINE)
+      this.text.write('\n');
+    int prefix = this.framing == Framing.LENGTH_PREFIXED ? 4 : 0;
+    ByteBuffer out = this.pool.acquire();
+    if (!this.encodeText(out, prefix)) {
+      this.pool.release(out);
+      out = this.encodeLarge(prefix);
+    }
+    length = out.position() - prefix - (this.framing == Framing.NEWLINE ? 1 : 0);
+    if (length > this.maxFrameLength) {
+      this.release(out);
+      throw this.tooLarge(length);
+    }
+    if (prefix > 0)
+      out.putInt(0, length);
+    out.flip();
+    return out;
+  }
+
+  /**
+   * Give a buffer returned by {@link #encode(Object)} back to the
+   * pool.
+   *
+   * @param frame the buffer, which must not be used afterwards
+   */
+  public void release(ByteBuffer frame) {
+    if (frame == this.large)
+      this.largeInUse = false;
+    else
+      this.pool.release(frame);
+  }
+
+  /**
+   * Take the next complete frame from a buffer of received bytes and
+   * parse it.  The buffer is read from its position to its limit, as
+   * after <code>flip()</code>; if it holds a complete frame, its
+   * position is moved past the frame, and otherwise it is left
+   * alone so that more bytes can be added after a
+   * <code>compact()</code>.  Empty frames, and empty lines between
+   * newline framed values, are skipped.
+   *
+   * <p>With newline framing the codec remembers how much of the
+   * buffer it has searched, so the same buffer, compacted or not,
+   * should be passed until a frame is returned.</p>
+   *
+   * @param in the received bytes
+   * @return the value of the next frame, or <code>null</code> if the
+   * buffer does not hold a complete frame
+   * @throws IOException if the frame is longer than the limit; the
+   * stream cannot be resynchronized after this
+   * @throws JSONException if the frame is not one well formed JSON
+   * value
+   */
+  public Object decode(ByteBuffer in) throws IOException, JSONException {
+    while (true) {
+      int start = in.position();
+      int body;
+      int length;
+      int next;
+      if (this.framing == Framing.LENGTH_PREFIXED) {
+        if (in.remaining() < 4)
+          return null;
+        length = in.getInt(start);
+        if (length < 0 || length > this.maxFrameLength)
+          throw this.tooLarge(length & 0xffffffffL);
+        if (in.remaining() - 4 < length)
+          return null;
+        body = start + 4;
+        next = body + length;
+      } else {
+        int end = in.limit();
+        int newline = -1;
+        for (int i = start + this.scanned; i < end; i++) {
+          if (in.get(i) == '\n') {
+            newline = i;
+            break;
+          }
+        }
+        if (newline < 0) {
+          this.scanned = in.remaining();
+          if (this.scanned > this.maxFrameLength)
+            throw this.tooLarge(this.scanned);
+          return null;
+        }
+        this.scanned = 0;
+        body = start;
+        length = newline - start;
+        if (length > 0 && in.get(newline - 1) == '\r')
+          length--;
+        if (length > this.maxFrameLength)
+          throw this.tooLarge(length);
+        next = newline + 1;
+      }
+      Object value = this.parse(in, body, length);
+      in.position(next);
+      if (value != JSONReader.EOF)
+        return value;
+    }
+  }
+
+  /*
+   * Encode the serialized text after a gap for the length prefix.
+   * Returns false if the buffer is too small.
+   */
+  private boolean encodeText(ByteBuffer out, int prefix) {
+    out.clear();
+    out.position(prefix);
+    this.encoder.reset();
+    CharBuffer in = this.text.chars();
+    CoderResult result = this.encoder.encode(in, out, true);
+    if (!result.isOverflow())
+      result = this.encoder.flush(out);
+    return !result.isOverflow();
+  }
+
+  /*
+   * Encode a frame too large for the pool's buffers, growing the
+   * codec's own buffer until it fits.
+   */
+  private ByteBuffer encodeLarge(int prefix) {
+    // No character takes more than three bytes in UTF-8.
+    int most = prefix + 3 * this.text.length();
+    if (this.largeInUse) {
+      ByteBuffer out = ByteBuffer.allocate(prefix + this.encodedLength());
+      if (!this.encodeText(out, prefix)) {
+        out = ByteBuffer.allocate(most);
+        this.encodeText(out, prefix);
+      }
+      return out;
+    }
+    int capacity = this.large == null ? 2 * this.pool.getBufferSize() : this.large.capacity();
+    while (this.large == null || !this.encodeText(this.large, prefix)) {
+      if (this.large != null)
+        capacity = (int) Math.min(2L * capacity, most);
+      this.large = ByteBuffer.allocateDirect(Math.min(capacity, most));
+    }
+    this.largeInUse = true;
+    return this.large;
+  }
+
+  /*
+   * The number of bytes the serialized text takes in UTF-8, with
+   * unpaired surrogates replaced by one byte.
+   */
+  private int encodedLength() {
+    CharBuffer chars = this.text.chars();
+    int length = 0;
+    for (int i = chars.position(), end = chars.limit(); i < end; i++) {
+      char c = chars.get(i);
+      if (c < 0x80) {
+        length++;
+      } else if (c < 0x800) {
+        length += 2;
+      } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(chars.get(i + 1))) {
+        length += 4;
+        i++;
+      } else if (Character.isSurrogate(c)) {
+        length++;
+      } else {
+        length += 3;
+      }
+    }
+    return length;
+  }
+
+  /*
+   * Decode and parse the bytes of a frame where they lie in the
+   * buffer.  Returns JSONReader.EOF for a frame of only whitespace.
+   */
+  private Object parse(ByteBuffer in, int body, int length) throws IOException, JSONException {
+    // UTF-8 never has more characters than bytes.
+    if (this.chars.length < length)
+      this.chars = new char[Math.max(length, 2 * this.chars.length)];
+    ByteBuffer bytes = in.duplicate();
+    bytes.limit(body + length).position(body);
+    CharBuffer out = CharBuffer.wrap(this.chars);
+    this.decoder.reset();
+    this.decoder.decode(bytes, out, true);
+    this.decoder.flush(out);
+    JSONReader reader = new JSONReader(this.chars, 0, out.position());
+    Object value = reader.readValue();
+    int c = reader.skipWSRead();
+    if (c != -1)
+      throw reader.syntaxException(JSONSyntaxException.ILLEGAL_CHARACTER, (char) c);
+    return value;
+  }
+
+  private IOException tooLarge(long length) {
+    ResourceBundle bundle = com.sigio.json.BundleLoader.getBundle();
+    return new IOException(String.format(bundle.getString("FRAME_TOO_LARGE"), length, this.maxFrameLength));
+  }
+
+}
@@ -0,0 +1,383 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import com.sigio.io.DirectBufferPool;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * A TCP server that exchanges framed JSON messages with many
+ * connections on a few threads.
+ *
+ * <p>The server runs a fixed number of selector threads.  The first
+ * also accepts connections, which are handed to the threads in turn,
+ * and each thread then reads, decodes, handles and answers the
+ * messages of its connections with non-blocking I/O.  Messages are
+ * framed by a {@link JSONFrameCodec} per connection, and replies are
+ * encoded into buffers from a shared {@link DirectBufferPool}.</p>
+ *
+ * <p>Each message is passed to the handler on the selector thread of
+ * its connection, in the order received, and the handler's result,
+ * unless it is <code>null</code>, is sent back as a reply.  Handlers
+ * should therefore be quick, and must be safe to call from several
+ * threads.  A connection that sends a malformed or oversized frame,
+ * or whose handler throws, is closed.  While a connection has
+ * replies waiting to be sent, no more of its messages are read.</p>
+ */
+public class JSONFrameServer implements Closeable {
+
+  // Initial size of each connection's input buffer.
+  private static final int INPUT_SIZE = 4096;
+  // How long to stop accepting after accept() fails, in milliseconds.
+  private static final long ACCEPT_BACKOFF = 100;
+
+  private final ServerSocketChannel server;
+  private final JSONFrameCodec.Framing framing;
+  private final DirectBufferPool pool;
+  private final int maxFrameLength;
+  private final Function<Object, Object> handler;
+  private final Loop[] loops;
+  private SelectionKey acceptKey = null;
+  private final AtomicInteger connections = new AtomicInteger();
+  private volatile boolean closed = false;
+  // Next loop to be given a connection; used by the first loop only.
+  private int next = 0;
+
+  /**
+   * Start a server with the default buffer pool and frame length
+   * limit.
+   *
+   * @param address the address to listen on; port 0 picks a free
+   * port
+   * @param framing how messages are framed
+   * @param threads the number of selector threads
+   * @param handler computes the reply to each message, or
+   * <code>null</code> for none
+   * @throws IOException if the server cannot listen on the address
+   */
+  public JSONFrameServer(InetSocketAddress address, JSONFrameCodec.Framing framing, int threads,
+                         Function<Object, Object> handler) throws IOException {
+    this(address, framing, threads, handler, DirectBufferPool.getDefault(), JSONFrameCodec.DEFAULT_MAX_FRAME_LENGTH);
+  }
+
+  /**
+   * Start a server.
+   *
+   * @param address the address to listen on; port 0 picks a free
+   * port
+   * @param framing how messages are framed
+   * @param threads the number of selector threads
+   * @param handler computes the reply to each message, or
+   * <code>null</code> for none
+   * @param pool the pool that replies are encoded into
+   * @param maxFrameLength the longest message or reply
+   * @throws IOException if the server cannot listen on the address
+   * @throws IllegalArgumentException if threads or maxFrameLength is
+   * less than 1
+   */
+  public JSONFrameServer(InetSocketAddress address, JSONFrameCodec.Framing framing, int threads,
+                         Function<Object, Object> handler, DirectBufferPool pool, int maxFrameLength) throws IOException {
+    if (framing == null || handler == null || pool == null)
+      throw new NullPointerException();
+    if (threads < 1 || maxFrameLength < 1)
+      throw new IllegalArgumentException();
+    this.framing = framing;
+    this.handler = handler;
+    this.pool = pool;
+    this.maxFrameLength = maxFrameLength;
+    this.server = ServerSocketChannel.open();
+    this.loops = new Loop[threads];
+    try {
+      this.server.bind(address, 1024);
+      this.server.configureBlocking(false);
+      for (int i = 0; i < threads; i++)
+        this.loops[i] = new Loop(Selector.open(), "JSONFrameServer-" + i);
+      this.acceptKey = this.server.register(this.loops[0].selector, SelectionKey.OP_ACCEPT);
+    } catch (IOException e) {
+      for (Loop loop : this.loops) {
+        if (loop != null)
+          loop.selector.close();
+      }
+      this.server.close();
+      throw e;
+    }
+    for (Loop loop : this.loops)
+      loop.thread.start();
+  }
+
+  /**
+   * Get the address the server is listening on.
+   *
+   * @return the local address
+   * @throws IOException if an I/O error occurs
+   */
+  public InetSocketAddress getLocalAddress() throws IOException {
+    return (InetSocketAddress) this.server.getLocalAddress();
+  }
+
+  /**
+   * Get the number of open connections.
+   *
+   * @return the number of connections
+   */
+  public int getConnectionCount() {
+    return this.connections.get();
+  }
+
+  /**
+   * Stop the server, closing all of its connections.  Replies not yet
+   * sent are discarded.
+   *
+   * @throws IOException if an I/O error occurs
+   */
+  @Override
+  public void close() throws IOException {
+    if (this.closed)
+      return;
+    this.closed = true;
+    for (Loop loop : this.loops)
+      loop.selector.wakeup();
+    boolean interrupted = false;
+    for (Loop loop : this.loops) {
+      while (true) {
+        try {
+          loop.thread.join();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    }
+    if (interrupted)
+      Thread.currentThread().interrupt();
+    this.server.close();
+  }
+
+  /*
+   * A selector thread and the connections it serves.
+   */
+  private class Loop implements Runnable {
+    final Selector selector;
+    final Thread thread;
+    // Connections accepted by the first loop for this one.
+    final ConcurrentLinkedQueue<SocketChannel> pending = new ConcurrentLinkedQueue<SocketChannel>();
+    // Whether accepting is paused after a failed accept(), and until
+    // when.
+    boolean acceptPaused = false;
+    long acceptResume = 0;
+
+    Loop(Selector selector, String name) {
+      this.selector = selector;
+      this.thread = new Thread(this, name);
+      this.thread.setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (!JSONFrameServer.this.closed) {
+          if (!this.acceptPaused) {
+            this.selector.select();
+          } else {
+            long wait = (this.acceptResume - System.nanoTime()) / 1000000;
+            if (wait > 0)
+              this.selector.select(wait);
+            else
+              this.selector.selectNow();
+            if (System.nanoTime() - this.acceptResume >= 0) {
+              this.acceptPaused = false;
+              JSONFrameServer.this.acceptKey.interestOps(SelectionKey.OP_ACCEPT);
+            }
+          }
+          SocketChannel channel;
+          while ((channel = this.pending.poll()) != null)
+            this.add(channel);
+          Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+          while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            if (!key.isValid())
+              continue;
+            if (key.isAcceptable()) {
+              this.accept();
+              continue;
+            }
+            Connection connection = (Connection) key.attachment();
+            try {
+              if (key.isReadable())
+                connection.read();
+              if (key.isValid() && key.isWritable())
+                connection.flush();
+            } catch (IOException | JSONException | RuntimeException e) {
+              connection.close();
+            }
+          }
+        }
+      } catch (IOException e) {
+        // The selector failed; fall through to close everything.
+      } finally {
+        for (SelectionKey key : this.selector.keys()) {
+          if (key.attachment() instanceof Connection)
+            ((Connection) key.attachment()).close();
+        }
+        SocketChannel channel;
+        while ((channel = this.pending.poll()) != null)
+          JSONFrameServer.this.closeQuietly(channel);
+        try {
+          this.selector.close();
+        } catch (IOException e) {
+          // Nothing more can be done.
+        }
+      }
+    }
+
+    private void accept() {
+      SocketChannel channel;
+      while (true) {
+        try {
+          channel = JSONFrameServer.this.server.accept();
+        } catch (IOException e) {
+          // Typically out of file descriptors; stop accepting for a
+          // while so that existing connections can finish and close.
+          JSONFrameServer.this.acceptKey.interestOps(0);
+          this.acceptPaused = true;
+          this.acceptResume = System.nanoTime() + ACCEPT_BACKOFF * 1000000;
+          return;
+        }
+        if (channel == null)
+          return;
+        try {
+          channel.configureBlocking(false);
+          channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        } catch (IOException e) {
+          // Give up on this connection but keep accepting.
+          JSONFrameServer.this.closeQuietly(channel);
+          continue;
+        }
+        JSONFrameServer.this.connections.incrementAndGet();
+        Loop[] loops = JSONFrameServer.this.loops;
+        Loop target = loops[JSONFrameServer.this.next++ % loops.length];
+        if (target == this) {
+          this.add(channel);
+        } else {
+          target.pending.add(channel);
+          target.selector.wakeup();
+        }
+      }
+    }
+
+    private void add(SocketChannel channel) {
+      try {
+        Connection connection = new Connection(channel);
+        connection.key = channel.register(this.selector, SelectionKey.OP_READ, connection);
+      } catch (IOException e) {
+        JSONFrameServer.this.connections.decrementAndGet();
+        JSONFrameServer.this.closeQuietly(channel);
+      }
+    }
+  }
+
+  /*
+   * The buffers and codec of one connection.
+   */
+  private class Connection {
+    final SocketChannel channel;
+    final JSONFrameCodec codec;
+    SelectionKey key = null;
+    boolean closed = false;
+    ByteBuffer input = ByteBuffer.allocateDirect(INPUT_SIZE);
+    final ArrayDeque<ByteBuffer> output = new ArrayDeque<ByteBuffer>();
+
+    Connection(SocketChannel channel) {
+      this.channel = channel;
+      this.codec = new JSONFrameCodec(JSONFrameServer.this.framing, JSONFrameServer.this.pool,
+                                      JSONSerializerRegistry.getDefault(), JSONFrameServer.this.maxFrameLength);
+    }
+
+    void read() throws IOException, JSONException {
+      if (this.channel.read(this.input) < 0) {
+        this.close();
+        return;
+      }
+      this.input.flip();
+      Object message;
+      while ((message = this.codec.decode(this.input)) != null) {
+        Object reply = JSONFrameServer.this.handler.apply(message);
+        if (reply != null)
+          this.output.add(this.codec.encode(reply));
+      }
+      this.input.compact();
+      if (!this.input.hasRemaining()) {
+        ByteBuffer larger = ByteBuffer.allocateDirect(2 * this.input.capacity());
+        this.input.flip();
+        larger.put(this.input);
+        this.input = larger;
+      }
+      this.flush();
+    }
+
+    void flush() throws IOException {
+      while (!this.output.isEmpty()) {
+        ByteBuffer head = this.output.peek();
+        this.channel.write(head);
+        if (head.hasRemaining()) {
+          this.key.interestOps(SelectionKey.OP_WRITE);
+          return;
+        }
+        this.codec.release(this.output.poll());
+      }
+      this.key.interestOps(SelectionKey.OP_READ);
+    }
+
+    void close() {
+      if (this.closed)
+        return;
+      this.closed = true;
+      if (this.key != null)
+        this.key.cancel();
+      JSONFrameServer.this.closeQuietly(this.channel);
+      ByteBuffer buffer;
+      while ((buffer = this.output.poll()) != null)
+        this.codec.release(buffer);
+      JSONFrameServer.this.connections.decrementAndGet();
+    }
+  }
+
+  private void closeQuietly(SocketChannel channel) {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      // Already closing.
+    }
+  }
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * A compiled path to values inside a JSON tree.
+ *
+ * A path is a sequence of member names separated by dots, each of
+ * which may be followed by array subscripts: either an index, such as
+ * "items[0]", or a wildcard, such as "tags[*]", which matches every
+ * element.  A path without wildcards matches at most one value.
+ */
+class JSONKeyPath {
+
+  // Segment kinds.
+  private static final int MEMBER = 0;
+  private static final int INDEX = 1;
+  private static final int WILDCARD = 2;
+
+  private final String path;
+  private final int[] kinds;
+  private final String[] names;
+  private final int[] indexes;
+  private final boolean wildcard;
+
+  JSONKeyPath(String path) {
+    if (path == null)
+      throw new NullPointerException();
+    this.path = path;
+    List<Integer> kinds = new ArrayList<Integer>();
+    List<String> names = new ArrayList<String>();
+    List<Integer> indexes = new ArrayList<Integer>();
+    boolean wildcard = false;
+    for (String part : path.split("\\.", -1)) {
+      int bracket = part.indexOf('[');
+      String name = bracket < 0 ? part : part.substring(0, bracket);
+      if (!name.isEmpty() || bracket < 0) {
+        if (name.isEmpty())
+          throw new IllegalArgumentException(path);
+        kinds.add(MEMBER);
+        names.add(name);
+        indexes.add(-1);
+      }
+      while (bracket >= 0) {
+        int close = part.indexOf(']', bracket);
+        if (close < 0)
+          throw new IllegalArgumentException(path);
+        String subscript = part.substring(bracket + 1, close);
+        if (subscript.equals("*")) {
+          kinds.add(WILDCARD);
+          indexes.add(-1);
+          wildcard = true;
+        } else {
+          int index;
+          try {
+            index = Integer.parseInt(subscript);
+          } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(path);
+          }
+          if (index < 0)
+            throw new IllegalArgumentException(path);
+          indexes.add(index);
+          kinds.add(INDEX);
+        }
+        names.add(null);
+        if (close + 1 < part.length() && part.charAt(close + 1) != '[')
+          throw new IllegalArgumentException(path);
+        bracket = close + 1 < part.length() ? close + 1 : -1;
+      }
+    }
+    this.kinds = new int[kinds.size()];
+    this.indexes = new int[kinds.size()];
+    for (int i = 0; i < this.kinds.length; i++) {
+      this.kinds[i] = kinds.get(i);
+      this.indexes[i] = indexes.get(i);
+    }
+    this.names = names.toArray(new String[0]);
+    this.wildcard = wildcard;
+  }
+
+  /*
+   * Whether the path can match more than one value.
+   */
+  boolean hasWildcard() {
+    return this.wildcard;
+  }
+
+  /*
+   * Get the single value matched by the path, or null if there is
+   * none.  For a path with wildcards, the first match is returned.
+   */
+  Object resolve(Object tree) {
+    if (this.wildcard) {
+      List<Object> values = this.collect(tree);
+      return values.isEmpty() ? null : values.get(0);
+    }
+    Object value = tree;
+    for (int i = 0; i < this.kinds.length && value != null; i++)
+      value = this.step(value, i);
+    return value;
+  }
+
+  /*
+   * Get all of the values matched by the path.
+   */
+  List<Object> collect(Object tree) {
+    if (tree == null)
+      return Collections.emptyList();
+    List<Object> values = new ArrayList<Object>();
+    this.collect(tree, 0, values);
+    return values;
+  }
+
+  private void collect(Object value, int i, List<Object> values) {
+    if (i == this.kinds.length) {
+      values.add(value);
+      return;
+    }
+    if (this.kinds[i] == WILDCARD) {
+      if (value instanceof List) {
+        for (Object element : (List<?>) value) {
+          if (element != null)
+            this.collect(element, i + 1, values);
+        }
+      }
+      return;
+    }
+    Object next = this.step(value, i);
+    if (next != null)
+      this.collect(next, i + 1, values);
+  }
+
+  private Object step(Object value, int i) {
+    if (this.kinds[i] == MEMBER) {
+      if (value instanceof Map)
+        return ((Map<?,?>) value).get(this.names[i]);
+    } else if (value instanceof List) {
+      List<?> list = (List<?>) value;
+      int idx = this.indexes[i];
+      if (idx < list.size())
+        return list.get(idx);
+    }
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return this.path;
+  }
+
+}
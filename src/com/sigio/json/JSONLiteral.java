@@ -89,12 +89,29 @@ public enum JSONLiteral {
    * literal value
    */
   public static JSONLiteral fromString(String str) throws JSONException {
-    for (JSONLiteral l : JSONLiteral.values()) {
-      if (l.equals(str))
-        return l;
-    }
+    JSONLiteral l = JSONLiteral.lookup(str);
+    if (l != null)
+      return l;
     ResourceBundle bundle = com.sigio.json.BundleLoader.getBundle();
     throw new JSONException(String.format(bundle.getString("INVALID_LITERAL"), str));
   }
 
+  /*
+   * Get a JSONLiteral from a string, or null if the string does not
+   * match any of them.  Used by JSONReader, which reports the error
+   * itself.
+   */
+  static JSONLiteral lookup(String str) {
+    switch (str) {
+    case "null":
+      return NULL;
+    case "true":
+      return TRUE;
+    case "false":
+      return FALSE;
+    default:
+      return null;
+    }
+  }
+
 }
@@ -0,0 +1,288 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * A JSON number that keeps the text it was written as and converts
+ * it only when a value is asked for.
+ *
+ * <p>A {@link JSONReader} returns these for numbers when {@link
+ * JSONReader#setLazyNumbers(boolean)} is on.  Reading a number then
+ * costs no more than finding where it ends, a {@link JSONWriter}
+ * writes it back exactly as it was read, and no precision is lost for
+ * integers outside the range of <code>long</code> or decimals with
+ * more digits than a <code>double</code> holds.</p>
+ *
+ * <p>Instances are immutable.  Conversions narrow as {@link
+ * BigDecimal}'s do; {@link #longValueExact()} and {@link
+ * #bigIntegerValueExact()} are available for callers that need to
+ * know whether a value fits.  Two JSONNumbers are equal if they have
+ * the same numeric value, so <code>1.0</code> equals <code>1</code>;
+ * they are never equal to other Number classes.</p>
+ */
+public final class JSONNumber extends Number implements Comparable<JSONNumber> {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String text;
+  private final boolean integral;
+  // Conversions, made on first use.  The volatile flags are written
+  // after the values they guard, so other threads see both.
+  private transient BigDecimal decimal;
+  private transient long longValue;
+  private transient volatile byte longState; // 0 unknown, 1 exact, 2 out of range
+  private transient double doubleValue;
+  private transient volatile boolean hasDouble;
+  private transient int hash;
+
+  /**
+   * Construct a number from its JSON text.
+   *
+   * @param text the number as it appears in JSON
+   * @throws NumberFormatException if the text is not a JSON number
+   */
+  public JSONNumber(String text) {
+    if (!JSON.isNumber(text))
+      throw new NumberFormatException(text);
+    this.text = text;
+    this.integral = JSONNumber.isIntegral(text);
+  }
+
+  /*
+   * Construct a number from text already checked by the parser.
+   */
+  JSONNumber(String text, boolean integral) {
+    this.text = text;
+    this.integral = integral;
+  }
+
+  /*
+   * Check whether valid JSON number text has neither a fraction nor
+   * an exponent.
+   */
+  static boolean isIntegral(CharSequence text) {
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '.' || c == 'e' || c == 'E')
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Check whether the number was written without a fraction or an
+   * exponent.  <code>10</code> is integral, but <code>1e1</code> and
+   * <code>10.0</code> are not.
+   *
+   * @return <code>true</code> if the text is an integer
+   */
+  public boolean isIntegral() {
+    return this.integral;
+  }
+
+  /**
+   * Get the value as an <code>int</code>, narrowed as by {@link
+   * #longValue()}.
+   *
+   * @return the value
+   */
+  @Override
+  public int intValue() {
+    return (int) this.longValue();
+  }
+
+  /**
+   * Get the value as a <code>long</code>.  Fractions are truncated,
+   * and values out of range keep only their low-order bits.
+   *
+   * @return the value
+   */
+  @Override
+  public long longValue() {
+    if (this.longState == 0)
+      this.convertLong();
+    if (this.longState == 1)
+      return this.longValue;
+    return this.bigDecimalValue().longValue();
+  }
+
+  /**
+   * Get the value as a <code>long</code>, failing if it does not fit
+   * exactly.
+   *
+   * @return the value
+   * @throws ArithmeticException if the value has a fraction or is
+   * out of range
+   */
+  public long longValueExact() {
+    if (this.longState == 0)
+      this.convertLong();
+    if (this.longState == 1)
+      return this.longValue;
+    return this.bigDecimalValue().longValueExact();
+  }
+
+  /**
+   * Get the value as a <code>float</code>.
+   *
+   * @return the nearest float
+   */
+  @Override
+  public float floatValue() {
+    return (float) this.doubleValue();
+  }
+
+  /**
+   * Get the value as a <code>double</code>.
+   *
+   * @return the nearest double
+   */
+  @Override
+  public double doubleValue() {
+    if (!this.hasDouble) {
+      this.doubleValue = Double.parseDouble(this.text);
+      this.hasDouble = true;
+    }
+    return this.doubleValue;
+  }
+
+  /**
+   * Get the value as a BigInteger.  Fractions are truncated.
+   *
+   * @return the value
+   */
+  public BigInteger bigIntegerValue() {
+    if (this.integral)
+      return new BigInteger(this.text);
+    return this.bigDecimalValue().toBigInteger();
+  }
+
+  /**
+   * Get the value as a BigInteger, failing if it has a fraction.
+   *
+   * @return the value
+   * @throws ArithmeticException if the value has a nonzero fraction
+   */
+  public BigInteger bigIntegerValueExact() {
+    if (this.integral)
+      return new BigInteger(this.text);
+    return this.bigDecimalValue().toBigIntegerExact();
+  }
+
+  /**
+   * Get the exact value as a BigDecimal.
+   *
+   * @return the value
+   */
+  public BigDecimal bigDecimalValue() {
+    BigDecimal d = this.decimal;
+    if (d == null) {
+      d = new BigDecimal(this.text);
+      this.decimal = d;
+    }
+    return d;
+  }
+
+  /**
+   * Compare numeric values.
+   *
+   * @param other the number to compare with
+   * @return negative, zero or positive as this number is less than,
+   * equal to or greater than the other
+   */
+  @Override
+  public int compareTo(JSONNumber other) {
+    if (this.integral && other.integral) {
+      if (this.longState == 0)
+        this.convertLong();
+      if (other.longState == 0)
+        other.convertLong();
+      if (this.longState == 1 && other.longState == 1)
+        return Long.compare(this.longValue, other.longValue);
+    }
+    return this.bigDecimalValue().compareTo(other.bigDecimalValue());
+  }
+
+  /**
+   * Check whether another object is a JSONNumber with the same
+   * numeric value.
+   *
+   * @param o the object to compare with
+   * @return <code>true</code> if it is equal
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (o == this)
+      return true;
+    if (!(o instanceof JSONNumber))
+      return false;
+    JSONNumber other = (JSONNumber) o;
+    return this.text.equals(other.text) || this.compareTo(other) == 0;
+  }
+
+  /**
+   * Get a hash code consistent with {@link #equals(Object)}.
+   *
+   * @return the hash code
+   */
+  @Override
+  public int hashCode() {
+    int h = this.hash;
+    if (h == 0) {
+      BigDecimal d = this.bigDecimalValue();
+      h = d.signum() == 0 ? 0 : d.stripTrailingZeros().hashCode();
+      this.hash = h;
+    }
+    return h;
+  }
+
+  /**
+   * Get the number as it was written in JSON.
+   *
+   * @return the JSON text
+   */
+  @Override
+  public String toString() {
+    return this.text;
+  }
+
+  /*
+   * Convert an integral value to long if it fits, without throwing.
+   * Eighteen digits always fit.
+   */
+  private void convertLong() {
+    String t = this.text;
+    int digits = t.length() - (t.charAt(0) == '-' ? 1 : 0);
+    if (this.integral && digits <= 18) {
+      this.longValue = Long.parseLong(t);
+      this.longState = 1;
+      return;
+    }
+    try {
+      this.longValue = this.integral ? Long.parseLong(t) : this.bigDecimalValue().longValueExact();
+      this.longState = 1;
+    } catch (NumberFormatException | ArithmeticException e) {
+      this.longState = 2;
+    }
+  }
+
+}
@@ -21,7 +21,6 @@ package com.sigio.json;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.ResourceBundle;
-import java.util.Set;
 
 /**
  * Class to implement a JSON object as defined in RFC4627.
@@ -61,11 +60,10 @@ public class JSONObject extends HashMap<String,Object> {
     super(map);
   }
   
-  /**
-   * Private method to check if the passed in object is a suitable
-   * JSON value class.
+  /*
+   * Check if the passed in object is a suitable JSON value class.
    */
-  private void checkInstance(Object o) throws ClassCastException {
+  void checkInstance(Object o) throws ClassCastException {
     if (o == null)
       o = JSONLiteral.NULL;
     if (!JSONValue.isInstance(o)) {
@@ -106,13 +104,21 @@ public class JSONObject extends HashMap<String,Object> {
    */
   @Override
   public void putAll(Map<? extends String, ? extends Object> map) throws ClassCastException {
-    Set<? extends String> keys = map.keySet();
-    for (String key : keys) {
-      if (key == null)
+    for (Map.Entry<? extends String, ? extends Object> entry : map.entrySet()) {
+      if (entry.getKey() == null)
         throw new NullPointerException();
-      this.checkInstance(map.get(key));
+      this.checkInstance(entry.getValue());
     }
     super.putAll(map);
   }
 
+  /*
+   * Associates a value with a key without checking either of them.
+   * This is for use by JSONReader and other code in this package
+   * that only ever produces valid JSON values.
+   */
+  Object putTrusted(String key, Object value) {
+    return super.put(key, value);
+  }
+
 }
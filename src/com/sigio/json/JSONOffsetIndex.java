@@ -0,0 +1,579 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ResourceBundle;
+
+/**
+ * An index of the byte offsets of the records in a JSON array file
+ * or an NDJSON file, for reading single records without scanning
+ * the file.
+ *
+ * <p>{@link #build(Path, String)} makes one pass over the file,
+ * finding where each top-level element of an array, or each
+ * top-level value of an NDJSON file, starts and ends.  Only the
+ * structure is scanned; records are parsed only to find their keys.
+ * If a key path is given, the value at that path in each record,
+ * such as <code>id</code> or <code>user.name</code>, is indexed as
+ * well.  Keys are compared in their canonical JSON form (see {@link
+ * CanonicalJSONWriter}), so <code>5</code> and <code>5L</code> find
+ * the same record, except that integers are written out in full
+ * rather than as doubles, so large 64-bit ids stay distinct.</p>
+ *
+ * <p>An index can be saved to a compact sidecar file, with the
+ * offsets delta encoded, and loaded again as long as the data file
+ * has not changed size or modification time.  Reading a record is
+ * then one positional read of exactly its bytes and one small
+ * parse:</p>
+ *
+ * <pre>
+ * JSONOffsetIndex index = JSONOffsetIndex.build(data, "id");
+ * index.save(sidecar);
+ * ...
+ * try (JSONOffsetIndex index = JSONOffsetIndex.load(sidecar, data)) {
+ *   Object record = index.find("order-1234");
+ * }
+ * </pre>
+ *
+ * <p>Structure is only checked as far as is needed to find the
+ * records; a malformed record is reported when it is read.  Once
+ * built or loaded, an index is safe for use by multiple threads.</p>
+ */
+public class JSONOffsetIndex implements Closeable {
+
+  // "SJIX" and the sidecar format version.
+  private static final int MAGIC = 0x534a4958;
+  private static final int VERSION = 1;
+  // Longest integer key written out in full.
+  private static final int MAX_KEY_DIGITS = 400;
+
+  private final Path data;
+  private final long dataSize;
+  private final long dataModified;
+  private final long[] offsets;
+  private final int[] lengths;
+  private final String keyPath;
+  // Canonical key text sorted, with the record of each; records
+  // with equal keys are in file order.
+  private final String[] keys;
+  private final int[] keyRecords;
+  private FileChannel channel = null;
+
+  private JSONOffsetIndex(Path data, long dataSize, long dataModified, long[] offsets, int[] lengths,
+                          String keyPath, String[] keys, int[] keyRecords) {
+    this.data = data;
+    this.dataSize = dataSize;
+    this.dataModified = dataModified;
+    this.offsets = offsets;
+    this.lengths = lengths;
+    this.keyPath = keyPath;
+    this.keys = keys;
+    this.keyRecords = keyRecords;
+  }
+
+  /**
+   * Build an index of the records in a file, without keys.
+   *
+   * @param data a JSON file holding an array, or an NDJSON file
+   * @return the index
+   * @throws IOException if the file cannot be read
+   */
+  public static JSONOffsetIndex build(Path data) throws IOException {
+    try {
+      return JSONOffsetIndex.build(data, null);
+    } catch (JSONException e) {
+      // Records are only parsed to find keys.
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Build an index of the records in a file and of the values of a
+   * key in them.  Records where the key is missing or null are not
+   * in the key index.
+   *
+   * @param data a JSON file holding an array, or an NDJSON file
+   * @param keyPath dotted path of the key in each record, which may
+   * have array subscripts as in <code>ids[0]</code>, or
+   * <code>null</code> for no keys
+   * @return the index
+   * @throws IOException if the file cannot be read
+   * @throws JSONException if a record is malformed
+   * @throws IllegalArgumentException if the key path is malformed,
+   * as with a negative subscript
+   */
+  public static JSONOffsetIndex build(Path data, String keyPath) throws IOException, JSONException {
+    long size = Files.size(data);
+    long modified = Files.getLastModifiedTime(data).toMillis();
+    Scanner scanner = new Scanner(keyPath == null ? null : new JSONKeyPath(keyPath));
+    try (InputStream in = Files.newInputStream(data)) {
+      scanner.scan(in);
+    }
+    long[] offsets = Arrays.copyOf(scanner.offsets, scanner.count);
+    int[] lengths = Arrays.copyOf(scanner.lengths, scanner.count);
+    String[] keys = null;
+    int[] keyRecords = null;
+    if (keyPath != null) {
+      int n = scanner.keys.size();
+      Integer[] order = new Integer[n];
+      for (int i = 0; i < n; i++)
+        order[i] = i;
+      // A stable sort keeps equal keys in file order.
+      final List<String> unsorted = scanner.keys;
+      Arrays.sort(order, (a, b) -> unsorted.get(a).compareTo(unsorted.get(b)));
+      keys = new String[n];
+      keyRecords = new int[n];
+      for (int i = 0; i < n; i++) {
+        keys[i] = unsorted.get(order[i]);
+        keyRecords[i] = scanner.keyRecords[order[i]];
+      }
+    }
+    return new JSONOffsetIndex(data, size, modified, offsets, lengths, keyPath, keys, keyRecords);
+  }
+
+  /**
+   * Load an index saved by {@link #save(Path)}.
+   *
+   * @param index the sidecar file
+   * @param data the data file it indexes
+   * @return the index
+   * @throws IOException if either file cannot be read, the sidecar
+   * is not an index, or the data file has changed since the index
+   * was built
+   */
+  public static JSONOffsetIndex load(Path index, Path data) throws IOException {
+    ResourceBundle bundle = com.sigio.json.BundleLoader.getBundle();
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(index)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION)
+        throw new IOException(String.format(bundle.getString("INDEX_FORMAT"), index));
+      long size = in.readLong();
+      long modified = in.readLong();
+      if (size != Files.size(data) || modified != Files.getLastModifiedTime(data).toMillis())
+        throw new IOException(String.format(bundle.getString("INDEX_STALE"), index, data));
+      int count = in.readInt();
+      long[] offsets = new long[count];
+      int[] lengths = new int[count];
+      long offset = 0;
+      for (int i = 0; i < count; i++) {
+        offset += JSONOffsetIndex.readVarLong(in);
+        offsets[i] = offset;
+        lengths[i] = (int) JSONOffsetIndex.readVarLong(in);
+      }
+      String keyPath = null;
+      String[] keys = null;
+      int[] keyRecords = null;
+      if (in.readBoolean()) {
+        keyPath = in.readUTF();
+        int n = in.readInt();
+        keys = new String[n];
+        keyRecords = new int[n];
+        for (int i = 0; i < n; i++) {
+          keyRecords[i] = (int) JSONOffsetIndex.readVarLong(in);
+          byte[] bytes = new byte[(int) JSONOffsetIndex.readVarLong(in)];
+          in.readFully(bytes);
+          keys[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+      }
+      return new JSONOffsetIndex(data, size, modified, offsets, lengths, keyPath, keys, keyRecords);
+    } catch (EOFException e) {
+      throw new IOException(String.format(bundle.getString("INDEX_FORMAT"), index), e);
+    }
+  }
+
+  /**
+   * Save the index to a sidecar file, replacing it if it exists.
+   *
+   * @param index the sidecar file
+   * @throws IOException if the file cannot be written
+   */
+  public void save(Path index) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(index)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(this.dataSize);
+      out.writeLong(this.dataModified);
+      out.writeInt(this.offsets.length);
+      long previous = 0;
+      for (int i = 0; i < this.offsets.length; i++) {
+        JSONOffsetIndex.writeVarLong(out, this.offsets[i] - previous);
+        JSONOffsetIndex.writeVarLong(out, this.lengths[i]);
+        previous = this.offsets[i];
+      }
+      out.writeBoolean(this.keyPath != null);
+      if (this.keyPath != null) {
+        out.writeUTF(this.keyPath);
+        out.writeInt(this.keys.length);
+        for (int i = 0; i < this.keys.length; i++) {
+          JSONOffsetIndex.writeVarLong(out, this.keyRecords[i]);
+          byte[] bytes = this.keys[i].getBytes(StandardCharsets.UTF_8);
+          JSONOffsetIndex.writeVarLong(out, bytes.length);
+          out.write(bytes);
+        }
+      }
+    }
+  }
+
+  /**
+   * Get the data file that this index is for.
+   *
+   * @return the data file
+   */
+  public Path getDataFile() {
+    return this.data;
+  }
+
+  /**
+   * Get the key path that was indexed.
+   *
+   * @return the key path, or <code>null</code> if there are no keys
+   */
+  public String getKeyPath() {
+    return this.keyPath;
+  }
+
+  /**
+   * Get the number of records in the file.
+   *
+   * @return the number of records
+   */
+  public int size() {
+    return this.offsets.length;
+  }
+
+  /**
+   * Get the byte offset in the file of the start of a record.
+   *
+   * @param record the record's position in the file, from 0
+   * @return the offset
+   * @throws IndexOutOfBoundsException if there is no such record
+   */
+  public long getOffset(int record) {
+    return this.offsets[record];
+  }
+
+  /**
+   * Get the length in bytes of a record's text.
+   *
+   * @param record the record's position in the file, from 0
+   * @return the length
+   * @throws IndexOutOfBoundsException if there is no such record
+   */
+  public int getLength(int record) {
+    return this.lengths[record];
+  }
+
+  /**
+   * Read and parse one record.
+   *
+   * @param record the record's position in the file, from 0
+   * @return the record
+   * @throws IndexOutOfBoundsException if there is no such record
+   * @throws IOException if the file cannot be read
+   * @throws JSONException if the record is malformed
+   */
+  public Object get(int record) throws IOException, JSONException {
+    long offset = this.offsets[record];
+    ByteBuffer bytes = ByteBuffer.allocate(this.lengths[record]);
+    FileChannel channel = this.channel();
+    while (bytes.hasRemaining()) {
+      if (channel.read(bytes, offset + bytes.position()) < 0)
+        throw new EOFException();
+    }
+    bytes.flip();
+    CharBuffer chars = StandardCharsets.UTF_8.decode(bytes);
+    JSONReader reader = new JSONReader(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+    return reader.readValue();
+  }
+
+  /**
+   * Find the position of the first record with a key.
+   *
+   * @param key the key value
+   * @return the record's position, or -1 if no record has the key
+   * @throws IllegalStateException if the index has no keys
+   */
+  public int indexOf(Object key) {
+    if (this.keys == null)
+      throw new IllegalStateException();
+    String text = JSONOffsetIndex.keyText(key);
+    int lo = 0;
+    int hi = this.keys.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (this.keys[mid].compareTo(text) < 0)
+        lo = mid + 1;
+      else
+        hi = mid;
+    }
+    return lo < this.keys.length && this.keys[lo].equals(text) ? this.keyRecords[lo] : -1;
+  }
+
+  /**
+   * Read and parse the first record with a key.
+   *
+   * @param key the key value
+   * @return the record, or <code>null</code> if no record has the key
+   * @throws IllegalStateException if the index has no keys
+   * @throws IOException if the file cannot be read
+   * @throws JSONException if the record is malformed
+   */
+  public Object find(Object key) throws IOException, JSONException {
+    int record = this.indexOf(key);
+    return record < 0 ? null : this.get(record);
+  }
+
+  /**
+   * Close the data file, if it has been opened to read records.
+   *
+   * @throws IOException if an I/O error occurs
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (this.channel != null) {
+      this.channel.close();
+      this.channel = null;
+    }
+  }
+
+  private synchronized FileChannel channel() throws IOException {
+    if (this.channel == null)
+      this.channel = FileChannel.open(this.data, StandardOpenOption.READ);
+    return this.channel;
+  }
+
+  /*
+   * The text a key is compared as: integral numbers in full, other
+   * values in canonical form.
+   */
+  private static String keyText(Object key) {
+    if (key instanceof Long || key instanceof Integer || key instanceof Short || key instanceof Byte)
+      return key.toString();
+    BigDecimal decimal = null;
+    if (key instanceof BigInteger) {
+      decimal = new BigDecimal((BigInteger) key);
+    } else if (key instanceof JSONNumber) {
+      decimal = ((JSONNumber) key).bigDecimalValue();
+    } else if (key instanceof BigDecimal) {
+      decimal = (BigDecimal) key;
+    } else if (key instanceof Double || key instanceof Float) {
+      double d = ((Number) key).doubleValue();
+      if (d == Math.rint(d) && !Double.isInfinite(d))
+        decimal = new BigDecimal(d);
+    }
+    if (decimal != null) {
+      if (decimal.signum() == 0)
+        return "0";
+      decimal = decimal.stripTrailingZeros();
+      // Bound the digits so that 1e999999999 is not written out.
+      if (decimal.scale() <= 0 && decimal.precision() - decimal.scale() <= MAX_KEY_DIGITS)
+        return decimal.toBigInteger().toString();
+    }
+    return CanonicalJSONWriter.toString(key);
+  }
+
+  private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+    while ((value & ~0x7fL) != 0) {
+      out.write((int) ((value & 0x7f) | 0x80));
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+
+  private static long readVarLong(DataInputStream in) throws IOException {
+    long value = 0;
+    for (int shift = 0; ; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (long) (b & 0x7f) << shift;
+      if ((b & 0x80) == 0)
+        return value;
+    }
+  }
+
+  /*
+   * Finds the top-level records of a file in one pass over its bytes,
+   * tracking only strings and nesting depth.  A file whose first
+   * token is '[' is an array whose elements are the records;
+   * otherwise each top-level value is a record.
+   */
+  private static class Scanner {
+    final JSONKeyPath keyPath;
+    long[] offsets = new long[1024];
+    int[] lengths = new int[1024];
+    int count = 0;
+    final List<String> keys = new ArrayList<String>();
+    int[] keyRecords = new int[1024];
+    // The bytes of the current record, when finding keys.
+    byte[] record = new byte[1024];
+    int recordLength = 0;
+    // Depth of the records: 1 in an array, 0 otherwise, or -1
+    // until the first token has been seen.
+    int base = -1;
+    int depth = 0;
+    boolean inString = false;
+    boolean escape = false;
+    boolean inRecord = false;
+    boolean done = false;
+    long start = 0;
+    long end = 0;
+
+    Scanner(JSONKeyPath keyPath) {
+      this.keyPath = keyPath;
+    }
+
+    void scan(InputStream in) throws IOException, JSONException {
+      byte[] buf = new byte[64 * 1024];
+      long position = 0;
+      int n;
+      while (!this.done && (n = in.read(buf)) > 0) {
+        for (int i = 0; i < n && !this.done; i++)
+          this.next(buf[i], position + i);
+        position += n;
+      }
+      if (this.inRecord)
+        this.finish();
+    }
+
+    private void next(byte b, long position) throws JSONException {
+      int c = b & 0xff;
+      if (this.inString) {
+        if (this.escape)
+          this.escape = false;
+        else if (c == JSON.ESCAPE_CHAR)
+          this.escape = true;
+        else if (c == JSON.QUOTE_CHAR)
+          this.inString = false;
+        this.add(b, position);
+        return;
+      }
+      if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+        if (this.inRecord) {
+          if (this.depth == this.base)
+            this.finish();
+          else
+            this.collect(b);
+        }
+        return;
+      }
+      if (this.base < 0) {
+        // Skip a byte order mark.
+        if (position < 3 && (c == 0xef || c == 0xbb || c == 0xbf))
+          return;
+        if (c == JSON.BEGIN_ARRAY) {
+          this.base = 1;
+          this.depth = 1;
+          return;
+        }
+        this.base = 0;
+      }
+      if (this.depth == this.base) {
+        if (c == JSON.VALUE_SEPARATOR) {
+          if (this.inRecord)
+            this.finish();
+          return;
+        }
+        if (c == JSON.END_ARRAY && this.base == 1) {
+          if (this.inRecord)
+            this.finish();
+          this.done = true;
+          return;
+        }
+        if (this.inRecord && (c == JSON.BEGIN_OBJECT || c == JSON.BEGIN_ARRAY || c == JSON.QUOTE_CHAR))
+          this.finish();
+        if (!this.inRecord) {
+          this.inRecord = true;
+          this.start = position;
+        }
+      }
+      this.add(b, position);
+      if (c == JSON.QUOTE_CHAR) {
+        this.inString = true;
+      } else if (c == JSON.BEGIN_OBJECT || c == JSON.BEGIN_ARRAY) {
+        this.depth++;
+      } else if (c == JSON.END_OBJECT || c == JSON.END_ARRAY) {
+        this.depth--;
+        if (this.depth == this.base)
+          this.finish();
+      }
+    }
+
+    private void add(byte b, long position) {
+      this.end = position + 1;
+      this.collect(b);
+    }
+
+    private void collect(byte b) {
+      if (this.keyPath == null)
+        return;
+      if (this.recordLength == this.record.length)
+        this.record = Arrays.copyOf(this.record, 2 * this.record.length);
+      this.record[this.recordLength++] = b;
+    }
+
+    private void finish() throws JSONException {
+      this.inRecord = false;
+      if (this.count == this.offsets.length) {
+        this.offsets = Arrays.copyOf(this.offsets, 2 * this.count);
+        this.lengths = Arrays.copyOf(this.lengths, 2 * this.count);
+      }
+      this.offsets[this.count] = this.start;
+      this.lengths[this.count] = (int) (this.end - this.start);
+      if (this.keyPath != null) {
+        CharBuffer chars = StandardCharsets.UTF_8.decode(ByteBuffer.wrap(this.record, 0, this.recordLength));
+        this.recordLength = 0;
+        JSONReader reader = new JSONReader(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+        Object key;
+        try {
+          key = this.keyPath.resolve(reader.readValue());
+        } catch (IOException e) {
+          // Reading from an array does not throw.
+          throw new IllegalStateException(e);
+        }
+        if (key != null && key != JSONLiteral.NULL) {
+          int k = this.keys.size();
+          if (k == this.keyRecords.length)
+            this.keyRecords = Arrays.copyOf(this.keyRecords, 2 * k);
+          this.keys.add(JSONOffsetIndex.keyText(key));
+          this.keyRecords[k] = this.count;
+        }
+      }
+      this.count++;
+    }
+  }
+
+}
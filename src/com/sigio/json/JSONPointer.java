@@ -0,0 +1,355 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A JSON Pointer (RFC 6901), parsed once and then used to look up
+ * values in any number of JSON trees.
+ *
+ * <p>A pointer is a string of reference tokens, each preceded by a
+ * slash, such as <code>/user/addresses/0/city</code>.  A token
+ * selects a member of an object by name, or an element of an array
+ * by a decimal index without leading zeros.  In names,
+ * <code>~1</code> stands for a slash and <code>~0</code> for a tilde.
+ * The empty string points to the whole tree.</p>
+ *
+ * <p>The tokens are decoded and the array indexes parsed when the
+ * pointer is constructed, so a lookup is just a walk down the tree
+ * with no parsing and no allocation.  A JSONPointer is immutable and
+ * may be shared between threads; hot code should keep its pointers
+ * in static fields.  Lookups work on any tree of Maps and Lists,
+ * including {@link JSONObject}s and {@link JSONArray}s.</p>
+ *
+ * <p>The typed getters return <code>null</code>, or for primitive
+ * types a default, when the pointer does not resolve or resolves to
+ * JSON null, and throw ClassCastException when it resolves to a
+ * value of another type.</p>
+ */
+public final class JSONPointer {
+
+  private final String pointer;
+  private final String[] tokens;
+  private final int[] indexes;
+
+  /**
+   * Parse a JSON Pointer.
+   *
+   * @param pointer the pointer
+   * @throws IllegalArgumentException if the pointer is not empty and
+   * does not start with a slash, or has a <code>~</code> not
+   * followed by <code>0</code> or <code>1</code>
+   */
+  public JSONPointer(String pointer) {
+    if (!pointer.isEmpty() && pointer.charAt(0) != '/')
+      throw new IllegalArgumentException(pointer);
+    this.pointer = pointer;
+    String[] raw = pointer.isEmpty() ? new String[0] : pointer.substring(1).split("/", -1);
+    this.tokens = new String[raw.length];
+    this.indexes = new int[raw.length];
+    for (int i = 0; i < raw.length; i++) {
+      this.tokens[i] = JSONPointer.unescape(raw[i], pointer);
+      this.indexes[i] = JSONPointer.arrayIndex(this.tokens[i]);
+    }
+  }
+
+  /**
+   * Get the value the pointer refers to.
+   *
+   * @param tree the tree to look in
+   * @return the value, or <code>null</code> if the pointer does not
+   * resolve; JSON null is returned as <code>JSONLiteral.NULL</code>
+   */
+  public Object get(Object tree) {
+    Object value = tree;
+    for (int i = 0; i < this.tokens.length && value != null; i++)
+      value = JSONPointer.step(value, this.tokens[i], this.indexes[i]);
+    return value;
+  }
+
+  /**
+   * Check whether the pointer resolves in a tree.
+   *
+   * @param tree the tree to look in
+   * @return <code>true</code> if there is a value, including JSON
+   * null, at the pointer
+   */
+  public boolean has(Object tree) {
+    return this.get(tree) != null;
+  }
+
+  /**
+   * Get the object the pointer refers to.
+   *
+   * @param tree the tree to look in
+   * @return the object, or <code>null</code> if there is none
+   * @throws ClassCastException if the value is not an object
+   */
+  public JSONObject getObject(Object tree) {
+    return (JSONObject) this.typed(tree, JSONObject.class);
+  }
+
+  /**
+   * Get the array the pointer refers to.
+   *
+   * @param tree the tree to look in
+   * @return the array, or <code>null</code> if there is none
+   * @throws ClassCastException if the value is not an array
+   */
+  public JSONArray getArray(Object tree) {
+    return (JSONArray) this.typed(tree, JSONArray.class);
+  }
+
+  /**
+   * Get the string the pointer refers to.
+   *
+   * @param tree the tree to look in
+   * @return the string, or <code>null</code> if there is none
+   * @throws ClassCastException if the value is not a string
+   */
+  public String getString(Object tree) {
+    Object value = this.typed(tree, CharSequence.class);
+    return value == null ? null : value.toString();
+  }
+
+  /**
+   * Get the number the pointer refers to.
+   *
+   * @param tree the tree to look in
+   * @return the number, or <code>null</code> if there is none
+   * @throws ClassCastException if the value is not a number
+   */
+  public Number getNumber(Object tree) {
+    return (Number) this.typed(tree, Number.class);
+  }
+
+  /**
+   * Get the number the pointer refers to as a <code>long</code>.
+   *
+   * @param tree the tree to look in
+   * @return the value
+   * @throws NoSuchElementException if there is no value or it is
+   * JSON null
+   * @throws ClassCastException if the value is not a number
+   */
+  public long getLong(Object tree) {
+    return this.required(this.getNumber(tree)).longValue();
+  }
+
+  /**
+   * Get the number the pointer refers to as a <code>long</code>, or
+   * a default.
+   *
+   * @param tree the tree to look in
+   * @param defaultValue the value to return if there is none
+   * @return the value
+   * @throws ClassCastException if the value is not a number
+   */
+  public long getLong(Object tree, long defaultValue) {
+    Number n = this.getNumber(tree);
+    return n == null ? defaultValue : n.longValue();
+  }
+
+  /**
+   * Get the number the pointer refers to as a <code>double</code>.
+   *
+   * @param tree the tree to look in
+   * @return the value
+   * @throws NoSuchElementException if there is no value or it is
+   * JSON null
+   * @throws ClassCastException if the value is not a number
+   */
+  public double getDouble(Object tree) {
+    return this.required(this.getNumber(tree)).doubleValue();
+  }
+
+  /**
+   * Get the number the pointer refers to as a <code>double</code>,
+   * or a default.
+   *
+   * @param tree the tree to look in
+   * @param defaultValue the value to return if there is none
+   * @return the value
+   * @throws ClassCastException if the value is not a number
+   */
+  public double getDouble(Object tree, double defaultValue) {
+    Number n = this.getNumber(tree);
+    return n == null ? defaultValue : n.doubleValue();
+  }
+
+  /**
+   * Get the <code>true</code> or <code>false</code> value the
+   * pointer refers to.
+   *
+   * @param tree the tree to look in
+   * @return the value
+   * @throws NoSuchElementException if there is no value or it is
+   * JSON null
+   * @throws ClassCastException if the value is not a boolean
+   */
+  public boolean getBoolean(Object tree) {
+    return this.required(this.booleanValue(tree)).booleanValue();
+  }
+
+  /**
+   * Get the <code>true</code> or <code>false</code> value the
+   * pointer refers to, or a default.
+   *
+   * @param tree the tree to look in
+   * @param defaultValue the value to return if there is none
+   * @return the value
+   * @throws ClassCastException if the value is not a boolean
+   */
+  public boolean getBoolean(Object tree, boolean defaultValue) {
+    Boolean b = this.booleanValue(tree);
+    return b == null ? defaultValue : b.booleanValue();
+  }
+
+  /**
+   * Get the pointer as a string.
+   *
+   * @return the pointer
+   */
+  @Override
+  public String toString() {
+    return this.pointer;
+  }
+
+  /**
+   * Check whether another object is a pointer with the same string.
+   *
+   * @param o the object to compare with
+   * @return <code>true</code> if it is equal
+   */
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof JSONPointer && ((JSONPointer) o).pointer.equals(this.pointer);
+  }
+
+  /**
+   * Get a hash code for the pointer.
+   *
+   * @return the hash code
+   */
+  @Override
+  public int hashCode() {
+    return this.pointer.hashCode();
+  }
+
+  /*
+   * Accessors for JSONPointerExtractor.
+   */
+  int size() {
+    return this.tokens.length;
+  }
+
+  String token(int i) {
+    return this.tokens[i];
+  }
+
+  int index(int i) {
+    return this.indexes[i];
+  }
+
+  /*
+   * Take one step down a tree: a member of a Map, or an element of a
+   * List if the token is an array index.  Returns null if there is no
+   * such value.
+   */
+  static Object step(Object value, String token, int index) {
+    if (value instanceof Map)
+      return ((Map<?, ?>) value).get(token);
+    if (value instanceof List && index >= 0) {
+      List<?> list = (List<?>) value;
+      return index < list.size() ? list.get(index) : null;
+    }
+    return null;
+  }
+
+  private Object typed(Object tree, Class<?> k) {
+    Object value = this.get(tree);
+    if (value == null || value == JSONLiteral.NULL)
+      return null;
+    if (!k.isInstance(value))
+      throw new ClassCastException(this.pointer + ": " + value.getClass().getName());
+    return value;
+  }
+
+  private Boolean booleanValue(Object tree) {
+    Object value = this.get(tree);
+    if (value == null || value == JSONLiteral.NULL)
+      return null;
+    if (value == JSONLiteral.TRUE)
+      return Boolean.TRUE;
+    if (value == JSONLiteral.FALSE)
+      return Boolean.FALSE;
+    if (value instanceof Boolean)
+      return (Boolean) value;
+    throw new ClassCastException(this.pointer + ": " + value.getClass().getName());
+  }
+
+  private <T> T required(T value) {
+    if (value == null)
+      throw new NoSuchElementException(this.pointer);
+    return value;
+  }
+
+  private static String unescape(String token, String pointer) {
+    int tilde = token.indexOf('~');
+    if (tilde < 0)
+      return token;
+    StringBuilder sb = new StringBuilder(token.length());
+    for (int i = 0; i < token.length(); i++) {
+      char c = token.charAt(i);
+      if (c != '~') {
+        sb.append(c);
+      } else if (i + 1 < token.length() && token.charAt(i + 1) == '0') {
+        sb.append('~');
+        i++;
+      } else if (i + 1 < token.length() && token.charAt(i + 1) == '1') {
+        sb.append('/');
+        i++;
+      } else {
+        throw new IllegalArgumentException(pointer);
+      }
+    }
+    return sb.toString();
+  }
+
+  /*
+   * The array index a token stands for, or -1 if it is not one.
+   */
+  private static int arrayIndex(String token) {
+    int n = token.length();
+    if (n == 0 || n > 9 || (n > 1 && token.charAt(0) == '0'))
+      return -1;
+    int index = 0;
+    for (int i = 0; i < n; i++) {
+      char c = token.charAt(i);
+      if (c < '0' || c > '9')
+        return -1;
+      index = index * 10 + (c - '0');
+    }
+    return index;
+  }
+
+}
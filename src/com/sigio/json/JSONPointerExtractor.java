@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Looks up many {@link JSONPointer}s in a tree at once.
+ *
+ * <p>The pointers are merged into a trie when the extractor is
+ * constructed, so pointers that share a prefix, such as
+ * <code>/user/name</code> and <code>/user/id</code>, walk the shared
+ * part of the tree only once.  {@link #extract(Object, Object[])}
+ * fills a caller's array and allocates nothing, so an extractor and
+ * a reused array make a cheap way to pull a fixed set of fields out
+ * of each of a stream of documents.  An extractor is immutable and
+ * may be shared between threads.</p>
+ */
+public final class JSONPointerExtractor {
+
+  private final Node root = new Node(null, -1);
+  private final int count;
+
+  /**
+   * Construct an extractor for some pointers.
+   *
+   * @param pointers the pointers, whose values are extracted into the
+   * slots with the same indexes
+   */
+  public JSONPointerExtractor(JSONPointer... pointers) {
+    this(Arrays.asList(pointers));
+  }
+
+  /**
+   * Construct an extractor for some pointers.
+   *
+   * @param pointers the pointers, whose values are extracted into the
+   * slots with the same indexes
+   */
+  public JSONPointerExtractor(List<JSONPointer> pointers) {
+    this.count = pointers.size();
+    for (int slot = 0; slot < this.count; slot++) {
+      JSONPointer pointer = pointers.get(slot);
+      Node node = this.root;
+      for (int i = 0; i < pointer.size(); i++)
+        node = node.child(pointer.token(i), pointer.index(i));
+      node.addSlot(slot);
+    }
+    this.root.freeze();
+  }
+
+  /**
+   * Construct an extractor for some pointers given as strings.
+   *
+   * @param pointers the pointers
+   * @return the extractor
+   * @throws IllegalArgumentException if a pointer is malformed
+   */
+  public static JSONPointerExtractor of(String... pointers) {
+    List<JSONPointer> list = new ArrayList<JSONPointer>(pointers.length);
+    for (String p : pointers)
+      list.add(new JSONPointer(p));
+    return new JSONPointerExtractor(list);
+  }
+
+  /**
+   * Get the number of pointers, which is the number of slots needed
+   * by {@link #extract(Object, Object[])}.
+   *
+   * @return the number of pointers
+   */
+  public int size() {
+    return this.count;
+  }
+
+  /**
+   * Look up every pointer in a tree.  Each slot gets the value its
+   * pointer refers to, as returned by {@link JSONPointer#get}, or
+   * <code>null</code> if it does not resolve.
+   *
+   * @param tree the tree to look in
+   * @param slots the array to fill, at least {@link #size()} long
+   * @throws IllegalArgumentException if the array is too short
+   */
+  public void extract(Object tree, Object[] slots) {
+    if (slots.length < this.count)
+      throw new IllegalArgumentException();
+    Arrays.fill(slots, 0, this.count, null);
+    if (tree != null)
+      JSONPointerExtractor.walk(this.root, tree, slots);
+  }
+
+  /**
+   * Look up every pointer in a tree, into a new array.
+   *
+   * @param tree the tree to look in
+   * @return the values, in the order of the pointers
+   */
+  public Object[] extract(Object tree) {
+    Object[] slots = new Object[this.count];
+    this.extract(tree, slots);
+    return slots;
+  }
+
+  private static void walk(Node node, Object value, Object[] slots) {
+    for (int slot : node.slots)
+      slots[slot] = value;
+    for (Node child : node.children) {
+      Object next = JSONPointer.step(value, child.token, child.index);
+      if (next != null)
+        JSONPointerExtractor.walk(child, next, slots);
+    }
+  }
+
+  /*
+   * A trie node: the token leading to it, the slots of the pointers
+   * that end at it, and its children.  Built with lists, then frozen
+   * into arrays for walking.
+   */
+  private static class Node {
+    final String token;
+    final int index;
+    int[] slots = new int[0];
+    Node[] children = new Node[0];
+    private List<Node> building = new ArrayList<Node>();
+
+    Node(String token, int index) {
+      this.token = token;
+      this.index = index;
+    }
+
+    Node child(String token, int index) {
+      for (Node child : this.building) {
+        if (child.token.equals(token))
+          return child;
+      }
+      Node child = new Node(token, index);
+      this.building.add(child);
+      return child;
+    }
+
+    void addSlot(int slot) {
+      this.slots = Arrays.copyOf(this.slots, this.slots.length + 1);
+      this.slots[this.slots.length - 1] = slot;
+    }
+
+    void freeze() {
+      this.children = this.building.toArray(new Node[0]);
+      this.building = null;
+      for (Node child : this.children)
+        child.freeze();
+    }
+  }
+
+}
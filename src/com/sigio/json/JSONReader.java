@@ -18,9 +18,10 @@
  */
 package com.sigio.json;
 import java.io.PushbackReader;
+import java.io.CharArrayReader;
 import java.io.IOException;
 import java.io.Reader;
-import java.util.ResourceBundle;
+import java.math.BigInteger;
 
 /**
  * Reader subclass to read JSON data and create JSON objects.
@@ -32,13 +33,26 @@ public class JSONReader extends PushbackReader {
    */
   public static final Character EOF = new Character((char)-1);
 
-  private ResourceBundle bundle = null;
-
   /*
    * Internal state variables.
    */
   // Our position in the input.
   private int index = 0;
+  // Whether syntax exceptions skip capturing a stack trace.
+  private boolean lightweightExceptions = false;
+  // Whether numbers are returned as JSONNumbers.
+  private boolean lazyNumbers = false;
+  // Whether escape-free strings are returned as slices of source.
+  private boolean zeroCopyStrings = false;
+  // Where containers come from and member names are kept, if set.
+  private JSONRecycler recycler = null;
+  // The array being read, when constructed over one, and the bounds
+  // of the part being read.
+  private final char[] source;
+  private final int sourceOffset;
+  private final int sourceEnd;
+  // Reused to collect strings, literals and numbers.
+  private final StringBuilder text = new StringBuilder();
 
   /**
    * Create a new JSONReader with a default pushback buffer. The
@@ -46,7 +60,9 @@ public class JSONReader extends PushbackReader {
    */
   public JSONReader(Reader in) {
     super(in);
-    bundle = com.sigio.json.BundleLoader.getBundle();
+    this.source = null;
+    this.sourceOffset = 0;
+    this.sourceEnd = 0;
   }
 
   /**
@@ -54,7 +70,138 @@ public class JSONReader extends PushbackReader {
    */
   public JSONReader(Reader in, int size) {
     super(in, size);
-    bundle = com.sigio.json.BundleLoader.getBundle();
+    this.source = null;
+    this.sourceOffset = 0;
+    this.sourceEnd = 0;
+  }
+
+  /**
+   * Create a new JSONReader that reads JSON text held in a character
+   * array.  Only such a reader can return strings as {@link
+   * JSONStringSlice}s.
+   *
+   * @param buf the array holding the text
+   */
+  public JSONReader(char[] buf) {
+    this(buf, 0, buf.length);
+  }
+
+  /**
+   * Create a new JSONReader that reads JSON text held in part of a
+   * character array.
+   *
+   * @param buf the array holding the text
+   * @param off the index of the first character to read
+   * @param len the number of characters to read
+   * @throws IllegalArgumentException if the range is not within the
+   * array
+   */
+  public JSONReader(char[] buf, int off, int len) {
+    super(new CharArrayReader(buf, off, len));
+    if (off < 0 || len < 0 || off > buf.length - len)
+      throw new IllegalArgumentException();
+    this.source = buf;
+    this.sourceOffset = off;
+    this.sourceEnd = off + len;
+  }
+
+  /**
+   * Set whether syntax errors are reported by lightweight
+   * exceptions.  In lightweight mode, the {@link JSONSyntaxException}s
+   * thrown for malformed input do not capture a stack trace, which
+   * makes rejecting bad input about as cheap as accepting good
+   * input.  In either mode, the exception message is only formatted
+   * if it is asked for.  The default is <code>false</code>.
+   *
+   * @param lightweight <code>true</code> to throw exceptions without
+   * stack traces
+   */
+  public void setLightweightExceptions(boolean lightweight) {
+    this.lightweightExceptions = lightweight;
+  }
+
+  /**
+   * Check whether syntax errors are reported by lightweight
+   * exceptions.
+   *
+   * @return <code>true</code> if syntax exceptions are thrown
+   * without stack traces
+   */
+  public boolean isLightweightExceptions() {
+    return this.lightweightExceptions;
+  }
+
+  /**
+   * Set whether numbers are returned as {@link JSONNumber}s.  When
+   * on, numbers are checked but not converted, so a document whose
+   * numbers are only passed through is read and written back without
+   * any conversion or loss of precision.  When off, numbers are
+   * returned as Longs if they are integers in the range of
+   * <code>long</code>, BigIntegers if they are larger integers, and
+   * Doubles otherwise.  The default is <code>false</code>.
+   *
+   * @param lazy <code>true</code> to return JSONNumbers
+   */
+  public void setLazyNumbers(boolean lazy) {
+    this.lazyNumbers = lazy;
+  }
+
+  /**
+   * Check whether numbers are returned as {@link JSONNumber}s.
+   *
+   * @return <code>true</code> if numbers are not converted
+   */
+  public boolean isLazyNumbers() {
+    return this.lazyNumbers;
+  }
+
+  /**
+   * Set whether string values are returned as slices of the input.
+   * When on, a reader constructed over a character array returns
+   * each string value without escape sequences as a {@link
+   * JSONStringSlice} of the array, which saves copying the string
+   * until, if ever, a String is needed.  Strings with escape
+   * sequences, object member names, and all strings read by other
+   * readers are returned as Strings.  The default is
+   * <code>false</code>.
+   *
+   * <p>Slices are not equal to Strings, so values read with this
+   * option on should be compared through their contents.</p>
+   *
+   * @param zeroCopy <code>true</code> to return slices
+   */
+  public void setZeroCopyStrings(boolean zeroCopy) {
+    this.zeroCopyStrings = zeroCopy;
+  }
+
+  /**
+   * Check whether string values are returned as slices of the input.
+   *
+   * @return <code>true</code> if slices are returned when possible
+   */
+  public boolean isZeroCopyStrings() {
+    return this.zeroCopyStrings;
+  }
+
+  /**
+   * Set the recycler that objects and arrays are taken from and that
+   * keeps the member names read.  Values given back to the recycler
+   * are reused by later reads; see {@link JSONRecycler}.  The default
+   * is <code>null</code>, which allocates every container.
+   *
+   * @param recycler the recycler to use, or <code>null</code>
+   */
+  public void setRecycler(JSONRecycler recycler) {
+    this.recycler = recycler;
+  }
+
+  /**
+   * Get the recycler that containers are taken from.
+   *
+   * @return the recycler, or <code>null</code> if there is none
+   */
+  public JSONRecycler getRecycler() {
+    return this.recycler;
   }
 
   /**
@@ -77,6 +224,8 @@ public class JSONReader extends PushbackReader {
     case JSON.BEGIN_OBJECT:
       return this.readObject();
     case JSON.QUOTE_CHAR:
+      if (this.zeroCopyStrings && this.source != null)
+        return this.readStringSlice();
       return this.readString();
     default:
       this.unread(c);
@@ -85,70 +234,184 @@ public class JSONReader extends PushbackReader {
   }
 
   /**
-   * Reads a string from a JSON input. This is used by
-   * <code>readValue</code> and is not intended to be used by client
-   * code.
+   * Reads and discards the next JSON value from the input without
+   * building any objects for it, except for numbers and literals.
+   * The value is still checked for syntax errors.  At the end of the
+   * input this method does nothing.
    *
-   * @return string read from the inpu
    * @throws IOException if a read error occurs.
    * @throws JSONException if the input is not properly formed JSON
    * according to RFC4627
    */
-  private String readString() throws IOException, JSONException {
-    StringBuffer sb = new StringBuffer();
+  public void skipValue() throws IOException, JSONException {
+    int c = this.skipWSRead();
+
+    switch (c) {
+    case -1:
+      break;
+    case JSON.BEGIN_ARRAY:
+      c = this.skipWSRead();
+      if (c == JSON.END_ARRAY)
+        break;
+      this.unread(c);
+      while (true) {
+        this.skipValue();
+        c = this.skipWSRead();
+        if (c == JSON.END_ARRAY)
+          break;
+        if (c != JSON.VALUE_SEPARATOR)
+          throw this.syntaxException(JSONSyntaxException.ILLEGAL_CHARACTER, (char) c);
+      }
+      break;
+    case JSON.BEGIN_OBJECT:
+      c = this.skipWSRead();
+      if (c == JSON.END_OBJECT)
+        break;
+      while (true) {
+        if (c != JSON.QUOTE_CHAR)
+          throw this.syntaxException(JSONSyntaxException.ILLEGAL_CHARACTER, (char) c);
+        this.skipString();
+        c = this.skipWSRead();
+        if (c != JSON.NAME_SEPARATOR)
+          throw this.syntaxException(JSONSyntaxException.ILLEGAL_CHARACTER, (char) c);
+        this.skipValue();
+        c = this.skipWSRead();
+        if (c == JSON.END_OBJECT)
+          break;
+        if (c != JSON.VALUE_SEPARATOR)
+          throw this.syntaxException(JSONSyntaxException.ILLEGAL_CHARACTER, (char) c);
+        c = this.skipWSRead();
+      }
+      break;
+    case JSON.QUOTE_CHAR:
+      this.skipString();
+      break;
+    default:
+      this.unread(c);
+      this.readLiteralOrNumber();
+      break;
+    }
+  }
 
+  /*
+   * Reads past the rest of a string whose opening quote has been
+   * read, without saving its contents.
+   */
+  private void skipString() throws IOException, JSONException {
     while (true) {
       int c = this.read();
       switch (c) {
       case -1:
       case '\n':
       case '\r':
-        throw this.syntaxException(this.bundle.getString("UNTERMINATED_STRING"));
+        throw this.syntaxException(JSONSyntaxException.UNTERMINATED_STRING);
       case JSON.ESCAPE_CHAR:
         c = this.read();
-        switch (c) {
-        case JSON.QUOTE_CHAR:
-        case JSON.ESCAPE_CHAR:
-        case '/':
-          sb.append((char)c);
-          break;
-        case 'b':
-          sb.append('\b');
-          break;
-        case 'f':
-          sb.append('\f');
-          break;
-        case 'n':
-          sb.append('\n');
-          break;
-        case 'r':
-          sb.append('\r');
-          break;
-        case 't':
-          sb.append('\t');
-          break;
-        case 'u':
+        if (c == 'u') {
           char buf[] = new char[4];
-          if (this.read(buf, 0, 4) < 4) {
-            String message = String.format(this.bundle.getString("INVALID_ESCAPE"), "\\u" + new String(buf));
-            throw this.syntaxException(message);
-          }
-          sb.append((char)Integer.parseInt(new String(buf), 16));
-          break;
-        default:
-          String message = String.format(this.bundle.getString("INVALID_ESCAPE"), "\\" + (char)c);
-          throw this.syntaxException(message);
+          int n = this.read(buf, 0, 4);
+          if (n < 4 || JSONReader.parseHex(buf) < 0)
+            throw this.syntaxException(JSONSyntaxException.INVALID_ESCAPE, "\\u" + new String(buf, 0, Math.max(n, 0)));
+        } else if ("\"\\/bfnrt".indexOf(c) < 0) {
+          throw this.syntaxException(JSONSyntaxException.INVALID_ESCAPE, "\\" + (char) c);
         }
         break;
+      case JSON.QUOTE_CHAR:
+        return;
       default:
-        if (c == JSON.QUOTE_CHAR)
-          return sb.toString();
-        else
-          sb.append((char)c);
         break;
       }
     }
-    
+  }
+
+  /*
+   * Reads a string whose opening quote has been read as a slice of
+   * the source array, or as a String if it has escape sequences.
+   * The next character to read is always at sourceOffset + index in
+   * the array, whether or not it is in the pushback buffer.
+   */
+  private Object readStringSlice() throws IOException, JSONException {
+    int start = this.sourceOffset + this.index;
+    for (int i = start; i < this.sourceEnd; i++) {
+      char c = this.source[i];
+      if (c == JSON.QUOTE_CHAR) {
+        long n = i - start + 1;
+        while (n > 0) {
+          long skipped = super.skip(n);
+          this.index += (int) skipped;
+          n -= skipped;
+        }
+        return new JSONStringSlice(this.source, start, i - start);
+      }
+      if (c == JSON.ESCAPE_CHAR || c == '\n' || c == '\r')
+        break;
+    }
+    return this.readString();
+  }
+
+  /**
+   * Reads a string from a JSON input. This is used by
+   * <code>readValue</code> and is not intended to be used by client
+   * code.
+   *
+   * @return string read from the inpu
+   * @throws IOException if a read error occurs.
+   * @throws JSONException if the input is not properly formed JSON
+   * according to RFC4627
+   */
+  String readString() throws IOException, JSONException {
+    StringBuilder sb = this.text;
+    sb.setLength(0);
+    int c;
+    while ((c = this.readStringChar()) >= 0)
+      sb.append((char) c);
+    return sb.toString();
+  }
+
+  /*
+   * Reads the next character of a string whose opening quote has
+   * been read, decoding any escape sequence.  Returns -1 after
+   * reading the closing quote.
+   */
+  int readStringChar() throws IOException, JSONException {
+    int c = this.read();
+    switch (c) {
+    case -1:
+    case '\n':
+    case '\r':
+      throw this.syntaxException(JSONSyntaxException.UNTERMINATED_STRING);
+    case JSON.QUOTE_CHAR:
+      return -1;
+    case JSON.ESCAPE_CHAR:
+      c = this.read();
+      switch (c) {
+      case JSON.QUOTE_CHAR:
+      case JSON.ESCAPE_CHAR:
+      case '/':
+        return c;
+      case 'b':
+        return '\b';
+      case 'f':
+        return '\f';
+      case 'n':
+        return '\n';
+      case 'r':
+        return '\r';
+      case 't':
+        return '\t';
+      case 'u':
+        char buf[] = new char[4];
+        int n = this.read(buf, 0, 4);
+        int value = n < 4 ? -1 : JSONReader.parseHex(buf);
+        if (value < 0)
+          throw this.syntaxException(JSONSyntaxException.INVALID_ESCAPE, "\\u" + new String(buf, 0, Math.max(n, 0)));
+        return value;
+      default:
+        throw this.syntaxException(JSONSyntaxException.INVALID_ESCAPE, "\\" + (char)c);
+      }
+    default:
+      return c;
+    }
   }
 
   /**
@@ -162,7 +425,8 @@ public class JSONReader extends PushbackReader {
    * according to RFC4627
    */
   private Object readLiteralOrNumber() throws IOException, JSONException {
-    StringBuffer sb = new StringBuffer();
+    StringBuilder sb = this.text;
+    sb.setLength(0);
 
     boolean cont = true;
 
@@ -174,8 +438,7 @@ public class JSONReader extends PushbackReader {
       case JSON.QUOTE_CHAR:
       case JSON.ESCAPE_CHAR:
       case JSON.NAME_SEPARATOR:
-        String message = String.format(this.bundle.getString("ILLEGAL_CHARACTER"), (char) c);
-        throw this.syntaxException(message);
+        throw this.syntaxException(JSONSyntaxException.ILLEGAL_CHARACTER, (char) c);
       case JSON.VALUE_SEPARATOR:
       case JSON.END_ARRAY:
       case JSON.END_OBJECT:
@@ -194,36 +457,30 @@ public class JSONReader extends PushbackReader {
 
     String str = sb.toString();
     if (JSON.isNumber(str)) {
-      if (str.matches(".*?(?:\\.|e|E).*?")) {
+      boolean integral = JSONNumber.isIntegral(str);
+      if (this.lazyNumbers)
+        return new JSONNumber(str, integral);
+      if (!integral) {
         try {
           Double d = Double.valueOf(str);
           return d;
         } catch (NumberFormatException e) {
-          this.index -= str.length();
-          JSONException exc = this.syntaxException("NumberFormatException " + e.getMessage());
-          this.index += str.length();
-          throw exc;
+          throw this.syntaxException(this.index - str.length(), JSONSyntaxException.INVALID_NUMBER, e.getMessage());
         }
       } else {
         try {
           Long l = Long.valueOf(str);
           return l;
         } catch (NumberFormatException e) {
-          this.index -= str.length();
-          JSONException exc = this.syntaxException("NumberFormatException " + e.getMessage());
-          this.index += str.length();
-          throw exc;
+          // Too large for a long.
+          return new BigInteger(str);
         }
       }
     } else {
-      try {
-        return JSONLiteral.fromString(str);
-      } catch (JSONException e) {
-        this.index -= str.length();
-        JSONException exc = this.syntaxException(e.getMessage());
-        this.index += str.length();
-        throw exc;
-      }
+      JSONLiteral literal = JSONLiteral.lookup(str);
+      if (literal == null)
+        throw this.syntaxException(this.index - str.length(), JSONSyntaxException.INVALID_LITERAL, str);
+      return literal;
     }
   }
 
@@ -246,8 +503,7 @@ public class JSONReader extends PushbackReader {
       return obj;
     }
     else {
-      String message = String.format(this.bundle.getString("ILLEGAL_CHARACTER"), (char)c);
-      throw this.syntaxException(message);
+      throw this.syntaxException(JSONSyntaxException.ILLEGAL_CHARACTER, (char)c);
     }
   }
 
@@ -262,9 +518,9 @@ public class JSONReader extends PushbackReader {
    * according to RFC4627
    */
   private JSONArray readArray() throws IOException, JSONException {
-    JSONArray jsonArray = new JSONArray();
+    JSONArray jsonArray = this.recycler != null ? this.recycler.newArray() : new JSONArray();
     while (this.peek() != JSON.END_ARRAY) {
-      jsonArray.add(this.readArrayValue());
+      jsonArray.addTrusted(this.readArrayValue());
     }
     this.read();
     return jsonArray;
@@ -281,11 +537,11 @@ public class JSONReader extends PushbackReader {
    * according to RFC4627
    */
   private JSONObject readObject() throws IOException, JSONException {
-    JSONObject jsonObject = new JSONObject();
+    JSONObject jsonObject = this.recycler != null ? this.recycler.newObject() : new CompactJSONObject();
     while (this.peek() != JSON.END_OBJECT) {
       String key = this.readObjectFieldName();
       Object value = this.readObjectFieldValue();
-      jsonObject.put(key, value);
+      jsonObject.putTrusted(key, value);
     }
     this.read();
     return jsonObject;
@@ -304,14 +560,22 @@ public class JSONReader extends PushbackReader {
   private String readObjectFieldName() throws IOException, JSONException {
     int c = this.skipWSRead();
     if (c != JSON.QUOTE_CHAR)
-      throw this.syntaxException("Illegal character " + (char) c);
-    String name = this.readString();
+      throw this.syntaxException(JSONSyntaxException.ILLEGAL_CHARACTER, (char) c);
+    String name;
+    if (this.recycler != null) {
+      StringBuilder sb = this.text;
+      sb.setLength(0);
+      while ((c = this.readStringChar()) >= 0)
+        sb.append((char) c);
+      name = this.recycler.name(sb);
+    } else {
+      name = this.readString();
+    }
     c = this.skipWSRead();
     if (c == JSON.NAME_SEPARATOR)
       return name;
     else {
-      String message = String.format(this.bundle.getString("ILLEGAL_CHARACTER"), (char)c);
-      throw this.syntaxException(message);
+      throw this.syntaxException(JSONSyntaxException.ILLEGAL_CHARACTER, (char)c);
     }
   }
 
@@ -334,8 +598,7 @@ public class JSONReader extends PushbackReader {
       return value;
     }
     else {
-      String message = String.format(this.bundle.getString("ILLEGAL_CHARACTER"), (char)c);
-      throw this.syntaxException(message);
+      throw this.syntaxException(JSONSyntaxException.ILLEGAL_CHARACTER, (char)c);
     }
   }
 
@@ -438,9 +701,10 @@ public class JSONReader extends PushbackReader {
 
   /*
    * Implementation method to read characters from the input until a
-   * non-whitespace character is found.
+   * non-whitespace character is found.  Package access so that the
+   * streaming readers in this package can walk the input.
    */
-  private int skipWSRead() throws IOException {
+  int skipWSRead() throws IOException {
     int c = this.read();
     while (JSON.isWhiteSpace(c))
       c = this.read();
@@ -449,11 +713,34 @@ public class JSONReader extends PushbackReader {
 
   /*
    * Helper method to construct a JSONException to be thrown when an
-   * error is detected in the input.
+   * error is detected in the input at the current position.
    */
-  private JSONException syntaxException(String message) {
-    String location = String.format(this.bundle.getString("AT"), this.index);
-    return new JSONException(message + " " + location);
+  JSONException syntaxException(String key, Object... arguments) {
+    return this.syntaxException(this.index, key, arguments);
+  }
+
+  /*
+   * Helper method to construct a JSONException to be thrown when an
+   * error is detected in the input at a given position.  The message
+   * is formatted lazily by the exception itself.
+   */
+  private JSONException syntaxException(int position, String key, Object... arguments) {
+    return new JSONSyntaxException(key, position, !this.lightweightExceptions, arguments);
+  }
+
+  /*
+   * Parse the four hex digits of a unicode escape, returning -1 if
+   * any of them is not a hex digit.
+   */
+  private static int parseHex(char[] buf) {
+    int value = 0;
+    for (int i = 0; i < 4; i++) {
+      int digit = Character.digit(buf[i], 16);
+      if (digit < 0)
+        return -1;
+      value = (value << 4) | digit;
+    }
+    return value;
   }
 
 }
@@ -0,0 +1,176 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * A pool of parsed containers for reuse by a {@link JSONReader}.
+ *
+ * <p>A program that reads a value, uses it and then reads the next
+ * can give each value back to a recycler once it is done with it.
+ * The recycler clears the objects and arrays in the value and keeps
+ * them, with their backing storage, for the reader to fill with the
+ * next value instead of allocating new ones:</p>
+ *
+ * <pre>
+ * JSONRecycler recycler = new JSONRecycler();
+ * reader.setRecycler(recycler);
+ * while ((value = reader.readValue()) != JSONReader.EOF) {
+ *   process(value);
+ *   recycler.recycle(value);
+ * }
+ * </pre>
+ *
+ * <p>The recycler also keeps a table of recently read member names,
+ * so that a name that has been read before is returned as the same
+ * String rather than a new copy.  Together these leave little to
+ * allocate in steady state beyond the strings and numbers of the
+ * values themselves.</p>
+ *
+ * <p>Every {@link JSONArray} and {@link CompactJSONObject} in a
+ * recycled value is cleared and pooled, whether it came from a
+ * reader, from {@link #newObject()} and {@link #newArray()}, or was
+ * made by the caller; other maps and lists, including subclasses,
+ * are left alone.  Nothing in a recycled value may be used
+ * afterwards.  A recycler is not safe for use by multiple threads,
+ * so each reader thread should have its own.</p>
+ */
+public final class JSONRecycler {
+
+  /**
+   * The default number of objects, and of arrays, kept in the pool.
+   */
+  public static final int DEFAULT_CAPACITY = 1024;
+
+  // Size of the member name table, a power of two.
+  private static final int NAMES = 1024;
+  // Longer names are not kept in the table.
+  private static final int MAX_NAME_LENGTH = 64;
+
+  private final int capacity;
+  private final ArrayDeque<JSONObject> objects = new ArrayDeque<JSONObject>();
+  private final ArrayDeque<JSONArray> arrays = new ArrayDeque<JSONArray>();
+  private final String[] names = new String[NAMES];
+
+  /**
+   * Construct a recycler that keeps up to the default number of
+   * containers.
+   */
+  public JSONRecycler() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Construct a recycler that keeps up to the specified number of
+   * objects and the same number of arrays.
+   *
+   * @param capacity the most containers of each kind to keep
+   * @throws IllegalArgumentException if capacity is negative
+   */
+  public JSONRecycler(int capacity) {
+    if (capacity < 0)
+      throw new IllegalArgumentException();
+    this.capacity = capacity;
+  }
+
+  /**
+   * Get the most containers of each kind that are kept.
+   *
+   * @return the capacity
+   */
+  public int getCapacity() {
+    return this.capacity;
+  }
+
+  /**
+   * Get an empty object, from the pool if it has one.
+   *
+   * @return an empty JSONObject
+   */
+  public JSONObject newObject() {
+    JSONObject object = this.objects.poll();
+    return object != null ? object : new CompactJSONObject();
+  }
+
+  /**
+   * Get an empty array, from the pool if it has one.
+   *
+   * @return an empty JSONArray
+   */
+  public JSONArray newArray() {
+    JSONArray array = this.arrays.poll();
+    return array != null ? array : new JSONArray();
+  }
+
+  /**
+   * Give a value back to the pool.  The objects and arrays in the
+   * value, at any depth, are cleared and kept for reuse while there
+   * is room for them.  Other values are ignored.
+   *
+   * @param value a value that is no longer used
+   */
+  public void recycle(Object value) {
+    if (value == null)
+      return;
+    if (value.getClass() == CompactJSONObject.class) {
+      JSONObject object = (JSONObject) value;
+      this.recycleAll(object.values());
+      object.clear();
+      if (this.objects.size() < this.capacity)
+        this.objects.push(object);
+    } else if (value.getClass() == JSONArray.class) {
+      JSONArray array = (JSONArray) value;
+      this.recycleAll(array);
+      array.clear();
+      if (this.arrays.size() < this.capacity)
+        this.arrays.push(array);
+    }
+  }
+
+  private void recycleAll(Collection<Object> values) {
+    for (Object value : values) {
+      if (value instanceof Map<?,?> || value instanceof Collection<?>)
+        this.recycle(value);
+    }
+  }
+
+  /*
+   * Get a member name as a String, reusing the String from the last
+   * time the same name was read if it is still in the table.
+   */
+  String name(CharSequence chars) {
+    int length = chars.length();
+    if (length > MAX_NAME_LENGTH)
+      return chars.toString();
+    int hash = 0;
+    for (int i = 0; i < length; i++)
+      hash = 31 * hash + chars.charAt(i);
+    int slot = (hash ^ (hash >>> 16)) & (NAMES - 1);
+    String name = this.names[slot];
+    if (name != null && name.hashCode() == hash && name.contentEquals(chars))
+      return name;
+    name = chars.toString();
+    this.names[slot] = name;
+    return name;
+  }
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import java.io.IOException;
+
+/**
+ * Interface for objects that know how to write values of a particular
+ * class to a {@link JSONWriter}.
+ *
+ * <p>Serializers are registered with a {@link JSONSerializerRegistry}
+ * and looked up by the class of the value being written.  An
+ * implementation must write exactly one complete JSON value, using
+ * {@link JSONWriter#write(Object)} for nested values, {@link
+ * JSONWriter#write(String)} for strings that may need escaping and
+ * {@link JSONWriter#writeRaw(String)} for text that is already valid
+ * JSON.</p>
+ *
+ * @param <T> the class of values handled by the serializer
+ */
+public interface JSONSerializer<T> {
+
+  /**
+   * Write a value as JSON.
+   *
+   * @param writer the JSONWriter to write to
+   * @param value the value to write, never <code>null</code>
+   * @throws IOException If an I/O error occurs
+   */
+  void write(JSONWriter writer, T value) throws IOException;
+
+}
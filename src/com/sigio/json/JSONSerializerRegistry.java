@@ -0,0 +1,273 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A registry of {@link JSONSerializer}s keyed by class.
+ *
+ * <p>Serializer lookups are cached per class with a
+ * <code>ClassValue</code>, so after the first value of a given class
+ * has been written, finding its serializer is a single lookup.  A
+ * serializer registered for a class is also used for its subclasses
+ * and, failing that, a serializer registered for an interface is used
+ * for the classes that implement it.  Superclasses are preferred to
+ * interfaces, and nearer interfaces are preferred to those further
+ * up the hierarchy.  Classes with no registered serializer at all
+ * have their <code>toString()</code> method called and the result is
+ * written as a JSON string.</p>
+ *
+ * <p>A new registry comes with serializers for the classes described
+ * in {@link JSONWriter#write(Object)} as well as for
+ * <code>java.time.Instant</code> and <code>java.util.UUID</code>,
+ * which are written as ISO-8601 and canonical UUID strings
+ * respectively.  Additional serializers for some common value
+ * classes are provided as constants of this class and must be
+ * registered explicitly.</p>
+ *
+ * <p>Registries are safe for use by multiple threads.  Registering a
+ * serializer discards the cached lookups, so registration is
+ * expected to happen during setup rather than while writing.</p>
+ */
+public class JSONSerializerRegistry {
+
+  /**
+   * Serializer that writes a <code>byte[]</code> as a JSON string
+   * containing its Base64 encoding (RFC4648, no line breaks).
+   */
+  public static final JSONSerializer<byte[]> BYTE_ARRAY_BASE64 = (writer, value) -> {
+    writer.writeQuoted(Base64.getEncoder().encodeToString(value));
+  };
+
+  /**
+   * Serializer that writes a <code>BigDecimal</code> as a JSON number
+   * without an exponent field.
+   */
+  public static final JSONSerializer<BigDecimal> BIG_DECIMAL_PLAIN = (writer, value) -> {
+    writer.writeRaw(value.toPlainString());
+  };
+
+  /**
+   * Serializer that writes an <code>Instant</code> as a JSON string
+   * in ISO-8601 format.
+   */
+  public static final JSONSerializer<Instant> INSTANT = (writer, value) -> {
+    writer.writeQuoted(value.toString());
+  };
+
+  /**
+   * Serializer that writes an <code>Instant</code> as a JSON number
+   * of milliseconds since the epoch.
+   */
+  public static final JSONSerializer<Instant> INSTANT_EPOCH_MILLIS = (writer, value) -> {
+    writer.writeRaw(Long.toString(value.toEpochMilli()));
+  };
+
+  /**
+   * Serializer that writes a <code>UUID</code> as a JSON string in
+   * its canonical form.
+   */
+  public static final JSONSerializer<UUID> UUID_STRING = (writer, value) -> {
+    writer.writeQuoted(value.toString());
+  };
+
+  /*
+   * The serializers for the classes that JSONWriter has always
+   * known how to write.  MAP and COLLECTION are package-private so
+   * that ParallelJSONWriter can tell when it may split a value.
+   */
+  private static final JSONSerializer<JSONLiteral> LITERAL = (writer, value) -> {
+    writer.writeRaw(value.value());
+  };
+
+  private static final JSONSerializer<Boolean> BOOLEAN = (writer, value) -> {
+    if (value.booleanValue())
+      writer.writeRaw(JSONLiteral.TRUE.value());
+    else
+      writer.writeRaw(JSONLiteral.FALSE.value());
+  };
+
+  static final JSONSerializer<Map<?,?>> MAP = (writer, map) -> {
+    int count = 0;
+    writer.writeRaw(JSON.BEGIN_OBJECT);
+    for (Map.Entry<?,?> entry : map.entrySet()) {
+      if (count++ > 0) writer.writeRaw(JSON.VALUE_SEPARATOR);
+      writer.write(entry.getKey());
+      writer.writeRaw(JSON.NAME_SEPARATOR);
+      writer.write(entry.getValue());
+    }
+    writer.writeRaw(JSON.END_OBJECT);
+  };
+
+  static final JSONSerializer<Collection<?>> COLLECTION = (writer, collection) -> {
+    int count = 0;
+    writer.writeRaw(JSON.BEGIN_ARRAY);
+    for (Object obj : collection) {
+      if (count++ > 0) writer.writeRaw(JSON.VALUE_SEPARATOR);
+      writer.write(obj);
+    }
+    writer.writeRaw(JSON.END_ARRAY);
+  };
+
+  private static final JSONSerializer<String> STRING = (writer, value) -> {
+    writer.write(value);
+  };
+
+  private static final JSONSerializer<JSONStringSlice> STRING_SLICE = (writer, value) -> {
+    writer.writeSlice(value);
+  };
+
+  private static final JSONSerializer<Number> NUMBER = (writer, value) -> {
+    writer.writeRaw(value.toString());
+  };
+
+  private static final JSONSerializer<Object> TO_STRING = (writer, value) -> {
+    writer.write(value.toString());
+  };
+
+  private static final JSONSerializerRegistry defaultRegistry = new JSONSerializerRegistry();
+
+  // Registered serializers, guarded by this.
+  private final Map<Class<?>, JSONSerializer<?>> serializers = new HashMap<Class<?>, JSONSerializer<?>>();
+
+  // Cache of resolved lookups, replaced whenever the registry changes.
+  private volatile ClassValue<JSONSerializer<Object>> cache = this.newCache();
+
+  /**
+   * Construct a registry with the standard serializers.
+   */
+  public JSONSerializerRegistry() {
+    this.serializers.put(JSONLiteral.class, LITERAL);
+    this.serializers.put(Boolean.class, BOOLEAN);
+    this.serializers.put(Map.class, MAP);
+    this.serializers.put(Collection.class, COLLECTION);
+    this.serializers.put(String.class, STRING);
+    this.serializers.put(JSONStringSlice.class, STRING_SLICE);
+    this.serializers.put(Number.class, NUMBER);
+    this.serializers.put(Instant.class, INSTANT);
+    this.serializers.put(UUID.class, UUID_STRING);
+    this.serializers.put(Object.class, TO_STRING);
+  }
+
+  /**
+   * Get the registry used by JSONWriters that were not constructed
+   * with a registry of their own.  Serializers registered here
+   * affect all such writers.
+   *
+   * @return the shared default registry
+   */
+  public static JSONSerializerRegistry getDefault() {
+    return defaultRegistry;
+  }
+
+  /**
+   * Register a serializer for a class, replacing any serializer
+   * previously registered for exactly that class.
+   *
+   * @param <T> the class of values handled by the serializer
+   * @param k the class, interface or array class to register
+   * @param serializer the serializer to use for values of the class
+   * @throws NullPointerException if either argument is <code>null</code>
+   */
+  public synchronized <T> void register(Class<T> k, JSONSerializer<? super T> serializer) {
+    if (k == null || serializer == null)
+      throw new NullPointerException();
+    this.serializers.put(k, serializer);
+    this.cache = this.newCache();
+  }
+
+  /**
+   * Remove the serializer registered for exactly the specified
+   * class.  Values of the class will then be written with the
+   * serializer registered for its nearest superclass or interface.
+   *
+   * @param k the class whose serializer is to be removed
+   * @return the serializer that was removed, or <code>null</code>
+   * if none was registered
+   */
+  public synchronized JSONSerializer<?> unregister(Class<?> k) {
+    JSONSerializer<?> removed = this.serializers.remove(k);
+    if (removed != null)
+      this.cache = this.newCache();
+    return removed;
+  }
+
+  /**
+   * Get the serializer that will be used to write values of a class.
+   *
+   * @param k the class of the value to write
+   * @return the serializer for the class, never <code>null</code>
+   */
+  public JSONSerializer<Object> serializerFor(Class<?> k) {
+    return this.cache.get(k);
+  }
+
+  /*
+   * Create a fresh lookup cache for the current registrations.
+   */
+  private ClassValue<JSONSerializer<Object>> newCache() {
+    return new ClassValue<JSONSerializer<Object>>() {
+      @Override
+      protected JSONSerializer<Object> computeValue(Class<?> k) {
+        return JSONSerializerRegistry.this.resolve(k);
+      }
+    };
+  }
+
+  /*
+   * Find the most specific registered serializer for a class:
+   * superclasses first, then interfaces breadth first, and finally
+   * the serializer registered for Object.
+   */
+  @SuppressWarnings("unchecked")
+  private synchronized JSONSerializer<Object> resolve(Class<?> k) {
+    for (Class<?> c = k; c != null && c != Object.class; c = c.getSuperclass()) {
+      JSONSerializer<?> s = this.serializers.get(c);
+      if (s != null)
+        return (JSONSerializer<Object>) s;
+    }
+    Deque<Class<?>> queue = new ArrayDeque<Class<?>>();
+    for (Class<?> c = k; c != null; c = c.getSuperclass()) {
+      for (Class<?> i : c.getInterfaces())
+        queue.add(i);
+    }
+    while (!queue.isEmpty()) {
+      Class<?> i = queue.remove();
+      JSONSerializer<?> s = this.serializers.get(i);
+      if (s != null)
+        return (JSONSerializer<Object>) s;
+      for (Class<?> j : i.getInterfaces())
+        queue.add(j);
+    }
+    JSONSerializer<?> s = this.serializers.get(Object.class);
+    if (s == null)
+      s = TO_STRING;
+    return (JSONSerializer<Object>) s;
+  }
+
+}
@@ -0,0 +1,513 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Reads JSON text one token at a time.
+ *
+ * <p>Where {@link JSONReader#readValue()} builds a whole value at
+ * once, a JSONStreamReader lets the caller walk through the structure
+ * of the input, build only the values it wants, and read large string
+ * values in pieces.  For example, to copy the decoded bytes of the
+ * <code>data</code> member of an object to a file without holding
+ * them in memory:</p>
+ *
+ * <pre>
+ * JSONStreamReader reader = new JSONStreamReader(in);
+ * reader.beginObject();
+ * while (reader.hasNext()) {
+ *   if (reader.nextName().equals("data"))
+ *     reader.nextBase64(out);
+ *   else
+ *     reader.skipValue();
+ * }
+ * reader.endObject();
+ * </pre>
+ *
+ * <p>Several values in a row at the top level are read one after the
+ * other, as in NDJSON.  A Reader returned by {@link
+ * #nextStringReader()} must be read to the end or closed before the
+ * next token is read; reading the next token closes it if it has not
+ * been.</p>
+ */
+public class JSONStreamReader implements Closeable {
+
+  // Contexts on the stack.
+  private static final int TOP = 0;
+  private static final int EMPTY_ARRAY = 1;
+  private static final int NONEMPTY_ARRAY = 2;
+  private static final int EMPTY_OBJECT = 3;
+  private static final int DANGLING_NAME = 4;
+  private static final int NONEMPTY_OBJECT = 5;
+
+  private final JSONReader in;
+  private int[] stack = new int[32];
+  private int depth = 1;
+  // The next token if it has been peeked at.  The input is left at
+  // the token's first character.
+  private JSONToken peeked = null;
+  // A string being read through nextStringReader.
+  private ValueReader open = null;
+
+  /**
+   * Create a stream reader over JSON text.
+   *
+   * @param in the text to read; a JSONReader is used as it is, so
+   * that its options apply to the values read
+   */
+  public JSONStreamReader(Reader in) {
+    this.in = in instanceof JSONReader ? (JSONReader) in : new JSONReader(in);
+    this.stack[0] = TOP;
+  }
+
+  /**
+   * Get the kind of the next token without reading it.
+   *
+   * @return the next token
+   * @throws IOException if a read error occurs
+   * @throws JSONException if the input is not properly formed JSON
+   */
+  public JSONToken peek() throws IOException, JSONException {
+    if (this.open != null)
+      this.open.close();
+    if (this.peeked != null)
+      return this.peeked;
+    int c;
+    switch (this.stack[this.depth - 1]) {
+    case TOP:
+      c = this.in.skipWSRead();
+      if (c == -1)
+        return this.peeked = JSONToken.END_DOCUMENT;
+      return this.peeked = this.valueToken(c);
+    case EMPTY_ARRAY:
+      c = this.in.skipWSRead();
+      if (c == JSON.END_ARRAY)
+        return this.peeked = this.unread(c, JSONToken.END_ARRAY);
+      this.stack[this.depth - 1] = NONEMPTY_ARRAY;
+      return this.peeked = this.valueToken(c);
+    case NONEMPTY_ARRAY:
+      c = this.in.skipWSRead();
+      if (c == JSON.END_ARRAY)
+        return this.peeked = this.unread(c, JSONToken.END_ARRAY);
+      if (c != JSON.VALUE_SEPARATOR)
+        throw this.unexpected(c, JSONToken.END_ARRAY);
+      return this.peeked = this.valueToken(this.in.skipWSRead());
+    case EMPTY_OBJECT:
+    case NONEMPTY_OBJECT:
+      c = this.in.skipWSRead();
+      if (c == JSON.END_OBJECT)
+        return this.peeked = this.unread(c, JSONToken.END_OBJECT);
+      if (this.stack[this.depth - 1] == NONEMPTY_OBJECT) {
+        if (c != JSON.VALUE_SEPARATOR)
+          throw this.unexpected(c, JSONToken.END_OBJECT);
+        c = this.in.skipWSRead();
+      }
+      if (c != JSON.QUOTE_CHAR)
+        throw this.unexpected(c, JSONToken.NAME);
+      return this.peeked = this.unread(c, JSONToken.NAME);
+    default:
+      return this.peeked = this.valueToken(this.in.skipWSRead());
+    }
+  }
+
+  /**
+   * Check whether the current array or object has another element or
+   * member, or at the top level, whether there is another value.
+   *
+   * @return <code>true</code> if there is another
+   * @throws IOException if a read error occurs
+   * @throws JSONException if the input is not properly formed JSON
+   */
+  public boolean hasNext() throws IOException, JSONException {
+    JSONToken token = this.peek();
+    return token != JSONToken.END_ARRAY && token != JSONToken.END_OBJECT && token != JSONToken.END_DOCUMENT;
+  }
+
+  /**
+   * Read the start of an array.
+   *
+   * @throws IOException if a read error occurs
+   * @throws JSONException if the next token is not the start of an
+   * array or the input is not properly formed JSON
+   */
+  public void beginArray() throws IOException, JSONException {
+    this.expect(JSONToken.BEGIN_ARRAY);
+    this.in.read();
+    this.push(EMPTY_ARRAY);
+  }
+
+  /**
+   * Read the end of an array.
+   *
+   * @throws IOException if a read error occurs
+   * @throws JSONException if the next token is not the end of an
+   * array or the input is not properly formed JSON
+   */
+  public void endArray() throws IOException, JSONException {
+    this.expect(JSONToken.END_ARRAY);
+    this.in.read();
+    this.depth--;
+    this.afterValue();
+  }
+
+  /**
+   * Read the start of an object.
+   *
+   * @throws IOException if a read error occurs
+   * @throws JSONException if the next token is not the start of an
+   * object or the input is not properly formed JSON
+   */
+  public void beginObject() throws IOException, JSONException {
+    this.expect(JSONToken.BEGIN_OBJECT);
+    this.in.read();
+    this.push(EMPTY_OBJECT);
+  }
+
+  /**
+   * Read the end of an object.
+   *
+   * @throws IOException if a read error occurs
+   * @throws JSONException if the next token is not the end of an
+   * object or the input is not properly formed JSON
+   */
+  public void endObject() throws IOException, JSONException {
+    this.expect(JSONToken.END_OBJECT);
+    this.in.read();
+    this.depth--;
+    this.afterValue();
+  }
+
+  /**
+   * Read the name of the next member of an object.
+   *
+   * @return the name
+   * @throws IOException if a read error occurs
+   * @throws JSONException if the next token is not a name or the
+   * input is not properly formed JSON
+   */
+  public String nextName() throws IOException, JSONException {
+    this.expect(JSONToken.NAME);
+    this.in.read();
+    String name = this.in.readString();
+    int c = this.in.skipWSRead();
+    if (c != JSON.NAME_SEPARATOR)
+      throw this.unexpected(c, String.valueOf((char) JSON.NAME_SEPARATOR));
+    this.stack[this.depth - 1] = DANGLING_NAME;
+    return name;
+  }
+
+  /**
+   * Read a string value.
+   *
+   * @return the string
+   * @throws IOException if a read error occurs
+   * @throws JSONException if the next token is not a string or the
+   * input is not properly formed JSON
+   */
+  public String nextString() throws IOException, JSONException {
+    this.expect(JSONToken.STRING);
+    this.in.read();
+    String s = this.in.readString();
+    this.afterValue();
+    return s;
+  }
+
+  /**
+   * Read a number value.  The class of the number is chosen as by
+   * {@link JSONReader#readValue()}.
+   *
+   * @return the number
+   * @throws IOException if a read error occurs
+   * @throws JSONException if the next token is not a number or the
+   * input is not properly formed JSON
+   */
+  public Number nextNumber() throws IOException, JSONException {
+    this.expect(JSONToken.NUMBER);
+    Object value = this.in.readValue();
+    this.afterValue();
+    return (Number) value;
+  }
+
+  /**
+   * Read a <code>true</code> or <code>false</code> value.
+   *
+   * @return the value
+   * @throws IOException if a read error occurs
+   * @throws JSONException if the next token is not a boolean or the
+   * input is not properly formed JSON
+   */
+  public boolean nextBoolean() throws IOException, JSONException {
+    this.expect(JSONToken.BOOLEAN);
+    Object value = this.in.readValue();
+    this.afterValue();
+    return value == JSONLiteral.TRUE;
+  }
+
+  /**
+   * Read a <code>null</code> value.
+   *
+   * @throws IOException if a read error occurs
+   * @throws JSONException if the next token is not null or the input
+   * is not properly formed JSON
+   */
+  public void nextNull() throws IOException, JSONException {
+    this.expect(JSONToken.NULL);
+    this.in.readValue();
+    this.afterValue();
+  }
+
+  /**
+   * Read a whole value of any kind, as by {@link
+   * JSONReader#readValue()}.
+   *
+   * @return the value
+   * @throws IOException if a read error occurs
+   * @throws JSONException if the next token does not start a value
+   * or the input is not properly formed JSON
+   */
+  public Object nextValue() throws IOException, JSONException {
+    this.expectValue();
+    Object value = this.in.readValue();
+    this.afterValue();
+    return value;
+  }
+
+  /**
+   * Read past a whole value of any kind without building it.
+   *
+   * @throws IOException if a read error occurs
+   * @throws JSONException if the next token does not start a value
+   * or the input is not properly formed JSON
+   */
+  public void skipValue() throws IOException, JSONException {
+    this.expectValue();
+    this.in.skipValue();
+    this.afterValue();
+  }
+
+  /**
+   * Read a string value as a stream of characters.  The characters
+   * are decoded from the input as the returned Reader is read, so a
+   * string of any length can be read in constant memory.  A syntax
+   * error inside the string is thrown by the Reader as an
+   * IOException whose cause is the JSONException.
+   *
+   * @return a Reader of the characters of the string
+   * @throws IOException if a read error occurs
+   * @throws JSONException if the next token is not a string or the
+   * input is not properly formed JSON
+   */
+  public Reader nextStringReader() throws IOException, JSONException {
+    this.expect(JSONToken.STRING);
+    this.in.read();
+    this.open = new ValueReader();
+    return this.open;
+  }
+
+  /**
+   * Read a string value holding base64 text (RFC 4648) and write the
+   * bytes it encodes to a stream, decoding as it goes so that values
+   * of any length are copied in constant memory.
+   *
+   * @param out the stream to write the bytes to; it is not closed
+   * @return the number of bytes written
+   * @throws IOException if a read or write error occurs, or the
+   * string is not valid base64
+   * @throws JSONException if the next token is not a string or the
+   * input is not properly formed JSON
+   */
+  public long nextBase64(OutputStream out) throws IOException, JSONException {
+    ValueReader chars = (ValueReader) this.nextStringReader();
+    InputStream bytes = Base64.getDecoder().wrap(new AsciiInputStream(chars));
+    byte[] buf = new byte[8192];
+    long total = 0;
+    int n;
+    while ((n = bytes.read(buf, 0, buf.length)) >= 0) {
+      out.write(buf, 0, n);
+      total += n;
+    }
+    chars.close();
+    return total;
+  }
+
+  /**
+   * Close the underlying input.
+   *
+   * @throws IOException if an I/O error occurs
+   */
+  @Override
+  public void close() throws IOException {
+    this.in.close();
+  }
+
+  /*
+   * Identify the token started by a character, leaving the character
+   * to be read again.
+   */
+  private JSONToken valueToken(int c) throws IOException, JSONException {
+    switch (c) {
+    case JSON.BEGIN_OBJECT:
+      return this.unread(c, JSONToken.BEGIN_OBJECT);
+    case JSON.BEGIN_ARRAY:
+      return this.unread(c, JSONToken.BEGIN_ARRAY);
+    case JSON.QUOTE_CHAR:
+      return this.unread(c, JSONToken.STRING);
+    case 't':
+    case 'f':
+      return this.unread(c, JSONToken.BOOLEAN);
+    case 'n':
+      return this.unread(c, JSONToken.NULL);
+    default:
+      if (c == '-' || (c >= '0' && c <= '9'))
+        return this.unread(c, JSONToken.NUMBER);
+      throw this.unexpected(c, "value");
+    }
+  }
+
+  /*
+   * The error for an unexpected character: the input ended before a
+   * container was closed, or the character is not allowed here.
+   */
+  private JSONException unexpected(int c, Object expected) {
+    if (c == -1)
+      return this.in.syntaxException(JSONSyntaxException.UNEXPECTED_TOKEN, expected, JSONToken.END_DOCUMENT);
+    return this.in.syntaxException(JSONSyntaxException.ILLEGAL_CHARACTER, (char) c);
+  }
+
+  private JSONToken unread(int c, JSONToken token) throws IOException {
+    this.in.unread(c);
+    return token;
+  }
+
+  private void expect(JSONToken token) throws IOException, JSONException {
+    JSONToken next = this.peek();
+    if (next != token)
+      throw this.in.syntaxException(JSONSyntaxException.UNEXPECTED_TOKEN, token, next);
+    this.peeked = null;
+  }
+
+  private void expectValue() throws IOException, JSONException {
+    JSONToken next = this.peek();
+    switch (next) {
+    case END_ARRAY:
+    case END_OBJECT:
+    case NAME:
+    case END_DOCUMENT:
+      throw this.in.syntaxException(JSONSyntaxException.UNEXPECTED_TOKEN, "value", next);
+    default:
+      this.peeked = null;
+    }
+  }
+
+  private void push(int context) {
+    if (this.depth == this.stack.length)
+      this.stack = Arrays.copyOf(this.stack, this.depth * 2);
+    this.stack[this.depth++] = context;
+  }
+
+  /*
+   * Note that a value has been read in the current context.
+   */
+  private void afterValue() {
+    if (this.stack[this.depth - 1] == DANGLING_NAME)
+      this.stack[this.depth - 1] = NONEMPTY_OBJECT;
+  }
+
+  /*
+   * The characters of a string value, decoded as they are read.
+   */
+  private class ValueReader extends Reader {
+    private boolean done = false;
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+      if (this.done)
+        return -1;
+      int n = 0;
+      while (n < len) {
+        int c = this.next();
+        if (c < 0)
+          break;
+        cbuf[off + n++] = (char) c;
+      }
+      return n == 0 && len > 0 ? -1 : n;
+    }
+
+    @Override
+    public void close() throws IOException {
+      while (!this.done)
+        this.next();
+    }
+
+    private int next() throws IOException {
+      int c;
+      try {
+        c = JSONStreamReader.this.in.readStringChar();
+      } catch (JSONException e) {
+        throw new IOException(e);
+      }
+      if (c < 0) {
+        this.done = true;
+        if (JSONStreamReader.this.open == this) {
+          JSONStreamReader.this.open = null;
+          JSONStreamReader.this.afterValue();
+        }
+      }
+      return c;
+    }
+  }
+
+  /*
+   * The characters of a Reader as bytes, for the base64 decoder.
+   * Characters outside ASCII become bytes the decoder rejects.
+   */
+  private static class AsciiInputStream extends InputStream {
+    private final Reader in;
+    private final char[] buf = new char[8192];
+
+    AsciiInputStream(Reader in) {
+      this.in = in;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int c = this.in.read();
+      return c < 0 ? -1 : (c < 0x80 ? c : '?');
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n = this.in.read(this.buf, 0, Math.min(len, this.buf.length));
+      for (int i = 0; i < n; i++) {
+        char c = this.buf[i];
+        b[off + i] = (byte) (c < 0x80 ? c : '?');
+      }
+      return n;
+    }
+  }
+
+}
@@ -18,6 +18,8 @@
  */
 package com.sigio.json;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.text.Normalizer;
 
 /**
@@ -33,16 +35,20 @@ class JSONStringAdapter {
   private static char[] ff_seq = { JSON.ESCAPE_CHAR, 'f' };
   private static char[] cr_seq = { JSON.ESCAPE_CHAR, 'r' };
   private static char[] solidus_seq = { JSON.ESCAPE_CHAR, '/' };
+  private static char[] escape_seq = { JSON.ESCAPE_CHAR, JSON.ESCAPE_CHAR };
 
   /**
    * Converts content of a java.lang.String to a format suitable for
    * JSON.
    */
   static String toJSONString(String str) {
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = new StringBuilder(str.length() + 2);
+
+    // Surround the string with quotes:
+    sb.append((char) JSON.QUOTE_CHAR);
 
     for (int i = 0; i < str.length(); i++) {
-      int c = str.codePointAt(i);
+      char c = str.charAt(i);
       switch (c) {
       case 0x0008:
         sb.append(JSONStringAdapter.backspace_seq);
@@ -63,28 +69,94 @@ class JSONStringAdapter {
         sb.append(JSONStringAdapter.solidus_seq);
         break;
       case 0x005C:
-        sb.append(JSON.ESCAPE_CHAR);
+        sb.append(JSONStringAdapter.escape_seq);
         break;
       case JSON.QUOTE_CHAR:
         sb.append(JSONStringAdapter.quote_seq);
         break;
       default:
         if (c >= 0x0020)
-          sb.append((char) c);
+          sb.append(c);
+        else
+          sb.append(String.format("\\u%04x", (int) c));
         break;  
       }
     }
 
-    // Surround the string with quotes:
-    sb.insert(0, JSON.QUOTE_CHAR);
-    sb.append(JSON.QUOTE_CHAR);
+    sb.append((char) JSON.QUOTE_CHAR);
 
     // Canonical Decomposition of Unicode (NFD).
-    String string = Normalizer.normalize(sb.toString(), Normalizer.Form.NFD);
+    String string = Normalizer.normalize(sb, Normalizer.Form.NFD);
 
     return string;
   }
 
+  /**
+   * Writes characters with the same escaping as toJSONString, but
+   * without quotes or normalization, so that a long string can be
+   * written a piece at a time.  Runs of characters that need no
+   * escaping are written in one call.
+   */
+  static void writeEscaped(Writer out, char[] buf, int off, int len) throws IOException {
+    int end = off + len;
+    int run = off;
+    for (int i = off; i < end; i++) {
+      char c = buf[i];
+      if (c >= 0x0020 && c != JSON.QUOTE_CHAR && c != JSON.ESCAPE_CHAR && c != '/')
+        continue;
+      if (i > run)
+        out.write(buf, run, i - run);
+      run = i + 1;
+      switch (c) {
+      case 0x0008:
+        out.write(JSONStringAdapter.backspace_seq);
+        break;
+      case 0x0009:
+        out.write(JSONStringAdapter.tab_seq);
+        break;
+      case 0x000A:
+        out.write(JSONStringAdapter.nl_seq);
+        break;
+      case 0x000C:
+        out.write(JSONStringAdapter.ff_seq);
+        break;
+      case 0x000D:
+        out.write(JSONStringAdapter.cr_seq);
+        break;
+      case 0x002F:
+        out.write(JSONStringAdapter.solidus_seq);
+        break;
+      case 0x005C:
+        out.write(JSONStringAdapter.escape_seq);
+        break;
+      case JSON.QUOTE_CHAR:
+        out.write(JSONStringAdapter.quote_seq);
+        break;
+      default:
+        out.write(String.format("\\u%04x", (int) c));
+        break;
+      }
+    }
+    if (end > run)
+      out.write(buf, run, end - run);
+  }
+
+  /**
+   * Writes a String with the same escaping as writeEscaped.
+   */
+  static void writeEscaped(Writer out, String str) throws IOException {
+    int len = str.length();
+    for (int i = 0; i < len; i++) {
+      char c = str.charAt(i);
+      if (c < 0x0020 || c == JSON.QUOTE_CHAR || c == JSON.ESCAPE_CHAR || c == '/') {
+        char[] buf = str.toCharArray();
+        JSONStringAdapter.writeEscaped(out, buf, 0, len);
+        return;
+      }
+    }
+    out.write(str);
+  }
+
   // Private constructor, because we don't ever need one.
   private JSONStringAdapter() { super(); }
 }
@@ -0,0 +1,194 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+/**
+ * A JSON string value that refers to the characters of the text it
+ * was parsed from instead of holding a copy of them.
+ *
+ * <p>A {@link JSONReader} constructed over a character array returns
+ * these for string values that contain no escape sequences when
+ * {@link JSONReader#setZeroCopyStrings(boolean)} is on.  A slice only
+ * copies its characters when {@link #toString()} is first called, and
+ * a {@link JSONWriter} writes a slice of plain ASCII text straight
+ * from the array.</p>
+ *
+ * <p>A slice keeps the whole array it was parsed from reachable, and
+ * it sees any later change to the array's contents.  Slices are equal
+ * to other slices with the same characters and have the same hash
+ * code as the equivalent String, but are never equal to a String; use
+ * {@link #contentEquals(CharSequence)} to compare with one.</p>
+ */
+public final class JSONStringSlice implements CharSequence {
+
+  private final char[] buffer;
+  private final int offset;
+  private final int length;
+  private String string;
+  private int hash;
+
+  /**
+   * Construct a slice of a character array.
+   *
+   * @param buffer the array holding the characters
+   * @param offset the index of the first character
+   * @param length the number of characters
+   * @throws IndexOutOfBoundsException if the range is not within the
+   * array
+   */
+  public JSONStringSlice(char[] buffer, int offset, int length) {
+    if (offset < 0 || length < 0 || offset > buffer.length - length)
+      throw new IndexOutOfBoundsException();
+    this.buffer = buffer;
+    this.offset = offset;
+    this.length = length;
+  }
+
+  /**
+   * Get the number of characters in the slice.
+   *
+   * @return the length
+   */
+  @Override
+  public int length() {
+    return this.length;
+  }
+
+  /**
+   * Get a character of the slice.
+   *
+   * @param index the index of the character
+   * @return the character
+   * @throws IndexOutOfBoundsException if the index is not within the
+   * slice
+   */
+  @Override
+  public char charAt(int index) {
+    if (index < 0 || index >= this.length)
+      throw new IndexOutOfBoundsException(String.valueOf(index));
+    return this.buffer[this.offset + index];
+  }
+
+  /**
+   * Get a slice of this slice, sharing the same array.
+   *
+   * @param start the index of the first character
+   * @param end the index after the last character
+   * @return the slice
+   * @throws IndexOutOfBoundsException if the range is not within the
+   * slice
+   */
+  @Override
+  public JSONStringSlice subSequence(int start, int end) {
+    if (start < 0 || end > this.length || start > end)
+      throw new IndexOutOfBoundsException();
+    return new JSONStringSlice(this.buffer, this.offset + start, end - start);
+  }
+
+  /**
+   * Get the characters of the slice as a String.  The String is made
+   * on the first call and kept.
+   *
+   * @return the String
+   */
+  @Override
+  public String toString() {
+    String s = this.string;
+    if (s == null) {
+      s = new String(this.buffer, this.offset, this.length);
+      this.string = s;
+    }
+    return s;
+  }
+
+  /**
+   * Check whether the slice has the same characters as a
+   * CharSequence.
+   *
+   * @param cs the characters to compare with
+   * @return <code>true</code> if the characters are the same
+   */
+  public boolean contentEquals(CharSequence cs) {
+    if (cs.length() != this.length)
+      return false;
+    for (int i = 0; i < this.length; i++) {
+      if (cs.charAt(i) != this.buffer[this.offset + i])
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Check whether another object is a slice with the same
+   * characters.
+   *
+   * @param o the object to compare with
+   * @return <code>true</code> if it is equal
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (o == this)
+      return true;
+    if (!(o instanceof JSONStringSlice))
+      return false;
+    return this.contentEquals((JSONStringSlice) o);
+  }
+
+  /**
+   * Get the hash code, which is that of the equivalent String.
+   *
+   * @return the hash code
+   */
+  @Override
+  public int hashCode() {
+    int h = this.hash;
+    if (h == 0) {
+      for (int i = 0; i < this.length; i++)
+        h = 31 * h + this.buffer[this.offset + i];
+      this.hash = h;
+    }
+    return h;
+  }
+
+  /*
+   * Check whether the slice can be written between quotation marks
+   * as it is: printable ASCII other than quotation mark, reverse
+   * solidus and solidus.
+   */
+  boolean isPlain() {
+    for (int i = this.offset, end = this.offset + this.length; i < end; i++) {
+      char c = this.buffer[i];
+      if (c < 0x0020 || c > 0x007E || c == JSON.QUOTE_CHAR || c == JSON.ESCAPE_CHAR || c == '/')
+        return false;
+    }
+    return true;
+  }
+
+  /*
+   * Accessors for JSONWriter.
+   */
+  char[] buffer() {
+    return this.buffer;
+  }
+
+  int offset() {
+    return this.offset;
+  }
+
+}
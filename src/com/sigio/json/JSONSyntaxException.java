@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ResourceBundle;
+
+/**
+ * Exception thrown by {@link JSONReader} when its input is not
+ * properly formed JSON.
+ *
+ * <p>The detail message is not built until it is asked for.  The
+ * exception records the kind of error, as the key of its message in
+ * the package resource bundle, and the character position in the
+ * input where it was detected, so code that only needs to reject
+ * bad input can use {@link #getKey()} and {@link #getIndex()} as a
+ * result code without any formatting taking place.  A JSONReader in
+ * lightweight mode also creates these exceptions without a stack
+ * trace.</p>
+ */
+public class JSONSyntaxException extends JSONException {
+
+  /** Key of the error for an unterminated string. */
+  public static final String UNTERMINATED_STRING = "UNTERMINATED_STRING";
+  /** Key of the error for a character that is not allowed. */
+  public static final String ILLEGAL_CHARACTER = "ILLEGAL_CHARACTER";
+  /** Key of the error for an invalid escape sequence in a string. */
+  public static final String INVALID_ESCAPE = "INVALID_ESCAPE";
+  /** Key of the error for an invalid literal value. */
+  public static final String INVALID_LITERAL = "INVALID_LITERAL";
+  /** Key of the error for a number that cannot be represented. */
+  public static final String INVALID_NUMBER = "INVALID_NUMBER";
+  /** Key of the error for a token other than the one expected. */
+  public static final String UNEXPECTED_TOKEN = "UNEXPECTED_TOKEN";
+
+  private final String key;
+  private final transient Object[] arguments;
+  private final int index;
+  private String message = null;
+
+  /**
+   * Constructs a new exception.
+   *
+   * @param key resource bundle key of the message describing the error
+   * @param index character position in the input of the error
+   * @param stackTrace <code>false</code> to skip capturing a stack
+   * trace
+   * @param arguments arguments for the message format
+   */
+  JSONSyntaxException(String key, int index, boolean stackTrace, Object... arguments) {
+    super(null, null, stackTrace, stackTrace);
+    this.key = key;
+    this.index = index;
+    this.arguments = arguments;
+  }
+
+  /**
+   * Get the resource bundle key that identifies the kind of error.
+   * This is one of the key constants of this class.
+   *
+   * @return the key of the error
+   */
+  public String getKey() {
+    return this.key;
+  }
+
+  /**
+   * Get the position in the input at which the error was detected.
+   *
+   * @return the character index of the error
+   */
+  public int getIndex() {
+    return this.index;
+  }
+
+  /**
+   * Returns the detail message, formatting it from the package
+   * resource bundle the first time it is called.
+   *
+   * @return the detail message
+   */
+  @Override
+  public String getMessage() {
+    if (this.message == null) {
+      ResourceBundle bundle = com.sigio.json.BundleLoader.getBundle();
+      String text = String.format(bundle.getString(this.key), this.arguments);
+      String location = String.format(bundle.getString("AT"), this.index);
+      this.message = text + " " + location;
+    }
+    return this.message;
+  }
+
+  /*
+   * The message arguments are not serializable in general, so the
+   * message is formatted before the exception is written.
+   */
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    this.getMessage();
+    out.defaultWriteObject();
+  }
+
+}
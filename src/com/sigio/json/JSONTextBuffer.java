@@ -0,0 +1,90 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/*
+ * An unsynchronized Writer into a growable char array, which a
+ * JSONWriter can serialize into and whose contents can then be
+ * encoded without copying them into a String first.  The array is
+ * kept when the buffer is reset, so a buffer reused for many values
+ * settles at the size of the largest.
+ */
+class JSONTextBuffer extends Writer {
+
+  private char[] chars;
+  private int count = 0;
+
+  JSONTextBuffer(int size) {
+    this.chars = new char[size];
+  }
+
+  void reset() {
+    this.count = 0;
+  }
+
+  int length() {
+    return this.count;
+  }
+
+  /*
+   * A CharBuffer over the contents, valid until the next write.
+   */
+  CharBuffer chars() {
+    return CharBuffer.wrap(this.chars, 0, this.count);
+  }
+
+  @Override
+  public void write(int c) {
+    if (this.count == this.chars.length)
+      this.chars = Arrays.copyOf(this.chars, 2 * this.count);
+    this.chars[this.count++] = (char) c;
+  }
+
+  @Override
+  public void write(char[] buf, int off, int len) {
+    this.ensure(len);
+    System.arraycopy(buf, off, this.chars, this.count, len);
+    this.count += len;
+  }
+
+  @Override
+  public void write(String str, int off, int len) {
+    this.ensure(len);
+    str.getChars(off, off + len, this.chars, this.count);
+    this.count += len;
+  }
+
+  @Override
+  public void flush() {
+  }
+
+  @Override
+  public void close() {
+  }
+
+  private void ensure(int len) {
+    if (this.count + len > this.chars.length)
+      this.chars = Arrays.copyOf(this.chars, Math.max(2 * this.chars.length, this.count + len));
+  }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+/**
+ * The kinds of token returned by {@link JSONStreamReader#peek()}.
+ */
+public enum JSONToken {
+
+  /** The start of an array. */
+  BEGIN_ARRAY,
+  /** The end of an array. */
+  END_ARRAY,
+  /** The start of an object. */
+  BEGIN_OBJECT,
+  /** The end of an object. */
+  END_OBJECT,
+  /** The name of an object member. */
+  NAME,
+  /** A string value. */
+  STRING,
+  /** A number value. */
+  NUMBER,
+  /** A <code>true</code> or <code>false</code> value. */
+  BOOLEAN,
+  /** A <code>null</code> value. */
+  NULL,
+  /** The end of the input. */
+  END_DOCUMENT
+
+}
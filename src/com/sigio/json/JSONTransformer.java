@@ -0,0 +1,311 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Copies JSON from a reader to a writer, changing it on the way,
+ * without building the values in memory.
+ *
+ * <p>A transformer is built up from operations on fields, each named
+ * by a dotted path of member names such as <code>user.password</code>,
+ * and then run over any number of inputs.  A <code>*</code> in a path
+ * matches any member name, and arrays are transparent: a path
+ * continues into every element of an array it meets, so
+ * <code>items.price</code> names the price of each item.  For
+ * example, to strip passwords, rename a field and keep only a few
+ * others:</p>
+ *
+ * <pre>
+ * new JSONTransformer()
+ *   .project("id", "user", "createdAt")
+ *   .delete("user.password")
+ *   .rename("createdAt", "created")
+ *   .transform(in, out);
+ * </pre>
+ *
+ * <p>The input is read token by token with a {@link
+ * JSONStreamReader} and written as it is read.  Strings are streamed
+ * through, and numbers are copied exactly as written, so memory use
+ * does not depend on the size of the input; only the values passed
+ * to {@link #map} are built.  Several values in a row at the top
+ * level, as in NDJSON, are each transformed and written on their own
+ * line.  Output has no insignificant whitespace.</p>
+ */
+public class JSONTransformer {
+
+  private final Node root = new Node();
+  private boolean projecting = false;
+
+  /**
+   * Construct a transformer that copies its input unchanged.
+   */
+  public JSONTransformer() {
+    super();
+  }
+
+  /**
+   * Remove a field.
+   *
+   * @param path dotted path of the field
+   * @return this transformer
+   */
+  public JSONTransformer delete(String path) {
+    this.node(path).delete = true;
+    return this;
+  }
+
+  /**
+   * Give a field a new name, keeping its place and value.
+   *
+   * @param path dotted path of the field
+   * @param name the new member name
+   * @return this transformer
+   */
+  public JSONTransformer rename(String path, String name) {
+    if (name == null)
+      throw new NullPointerException();
+    this.node(path).rename = name;
+    return this;
+  }
+
+  /**
+   * Keep only the given fields, with everything inside them, and the
+   * objects on the way to them.  Several calls add to the fields
+   * kept.  Other operations still apply inside the kept fields.
+   *
+   * @param paths dotted paths of the fields to keep
+   * @return this transformer
+   */
+  public JSONTransformer project(String... paths) {
+    this.root.forget();
+    for (String path : paths) {
+      Node node = this.root;
+      for (String name : JSONTransformer.split(path)) {
+        node = node.child(name);
+        node.onPath = true;
+      }
+      node.keepAll = true;
+    }
+    this.projecting = true;
+    return this;
+  }
+
+  /**
+   * Replace the value of a field with the result of a function.  The
+   * function is passed the value as built by {@link
+   * JSONReader#readValue()}, with numbers as {@link JSONNumber}s, and
+   * its result is written with {@link JSONWriter#write(Object)}.  If
+   * it returns <code>null</code>, the field is removed.
+   *
+   * @param path dotted path of the field
+   * @param function the function to apply
+   * @return this transformer
+   */
+  public JSONTransformer map(String path, Function<Object, Object> function) {
+    if (function == null)
+      throw new NullPointerException();
+    this.node(path).function = function;
+    return this;
+  }
+
+  /**
+   * Transform every value in the input and write the results.  The
+   * writer is flushed but neither stream is closed.
+   *
+   * @param in JSON text to read
+   * @param out where to write the transformed JSON text
+   * @return the number of top-level values transformed
+   * @throws IOException if a read or write error occurs
+   * @throws JSONException if the input is not properly formed JSON
+   */
+  public long transform(Reader in, Writer out) throws IOException, JSONException {
+    JSONReader source = new JSONReader(in);
+    source.setLazyNumbers(true);
+    JSONStreamReader reader = new JSONStreamReader(source);
+    JSONWriter writer = out instanceof JSONWriter ? (JSONWriter) out : new JSONWriter(out);
+    char[] buf = new char[1024];
+    long count = 0;
+    while (reader.peek() != JSONToken.END_DOCUMENT) {
+      if (count++ > 0)
+        writer.writeRaw('\n');
+      this.copy(reader, writer, buf, this.root, this.projecting);
+    }
+    writer.flush();
+    return count;
+  }
+
+  /*
+   * Copy one value.  The node is the path's position in the value,
+   * or null once the value is off every path, and projecting says
+   * whether members not on a kept path are dropped.
+   */
+  private void copy(JSONStreamReader reader, JSONWriter writer, char[] buf, Node node, boolean projecting) throws IOException, JSONException {
+    switch (reader.peek()) {
+    case BEGIN_OBJECT:
+      reader.beginObject();
+      writer.writeRaw(JSON.BEGIN_OBJECT);
+      boolean first = true;
+      while (reader.hasNext()) {
+        String name = reader.nextName();
+        Node child = node == null ? null : node.lookup(name);
+        if ((child != null && child.delete) || (projecting && (child == null || !child.onPath))) {
+          reader.skipValue();
+          continue;
+        }
+        Object mapped = null;
+        if (child != null && child.function != null) {
+          mapped = child.function.apply(reader.nextValue());
+          if (mapped == null)
+            continue;
+        }
+        if (!first)
+          writer.writeRaw(JSON.VALUE_SEPARATOR);
+        first = false;
+        writer.writeEscaped(child != null && child.rename != null ? child.rename : name);
+        writer.writeRaw(JSON.NAME_SEPARATOR);
+        if (mapped != null)
+          writer.write(mapped);
+        else
+          this.copy(reader, writer, buf, child, projecting && !child.keepAll);
+      }
+      reader.endObject();
+      writer.writeRaw(JSON.END_OBJECT);
+      break;
+    case BEGIN_ARRAY:
+      reader.beginArray();
+      writer.writeRaw(JSON.BEGIN_ARRAY);
+      for (int i = 0; reader.hasNext(); i++) {
+        if (i > 0)
+          writer.writeRaw(JSON.VALUE_SEPARATOR);
+        this.copy(reader, writer, buf, node, projecting);
+      }
+      reader.endArray();
+      writer.writeRaw(JSON.END_ARRAY);
+      break;
+    case STRING:
+      writer.writeString(reader.nextStringReader(), buf);
+      break;
+    default:
+      writer.write(reader.nextValue());
+      break;
+    }
+  }
+
+  private Node node(String path) {
+    this.root.forget();
+    Node node = this.root;
+    for (String name : JSONTransformer.split(path))
+      node = node.child(name);
+    return node;
+  }
+
+  private static String[] split(String path) {
+    if (path == null || path.isEmpty())
+      throw new IllegalArgumentException();
+    return path.split("\\.", -1);
+  }
+
+  /*
+   * A member name in the paths of the operations, with what to do to
+   * the member.  The child named "*" matches any name; for a name
+   * that also has a child of its own, the two are merged so that
+   * both apply, with the named child's rename or function winning.
+   */
+  private static class Node {
+    Map<String, Node> children = null;
+    boolean delete = false;
+    String rename = null;
+    Function<Object, Object> function = null;
+    // On the way to, or at, a projected field.
+    boolean onPath = false;
+    // At a projected field, so everything inside it is kept.
+    boolean keepAll = false;
+    // Named children merged with the "*" child, made on first use.
+    Map<String, Node> merged = null;
+
+    Node child(String name) {
+      if (this.children == null)
+        this.children = new HashMap<String, Node>();
+      Node child = this.children.get(name);
+      if (child == null) {
+        child = new Node();
+        this.children.put(name, child);
+      }
+      return child;
+    }
+
+    Node lookup(String name) {
+      if (this.children == null)
+        return null;
+      Node child = this.children.get(name);
+      Node any = this.children.get("*");
+      if (child == null || any == null || child == any)
+        return child != null ? child : any;
+      if (this.merged == null)
+        this.merged = new HashMap<String, Node>();
+      Node both = this.merged.get(name);
+      if (both == null) {
+        both = Node.merge(child, any);
+        this.merged.put(name, both);
+      }
+      return both;
+    }
+
+    /*
+     * Drop the merged nodes, which are out of date once an operation
+     * is added.
+     */
+    void forget() {
+      this.merged = null;
+      if (this.children != null) {
+        for (Node child : this.children.values())
+          child.forget();
+      }
+    }
+
+    private static Node merge(Node named, Node any) {
+      Node node = new Node();
+      node.delete = named.delete || any.delete;
+      node.rename = named.rename != null ? named.rename : any.rename;
+      node.function = named.function != null ? named.function : any.function;
+      node.onPath = named.onPath || any.onPath;
+      node.keepAll = named.keepAll || any.keepAll;
+      if (named.children != null || any.children != null) {
+        node.children = new HashMap<String, Node>();
+        if (any.children != null)
+          node.children.putAll(any.children);
+        if (named.children != null) {
+          for (Map.Entry<String, Node> entry : named.children.entrySet()) {
+            Node other = node.children.get(entry.getKey());
+            node.children.put(entry.getKey(), other == null ? entry.getValue() : Node.merge(entry.getValue(), other));
+          }
+        }
+      }
+      return node;
+    }
+  }
+
+}
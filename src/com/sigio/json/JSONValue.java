@@ -46,6 +46,22 @@ public enum JSONValue {
 
   private final Class<?> klass;
 
+  // Cached copy of values(), which clones the array on every call.
+  private static final JSONValue[] VALUES = JSONValue.values();
+
+  // Per-class cache of the result of isAssignableFrom.
+  private static final ClassValue<Boolean> VALID = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue(Class<?> k) {
+      for (JSONValue v : JSONValue.VALUES) {
+        if (v.valueClass().isAssignableFrom(k))
+          return Boolean.TRUE;
+      }
+      // Slices of parser input stand in for Strings.
+      return Boolean.valueOf(k == JSONStringSlice.class);
+    }
+  };
+
   /**
    * Our hidden constructor.
    */
@@ -73,18 +89,15 @@ public enum JSONValue {
   }
 
   /**
-   * Check if a Class can be used as a JSON value.
+   * Check if a Class can be used as a JSON value.  The answer is
+   * computed once per class and cached.
    *
    * @param k class to check
    * @return <code>true</code> if the class is a viable JSON value
    * class, <code>false</code> if not
    */
   public static boolean isAssignableFrom(Class<?> k) {
-    for (JSONValue v : JSONValue.values()) {
-      if (v.valueClass().isAssignableFrom(k))
-        return true;
-    }
-    return false;
+    return JSONValue.VALID.get(k).booleanValue();
   }
 
   /**
@@ -95,11 +108,9 @@ public enum JSONValue {
    * <code>false</code> if not
    */
   public static boolean isInstance(Object obj) {
-    for (JSONValue v : JSONValue.values()) {
-      if (v.valueClass().isInstance(obj))
-        return true;
-    }
-    return false;
+    if (obj == null)
+      return false;
+    return JSONValue.VALID.get(obj.getClass()).booleanValue();
   }
 
 }
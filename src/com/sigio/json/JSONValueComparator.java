@@ -0,0 +1,158 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Comparator;
+
+/*
+ * Total ordering of JSON scalar values, used by sorted indexes and by
+ * sorting.  Values of different types are ordered null (missing),
+ * JSON null, false, true, numbers, strings, arrays and then objects;
+ * numbers compare by numeric value regardless of class, and strings
+ * by UTF-16 code units.  Arrays and objects of the same type compare
+ * equal.
+ */
+final class JSONValueComparator implements Comparator<Object> {
+
+  static final JSONValueComparator INSTANCE = new JSONValueComparator();
+
+  // Longest integer normalized exactly.
+  private static final int MAX_INTEGER_DIGITS = 400;
+
+  private JSONValueComparator() {
+    super();
+  }
+
+  @Override
+  public int compare(Object a, Object b) {
+    int ra = JSONValueComparator.rank(a);
+    int rb = JSONValueComparator.rank(b);
+    if (ra != rb)
+      return Integer.compare(ra, rb);
+    if (ra == 4)
+      return JSONValueComparator.compareNumbers((Number) a, (Number) b);
+    if (ra == 5)
+      return a.toString().compareTo(b.toString());
+    return 0;
+  }
+
+  /*
+   * Normalize a value for use as a hash key, so that numbers that
+   * compare equal are also equal as keys.  Integral numbers become
+   * Longs, or exact BigIntegers outside the range of long, and other
+   * numbers Doubles; Booleans become JSON literals.
+   */
+  static Object normalize(Object value) {
+    if (value instanceof Long || value instanceof String)
+      return value;
+    if (value instanceof Number) {
+      if (value instanceof Integer || value instanceof Short || value instanceof Byte)
+        return Long.valueOf(((Number) value).longValue());
+      BigDecimal decimal = null;
+      if (value instanceof BigInteger) {
+        decimal = new BigDecimal((BigInteger) value);
+      } else if (value instanceof JSONNumber) {
+        decimal = ((JSONNumber) value).bigDecimalValue();
+      } else if (value instanceof BigDecimal) {
+        decimal = (BigDecimal) value;
+      } else {
+        double d = ((Number) value).doubleValue();
+        if (d != Math.rint(d) || Double.isInfinite(d))
+          return Double.valueOf(d);
+        decimal = new BigDecimal(d);
+      }
+      if (decimal.signum() == 0)
+        return Long.valueOf(0);
+      decimal = decimal.stripTrailingZeros();
+      // Bound the digits so that 1e999999999 is not written out.
+      if (decimal.scale() <= 0 && decimal.precision() - decimal.scale() <= MAX_INTEGER_DIGITS) {
+        BigInteger integer = decimal.toBigInteger();
+        if (integer.bitLength() < Long.SIZE)
+          return Long.valueOf(integer.longValue());
+        return integer;
+      }
+      return Double.valueOf(decimal.doubleValue());
+    }
+    if (value instanceof Boolean)
+      return ((Boolean) value).booleanValue() ? JSONLiteral.TRUE : JSONLiteral.FALSE;
+    if (value instanceof CharSequence)
+      return value.toString();
+    return value;
+  }
+
+  private static int rank(Object value) {
+    if (value == null)
+      return 0;
+    if (value == JSONLiteral.NULL)
+      return 1;
+    if (value == JSONLiteral.FALSE || Boolean.FALSE.equals(value))
+      return 2;
+    if (value == JSONLiteral.TRUE || Boolean.TRUE.equals(value))
+      return 3;
+    if (value instanceof Number)
+      return 4;
+    if (value instanceof CharSequence)
+      return 5;
+    if (value instanceof java.util.Collection)
+      return 6;
+    return 7;
+  }
+
+  private static int compareNumbers(Number a, Number b) {
+    if (JSONValueComparator.isLong(a) && JSONValueComparator.isLong(b))
+      return Long.compare(a.longValue(), b.longValue());
+    if (a instanceof JSONNumber && b instanceof JSONNumber)
+      return ((JSONNumber) a).compareTo((JSONNumber) b);
+    boolean fa = a instanceof Double || a instanceof Float;
+    boolean fb = b instanceof Double || b instanceof Float;
+    if (!(fa && fb)) {
+      // Compare exactly, so that large longs are not rounded.
+      BigDecimal da = JSONValueComparator.decimal(a);
+      BigDecimal db = JSONValueComparator.decimal(b);
+      if (da != null && db != null)
+        return da.compareTo(db);
+    }
+    return Double.compare(a.doubleValue(), b.doubleValue());
+  }
+
+  /*
+   * The exact value of a number, or null for an infinity or NaN.
+   */
+  private static BigDecimal decimal(Number number) {
+    if (number instanceof BigDecimal)
+      return (BigDecimal) number;
+    if (number instanceof BigInteger)
+      return new BigDecimal((BigInteger) number);
+    if (number instanceof JSONNumber)
+      return ((JSONNumber) number).bigDecimalValue();
+    if (JSONValueComparator.isLong(number))
+      return BigDecimal.valueOf(number.longValue());
+    double d = number.doubleValue();
+    if (Double.isNaN(d) || Double.isInfinite(d))
+      return null;
+    return new BigDecimal(d);
+  }
+
+  private static boolean isLong(Number number) {
+    return number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte;
+  }
+
+}
@@ -18,27 +18,62 @@
  */
 package com.sigio.json;
 
+import com.sigio.io.AsyncChannelWriter;
 import java.io.FilterWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
 import java.io.Writer;
-import java.util.Collection;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Writer class to write certain java objects as JSON value strings.
  */
 public class JSONWriter extends FilterWriter {
 
+  private final JSONSerializerRegistry registry;
+
   /**
-   * Construct a new JSONWriter.
+   * Construct a new JSONWriter that uses the default serializer
+   * registry.
    */
   public JSONWriter(Writer out) {
+    this(out, JSONSerializerRegistry.getDefault());
+  }
+
+  /**
+   * Construct a new JSONWriter that uses the specified serializer
+   * registry.
+   *
+   * @param out the writer to write JSON text to
+   * @param registry the registry used to find serializers for values
+   * @throws NullPointerException if registry is <code>null</code>
+   */
+  public JSONWriter(Writer out, JSONSerializerRegistry registry) {
     super(out);
+    if (registry == null)
+      throw new NullPointerException();
+    this.registry = registry;
   }
 
   /**
-   * Write a java object as a JSON value string.  Classes are
-   * written as follows:
+   * Get the serializer registry used by this writer.
+   *
+   * @return the serializer registry
+   */
+  public JSONSerializerRegistry getSerializerRegistry() {
+    return this.registry;
+  }
+
+  /**
+   * Write a java object as a JSON value string.  The object is
+   * written by the serializer that the writer's {@link
+   * JSONSerializerRegistry} has for its class.  With the standard
+   * serializers, classes are written as follows:
    * 
    * <ul>
    * <li>JSONLiteral, null, and Boolean are written as literal
@@ -53,7 +88,11 @@ public class JSONWriter extends FilterWriter {
    * <li>Instances of Number are written as JSON numbers
    * (i.e. literal string representation of the numeric value).</li>
    *
-   * <li>Instances of String are written as JSON strings.</li>
+   * <li>Instances of String and {@link JSONStringSlice} are written
+   * as JSON strings.</li>
+   *
+   * <li>Instances of java.time.Instant and java.util.UUID are
+   * written as JSON strings in their standard formats.</li>
    *
    * <li>All other classes have their toString() method called and
    * the result is written as a JSON string.</li>
@@ -64,46 +103,132 @@ public class JSONWriter extends FilterWriter {
    * @throws IOException If an I/O error occurs
    */
   public void write(Object o) throws IOException {
-    if (o == null) {
-      super.out.write(JSONLiteral.NULL.toString());
-    } else if (o instanceof JSONLiteral) {
-      JSONLiteral literal = (JSONLiteral) o;
-      super.out.write(literal.toString());
-    } else if (o instanceof Boolean) {
-      Boolean b = (Boolean) o;
-      if (b == Boolean.TRUE)
-        super.out.write(JSONLiteral.TRUE.toString());
-      else
-        super.out.write(JSONLiteral.FALSE.toString());
-    } else if (o instanceof java.util.Map) {
-      Map<?,?> map = (Map<?,?>) o;
-      int count = 0;
-      super.out.write(JSON.BEGIN_OBJECT);
-      for (Object key : map.keySet()) {
-        if (count++ > 0) super.out.write(JSON.VALUE_SEPARATOR);
-        this.write(key);
-        super.out.write(JSON.NAME_SEPARATOR);
-        this.write(map.get(key));
-      }
-      super.out.write(JSON.END_OBJECT);
-    } else if (o instanceof java.util.Collection) {
-      int count = 0;
-      Collection<?> collection = (Collection<?>) o;
-      super.out.write(JSON.BEGIN_ARRAY);
-      for (Object obj : collection) {
-        if (count++ > 0) super.out.write(JSON.VALUE_SEPARATOR);
-        this.write(obj);
+    if (o == null)
+      super.out.write(JSONLiteral.NULL.value());
+    else
+      this.registry.serializerFor(o.getClass()).write(this, o);
+  }
+
+  /**
+   * Write a java object as JSON text to a file without waiting for
+   * the file to be written.  The object is serialized on the calling
+   * thread into a pair of buffers that are written to the file
+   * asynchronously by an {@link AsyncChannelWriter}, so that
+   * serialization and disk I/O overlap.  The file is created if
+   * necessary and truncated if it exists.
+   *
+   * @param o Object to write
+   * @param path the file to write to
+   * @return a future that completes with the number of bytes written
+   * once all of the output is in the file
+   * @throws IOException If the file cannot be opened or an
+   * asynchronous write fails while the object is being serialized
+   */
+  public static CompletableFuture<Long> writeAsync(Object o, Path path) throws IOException {
+    AsyncChannelWriter out = AsyncChannelWriter.open(path);
+    try {
+      JSONWriter writer = new JSONWriter(out);
+      writer.write(o);
+    } catch (IOException | RuntimeException e) {
+      out.closeAsync();
+      throw e;
+    }
+    return out.closeAsync();
+  }
+
+  /**
+   * Writes a single character to the output without any JSON
+   * quoting or escaping.  This is intended for use by {@link
+   * JSONSerializer}s to write structural characters.
+   *
+   * @param c int value of the character to write
+   * @throws IOException If an I/O error occurs
+   */
+  public void writeRaw(int c) throws IOException {
+    super.out.write(c);
+  }
+
+  /**
+   * Writes a string to the output without any JSON quoting or
+   * escaping.  This is intended for use by {@link JSONSerializer}s
+   * to write numbers, literals and other text that is already valid
+   * JSON.
+   *
+   * @param str String to write
+   * @throws IOException If an I/O error occurs
+   */
+  public void writeRaw(String str) throws IOException {
+    super.out.write(str);
+  }
+
+  /**
+   * Writes a string between quotation marks without escaping its
+   * contents.  This is intended for use by {@link JSONSerializer}s
+   * whose output is known to contain only printable ASCII characters
+   * other than quotation mark, reverse solidus and solidus, such as
+   * formatted dates or identifiers.
+   *
+   * @param str String to write
+   * @throws IOException If an I/O error occurs
+   */
+  public void writeQuoted(String str) throws IOException {
+    super.out.write(JSON.QUOTE_CHAR);
+    super.out.write(str);
+    super.out.write(JSON.QUOTE_CHAR);
+  }
+
+  /**
+   * Writes the characters from a Reader as a JSON string, a buffer
+   * at a time, so that strings of any length can be written without
+   * holding them in memory.  The characters are escaped as by {@link
+   * #write(String)} but are not normalized.  The Reader is read to
+   * the end but not closed.
+   *
+   * @param in the characters to write
+   * @throws IOException If an I/O error occurs
+   */
+  public void writeString(Reader in) throws IOException {
+    this.writeString(in, new char[8192]);
+  }
+
+  /*
+   * Writes a string from a Reader through a caller's buffer, for
+   * callers that copy many strings.
+   */
+  void writeString(Reader in, char[] buf) throws IOException {
+    super.out.write(JSON.QUOTE_CHAR);
+    int n;
+    while ((n = in.read(buf, 0, buf.length)) >= 0)
+      JSONStringAdapter.writeEscaped(super.out, buf, 0, n);
+    super.out.write(JSON.QUOTE_CHAR);
+  }
+
+  /**
+   * Writes the bytes from an InputStream as a JSON string holding
+   * their base64 encoding (RFC 4648, with padding), a buffer at a
+   * time.  The stream is read to the end but not closed.
+   *
+   * @param in the bytes to write
+   * @throws IOException If an I/O error occurs
+   */
+  public void writeBase64(InputStream in) throws IOException {
+    // Whole groups of three bytes encode without padding, so only the
+    // last buffer can end in '='.
+    byte[] buf = new byte[6144];
+    Base64.Encoder encoder = Base64.getEncoder();
+    super.out.write(JSON.QUOTE_CHAR);
+    int fill = 0;
+    int n;
+    while ((n = in.read(buf, fill, buf.length - fill)) >= 0) {
+      fill += n;
+      if (fill == buf.length) {
+        super.out.write(new String(encoder.encode(buf), StandardCharsets.ISO_8859_1));
+        fill = 0;
       }
-      super.out.write(JSON.END_ARRAY);
-    } else if (o instanceof java.lang.String) {
-      String str = (String) o;
-      this.write(str);
-    } else if (o instanceof java.lang.Number) {
-      Number num = (Number) o;
-      super.out.write(num.toString());
-    } else {
-      this.write(o.toString());
     }
+    if (fill > 0)
+      super.out.write(new String(encoder.encode(Arrays.copyOf(buf, fill)), StandardCharsets.ISO_8859_1));
+    super.out.write(JSON.QUOTE_CHAR);
   }
 
   /**
@@ -117,6 +242,32 @@ public class JSONWriter extends FilterWriter {
     String out = JSONStringAdapter.toJSONString(str);
     super.out.write(out);
   }
+
+  /*
+   * Writes a string as a JSON string, escaped as by write(String)
+   * but not normalized, for copying strings that were read from JSON
+   * text.
+   */
+  void writeEscaped(String str) throws IOException {
+    super.out.write(JSON.QUOTE_CHAR);
+    JSONStringAdapter.writeEscaped(super.out, str);
+    super.out.write(JSON.QUOTE_CHAR);
+  }
+
+  /*
+   * Writes a slice of parser input as a JSON string, straight from
+   * its array if nothing in it needs escaping.
+   */
+  void writeSlice(JSONStringSlice slice) throws IOException {
+    if (slice.isPlain()) {
+      super.out.write(JSON.QUOTE_CHAR);
+      super.out.write(slice.buffer(), slice.offset(), slice.length());
+      super.out.write(JSON.QUOTE_CHAR);
+    } else {
+      this.write(slice.toString());
+    }
+  }
+
   /**
    * Writes a portion of a string as a JSON string.
    *
@@ -0,0 +1,435 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Appends JSON values to an NDJSON file from many threads at once,
+ * committing them to the file in groups.
+ *
+ * <p>Each value is serialized, encoded as UTF-8 and terminated by a
+ * newline on the thread that appends it, using buffers kept per
+ * thread, so that producers do their share of the work in parallel.
+ * The encoded records are queued, and a single writer thread takes
+ * everything queued at once and writes it to a <code>FileChannel</code>
+ * opened for appending in one gathering write.  Records from one
+ * thread are written in the order they were appended; records from
+ * different threads are interleaved whole.</p>
+ *
+ * <p>{@link #append(Object)} returns a future that completes when the
+ * record is as durable as the {@link SyncPolicy} makes it:</p>
+ *
+ * <ul>
+ * <li>{@link SyncPolicy#NONE}: the future completes once the record
+ * has been written to the channel.  It is in the operating system's
+ * cache and survives the process ending, but not a crash of the
+ * machine, until the system writes it out.</li>
+ *
+ * <li>{@link SyncPolicy#INTERVAL}: as NONE, and the file is also
+ * forced to the device at most once per interval while there are
+ * unforced writes.  Up to an interval of completed records may be
+ * lost in a crash.</li>
+ *
+ * <li>{@link SyncPolicy#BATCH}: the future completes once the batch
+ * holding the record has been forced to the device.  Nothing
+ * completed is lost, at the cost of one force per batch; batches
+ * grow while a force is in progress, so the cost is shared by more
+ * records as the rate rises.</li>
+ * </ul>
+ *
+ * <p>Producers wait when more than a set number of bytes are queued.
+ * If a write fails, the pending futures fail with the exception and
+ * later appends throw it.  Closing the appender writes everything
+ * appended, forces the file unless the policy is NONE, and stops the
+ * writer thread.</p>
+ */
+public class NDJSONAppender implements Closeable {
+
+  /**
+   * When the file is forced to the device.
+   */
+  public enum SyncPolicy {
+    /** Never, other than by the operating system. */
+    NONE,
+    /** At most once per interval, while there are unforced writes. */
+    INTERVAL,
+    /** After every batch, before its futures complete. */
+    BATCH
+  }
+
+  /** The default number of bytes that may be queued, 16MiB. */
+  public static final int DEFAULT_MAX_PENDING = 16 * 1024 * 1024;
+
+  // Most records passed to one gathering write.
+  private static final int MAX_GATHER = 1024;
+
+  private final FileChannel channel;
+  private final SyncPolicy policy;
+  private final long intervalNanos;
+  private final long maxPending;
+  private final ThreadLocal<Encoder> encoders;
+  private final Thread writer;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = this.lock.newCondition();
+  private final Condition notFull = this.lock.newCondition();
+  // Guarded by lock.
+  private List<Entry> queue = new ArrayList<Entry>();
+  private long queued = 0;
+  private boolean closed = false;
+  private IOException failure = null;
+
+  /**
+   * Open an appender that does not force the file, with the default
+   * serializer registry.
+   *
+   * @param path the file to append to, which is created if necessary
+   * @throws IOException if the file cannot be opened
+   */
+  public NDJSONAppender(Path path) throws IOException {
+    this(path, SyncPolicy.NONE, 0, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Open an appender with a sync policy and the default serializer
+   * registry.
+   *
+   * @param path the file to append to, which is created if necessary
+   * @param policy when to force the file to the device
+   * @param interval the interval for {@link SyncPolicy#INTERVAL}
+   * @param unit the unit of the interval
+   * @throws IOException if the file cannot be opened
+   * @throws IllegalArgumentException if the policy is INTERVAL and
+   * the interval is not positive
+   */
+  public NDJSONAppender(Path path, SyncPolicy policy, long interval, TimeUnit unit) throws IOException {
+    this(path, policy, interval, unit, JSONSerializerRegistry.getDefault(), DEFAULT_MAX_PENDING);
+  }
+
+  /**
+   * Open an appender.
+   *
+   * @param path the file to append to, which is created if necessary
+   * @param policy when to force the file to the device
+   * @param interval the interval for {@link SyncPolicy#INTERVAL}
+   * @param unit the unit of the interval
+   * @param registry the registry used to find serializers for values
+   * @param maxPending the number of queued bytes above which
+   * producers wait
+   * @throws IOException if the file cannot be opened
+   * @throws IllegalArgumentException if the policy is INTERVAL and
+   * the interval is not positive, or maxPending is not positive
+   */
+  public NDJSONAppender(Path path, SyncPolicy policy, long interval, TimeUnit unit,
+                        final JSONSerializerRegistry registry, long maxPending) throws IOException {
+    if (policy == null || registry == null)
+      throw new NullPointerException();
+    if ((policy == SyncPolicy.INTERVAL && interval <= 0) || maxPending <= 0)
+      throw new IllegalArgumentException();
+    this.policy = policy;
+    this.intervalNanos = unit.toNanos(interval);
+    this.maxPending = maxPending;
+    this.encoders = ThreadLocal.withInitial(() -> new Encoder(registry));
+    this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    this.writer = new Thread(this::run, "NDJSONAppender " + path.getFileName());
+    this.writer.setDaemon(true);
+    this.writer.start();
+  }
+
+  /**
+   * Get the sync policy.
+   *
+   * @return the sync policy
+   */
+  public SyncPolicy getSyncPolicy() {
+    return this.policy;
+  }
+
+  /**
+   * Append a value as one line of the file.
+   *
+   * @param value the value to append
+   * @return a future that completes when the record has been written
+   * and, depending on the sync policy, forced; or that fails with the
+   * write's IOException
+   * @throws IOException if the appender is closed or a write has
+   * failed
+   * @throws InterruptedIOException if interrupted while waiting for
+   * room in the queue
+   */
+  public CompletableFuture<Void> append(Object value) throws IOException {
+    Entry entry = new Entry(this.encoders.get().encode(value));
+    this.enqueue(entry);
+    return entry.future;
+  }
+
+  /**
+   * Wait until everything appended so far has been written and,
+   * depending on the sync policy, forced.
+   *
+   * @throws IOException if the appender is closed or a write fails
+   */
+  public void flush() throws IOException {
+    Entry marker = new Entry(new byte[0]);
+    this.enqueue(marker);
+    NDJSONAppender.await(marker.future);
+  }
+
+  /**
+   * Write everything appended, force the file unless the policy is
+   * NONE, and close it.  Closing an appender more than once has no
+   * further effect.
+   *
+   * @throws IOException if a write or the force fails
+   */
+  @Override
+  public void close() throws IOException {
+    this.lock.lock();
+    try {
+      if (this.closed)
+        return;
+      this.closed = true;
+      this.notEmpty.signal();
+    } finally {
+      this.lock.unlock();
+    }
+    boolean interrupted = false;
+    while (true) {
+      try {
+        this.writer.join();
+        break;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted)
+      Thread.currentThread().interrupt();
+    IOException failure = this.failure;
+    try {
+      if (failure == null && this.policy != SyncPolicy.NONE)
+        this.channel.force(false);
+    } catch (IOException e) {
+      failure = e;
+    } finally {
+      this.channel.close();
+    }
+    if (failure != null)
+      throw failure;
+  }
+
+  private void enqueue(Entry entry) throws IOException {
+    this.lock.lock();
+    try {
+      while (this.failure == null && !this.closed && this.queued > 0
+             && this.queued + entry.bytes.length > this.maxPending)
+        this.notFull.await();
+      if (this.failure != null)
+        throw this.failure;
+      if (this.closed)
+        throw new IOException("Appender closed");
+      this.queue.add(entry);
+      this.queued += entry.bytes.length;
+      if (this.queue.size() == 1)
+        this.notEmpty.signal();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /*
+   * The writer thread: take the whole queue, write it, force it if
+   * the policy says to, and complete its futures.
+   */
+  private void run() {
+    List<Entry> spare = new ArrayList<Entry>();
+    long lastForce = System.nanoTime();
+    boolean dirty = false;
+    while (true) {
+      List<Entry> batch;
+      this.lock.lock();
+      try {
+        while (this.queue.isEmpty() && !this.closed) {
+          if (dirty && this.policy == SyncPolicy.INTERVAL) {
+            long wait = lastForce + this.intervalNanos - System.nanoTime();
+            if (wait <= 0)
+              break;
+            this.notEmpty.awaitNanos(wait);
+          } else {
+            this.notEmpty.await();
+          }
+        }
+        if (this.queue.isEmpty() && this.closed)
+          return;
+        batch = this.queue;
+        this.queue = spare;
+        this.queued = 0;
+        this.notFull.signalAll();
+      } catch (InterruptedException e) {
+        // Only close() stops the writer.
+        continue;
+      } finally {
+        this.lock.unlock();
+      }
+      try {
+        if (!batch.isEmpty()) {
+          this.write(batch);
+          dirty = true;
+        }
+        long now = System.nanoTime();
+        if (dirty && (this.policy == SyncPolicy.BATCH
+                      || (this.policy == SyncPolicy.INTERVAL && now - lastForce >= this.intervalNanos))) {
+          this.channel.force(false);
+          lastForce = now;
+          dirty = false;
+        }
+        for (Entry entry : batch)
+          entry.future.complete(null);
+      } catch (IOException e) {
+        this.fail(e, batch);
+        return;
+      }
+      batch.clear();
+      spare = batch;
+    }
+  }
+
+  private void write(List<Entry> batch) throws IOException {
+    ByteBuffer[] buffers = new ByteBuffer[Math.min(batch.size(), MAX_GATHER)];
+    for (int i = 0; i < batch.size(); i += buffers.length) {
+      int n = Math.min(buffers.length, batch.size() - i);
+      for (int j = 0; j < n; j++)
+        buffers[j] = ByteBuffer.wrap(batch.get(i + j).bytes);
+      int first = 0;
+      while (first < n) {
+        this.channel.write(buffers, first, n - first);
+        while (first < n && !buffers[first].hasRemaining())
+          first++;
+      }
+    }
+  }
+
+  /*
+   * Fail the batch being written and everything still queued, and
+   * make later appends fail.
+   */
+  private void fail(IOException e, List<Entry> batch) {
+    List<Entry> rest;
+    this.lock.lock();
+    try {
+      this.failure = e;
+      rest = this.queue;
+      this.queue = new ArrayList<Entry>();
+      this.queued = 0;
+      this.notFull.signalAll();
+    } finally {
+      this.lock.unlock();
+    }
+    for (Entry entry : batch)
+      entry.future.completeExceptionally(e);
+    for (Entry entry : rest)
+      entry.future.completeExceptionally(e);
+  }
+
+  private static void await(CompletableFuture<Void> future) throws IOException {
+    try {
+      future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException)
+        throw (IOException) cause;
+      throw new IOException(cause);
+    }
+  }
+
+  /*
+   * An encoded record and its completion.
+   */
+  private static class Entry {
+    final byte[] bytes;
+    final CompletableFuture<Void> future = new CompletableFuture<Void>();
+
+    Entry(byte[] bytes) {
+      this.bytes = bytes;
+    }
+  }
+
+  /*
+   * A thread's buffers for serializing and encoding records.
+   */
+  private static class Encoder {
+    private final JSONTextBuffer text = new JSONTextBuffer(1024);
+    private final JSONWriter json;
+    private final CharsetEncoder utf8 = StandardCharsets.UTF_8.newEncoder()
+      .onMalformedInput(CodingErrorAction.REPLACE)
+      .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private ByteBuffer bytes = ByteBuffer.allocate(4096);
+
+    Encoder(JSONSerializerRegistry registry) {
+      this.json = new JSONWriter(this.text, registry);
+    }
+
+    byte[] encode(Object value) throws IOException {
+      this.text.reset();
+      this.json.write(value);
+      this.text.write('\n');
+      CharBuffer in = this.text.chars();
+      this.utf8.reset();
+      this.bytes.clear();
+      while (true) {
+        CoderResult result = this.utf8.encode(in, this.bytes, true);
+        if (!result.isOverflow())
+          result = this.utf8.flush(this.bytes);
+        if (!result.isOverflow())
+          break;
+        ByteBuffer larger = ByteBuffer.allocate(2 * this.bytes.capacity());
+        this.bytes.flip();
+        larger.put(this.bytes);
+        this.bytes = larger;
+      }
+      return Arrays.copyOf(this.bytes.array(), this.bytes.position());
+    }
+  }
+
+}
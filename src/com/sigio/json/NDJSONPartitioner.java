@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * Splits an NDJSON file into byte ranges that can be read in
+ * parallel.  Each range is read as the records that start inside it,
+ * so a record that straddles a boundary belongs to the range where
+ * it starts and every record is read exactly once.  Newline bytes
+ * cannot occur inside a UTF-8 multibyte sequence, so ranges can be
+ * found without decoding.
+ */
+class NDJSONPartitioner {
+
+  // Smallest range worth handing to a thread of its own.
+  private static final long MIN_PARTITION = 1 << 20;
+
+  private final Path path;
+  private final long size;
+
+  NDJSONPartitioner(Path path) throws IOException {
+    this.path = path;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      this.size = channel.size();
+    }
+  }
+
+  /*
+   * Split the file into at most n ranges of roughly equal size.
+   * Returns an array of n + 1 boundaries.
+   */
+  long[] split(int n) {
+    n = (int) Math.max(1, Math.min(n, this.size / MIN_PARTITION));
+    long[] bounds = new long[n + 1];
+    for (int i = 0; i <= n; i++)
+      bounds[i] = this.size * i / n;
+    return bounds;
+  }
+
+  /*
+   * Open a JSONReader over the records that start in [start, end).
+   */
+  JSONReader open(long start, long end) throws IOException {
+    InputStream in = new RangeInputStream(FileChannel.open(this.path, StandardOpenOption.READ), start, end);
+    return new JSONReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024));
+  }
+
+  /*
+   * InputStream over the lines of a file channel that start in a
+   * byte range.
+   */
+  private static class RangeInputStream extends InputStream {
+    private final FileChannel channel;
+    private final long end;
+    private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    // File position of the next byte in the buffer.
+    private long position;
+    // Whether the previous byte returned was a newline.
+    private boolean atLineStart;
+    private boolean eof = false;
+
+    RangeInputStream(FileChannel channel, long start, long end) throws IOException {
+      this.channel = channel;
+      this.end = end;
+      this.buffer.limit(0);
+      if (start == 0) {
+        this.position = 0;
+        this.atLineStart = true;
+      } else {
+        // Skip the tail of the line that started before us.
+        this.position = start - 1;
+        this.atLineStart = false;
+        int b;
+        while ((b = this.next()) != -1 && b != '\n')
+          ;
+        this.atLineStart = true;
+      }
+    }
+
+    private int next() throws IOException {
+      if (!this.buffer.hasRemaining()) {
+        this.buffer.clear();
+        int n = this.channel.read(this.buffer, this.position);
+        this.buffer.flip();
+        if (n <= 0)
+          return -1;
+      }
+      this.position++;
+      return this.buffer.get() & 0xff;
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (this.eof || (this.atLineStart && this.position >= this.end)) {
+        this.eof = true;
+        return -1;
+      }
+      int b = this.next();
+      if (b == -1)
+        this.eof = true;
+      this.atLineStart = b == '\n';
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0)
+        return 0;
+      int c = this.read();
+      if (c == -1)
+        return -1;
+      b[off] = (byte) c;
+      int n = 1;
+      // Copy straight from the buffer while well short of the end;
+      // near the end, go a byte at a time to find the last newline.
+      int bulk = Math.min(len - n, this.buffer.remaining());
+      if (bulk > 0 && this.position + bulk < this.end) {
+        this.buffer.get(b, off + n, bulk);
+        this.position += bulk;
+        this.atLineStart = b[off + n + bulk - 1] == '\n';
+        return n + bulk;
+      }
+      while (n < len && this.buffer.hasRemaining()) {
+        c = this.read();
+        if (c == -1)
+          break;
+        b[off + n++] = (byte) c;
+      }
+      return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.channel.close();
+    }
+  }
+
+}
@@ -0,0 +1,614 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A simple query and aggregation engine for NDJSON files (one JSON
+ * object per line).
+ *
+ * <p>A query is built up with filters ({@link #where}), grouping
+ * fields ({@link #groupBy}) and aggregates ({@link #count()}, {@link
+ * #sum}, {@link #min} and {@link #max}), and then run over a file.
+ * Fields are named by dotted paths of member names, such as
+ * <code>request.host</code>.  For example, to count the errors and
+ * total the bytes sent by each host:</p>
+ *
+ * <pre>
+ * NDJSONQuery.Result result = new NDJSONQuery()
+ *   .where("status", v -&gt; "error".equals(v))
+ *   .groupBy("host")
+ *   .count()
+ *   .sum("bytes")
+ *   .run(path);
+ * </pre>
+ *
+ * <p>Only the fields that the query refers to are built from the
+ * input; all other members are skipped by the parser without being
+ * materialized.  Aggregates are kept in primitive accumulators per
+ * group.  The file is split into byte ranges on line boundaries which
+ * are processed in parallel, and the partial results are merged at
+ * the end.</p>
+ *
+ * <p>Missing fields are passed to filters as <code>null</code>, and
+ * JSON nulls as <code>JSONLiteral.NULL</code>.  The numeric
+ * aggregates ignore values that are not numbers.  A query may be run
+ * any number of times, but must not be modified while it is
+ * running.</p>
+ */
+public class NDJSONQuery {
+
+  /**
+   * The kinds of aggregate a query can compute.
+   */
+  public enum Aggregate {
+    /** Number of records, or of records where a field is present. */
+    COUNT,
+    /**
+     * Sum of the numeric values of a field, kept exactly while every
+     * value is an integer.
+     */
+    SUM,
+    /** Smallest numeric value of a field. */
+    MIN,
+    /** Largest numeric value of a field. */
+    MAX
+  }
+
+  private final List<String> fields = new ArrayList<String>();
+  private final List<Integer> filterSlots = new ArrayList<Integer>();
+  private final List<Predicate<Object>> filters = new ArrayList<Predicate<Object>>();
+  private final List<Integer> groupSlots = new ArrayList<Integer>();
+  private final List<Aggregate> aggregates = new ArrayList<Aggregate>();
+  // Slot of each aggregate's field, or -1 for a plain record count.
+  private final List<Integer> aggregateSlots = new ArrayList<Integer>();
+  private final List<String> aggregateNames = new ArrayList<String>();
+  private final List<Integer> selectSlots = new ArrayList<Integer>();
+  private int threads = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * Construct an empty query.  With no filters, grouping or
+   * aggregates, running it computes nothing.
+   */
+  public NDJSONQuery() {
+    super();
+  }
+
+  /**
+   * Only include records for which a predicate accepts the value of
+   * a field.  Several filters must all accept a record.
+   *
+   * @param path dotted path of the field
+   * @param predicate test of the field value
+   * @return this query
+   */
+  public NDJSONQuery where(String path, Predicate<Object> predicate) {
+    if (predicate == null)
+      throw new NullPointerException();
+    this.filterSlots.add(this.slot(path));
+    this.filters.add(predicate);
+    return this;
+  }
+
+  /**
+   * Group records by the values of one or more fields.
+   *
+   * @param paths dotted paths of the fields
+   * @return this query
+   */
+  public NDJSONQuery groupBy(String... paths) {
+    for (String path : paths)
+      this.groupSlots.add(this.slot(path));
+    return this;
+  }
+
+  /**
+   * Count the records in each group.
+   *
+   * @return this query
+   */
+  public NDJSONQuery count() {
+    return this.aggregate(Aggregate.COUNT, null);
+  }
+
+  /**
+   * Count the records in each group in which a field is present and
+   * not null.
+   *
+   * @param path dotted path of the field
+   * @return this query
+   */
+  public NDJSONQuery count(String path) {
+    return this.aggregate(Aggregate.COUNT, path);
+  }
+
+  /**
+   * Sum a numeric field in each group.
+   *
+   * @param path dotted path of the field
+   * @return this query
+   */
+  public NDJSONQuery sum(String path) {
+    return this.aggregate(Aggregate.SUM, path);
+  }
+
+  /**
+   * Find the minimum of a numeric field in each group.
+   *
+   * @param path dotted path of the field
+   * @return this query
+   */
+  public NDJSONQuery min(String path) {
+    return this.aggregate(Aggregate.MIN, path);
+  }
+
+  /**
+   * Find the maximum of a numeric field in each group.
+   *
+   * @param path dotted path of the field
+   * @return this query
+   */
+  public NDJSONQuery max(String path) {
+    return this.aggregate(Aggregate.MAX, path);
+  }
+
+  /**
+   * Select fields to project from each matching record for {@link
+   * #forEach}.
+   *
+   * @param paths dotted paths of the fields
+   * @return this query
+   */
+  public NDJSONQuery select(String... paths) {
+    for (String path : paths)
+      this.selectSlots.add(this.slot(path));
+    return this;
+  }
+
+  /**
+   * Set the number of threads used to run the query.  The default is
+   * the number of available processors.  Small files are not split
+   * into as many partitions.
+   *
+   * @param threads the number of threads
+   * @return this query
+   * @throws IllegalArgumentException if threads &lt; 1
+   */
+  public NDJSONQuery threads(int threads) {
+    if (threads < 1)
+      throw new IllegalArgumentException();
+    this.threads = threads;
+    return this;
+  }
+
+  /**
+   * Run the query over an NDJSON file and compute its aggregates.
+   *
+   * @param path the file to read
+   * @return the aggregates for each group
+   * @throws IOException if the file cannot be read
+   * @throws JSONException if a record is malformed
+   */
+  public Result run(Path path) throws IOException, JSONException {
+    List<Map<List<Object>, Accumulator>> partials = this.execute(path, null);
+    Map<List<Object>, Accumulator> merged = partials.get(0);
+    for (int i = 1; i < partials.size(); i++) {
+      for (Map.Entry<List<Object>, Accumulator> entry : partials.get(i).entrySet()) {
+        Accumulator acc = merged.get(entry.getKey());
+        if (acc == null)
+          merged.put(entry.getKey(), entry.getValue());
+        else
+          acc.merge(entry.getValue(), this.aggregates);
+      }
+    }
+    return new Result(this, merged);
+  }
+
+  /**
+   * Run the query over an NDJSON file and pass the selected fields
+   * of each matching record to a consumer.  The consumer is called
+   * from several threads at once, and records are not passed in file
+   * order.  The array passed to it is only valid during the call.
+   *
+   * @param path the file to read
+   * @param consumer receives the values of the selected fields, in
+   * the order they were selected
+   * @throws IOException if the file cannot be read
+   * @throws JSONException if a record is malformed
+   */
+  public void forEach(Path path, Consumer<Object[]> consumer) throws IOException, JSONException {
+    if (consumer == null)
+      throw new NullPointerException();
+    this.execute(path, consumer);
+  }
+
+  private NDJSONQuery aggregate(Aggregate aggregate, String path) {
+    this.aggregates.add(aggregate);
+    this.aggregateSlots.add(path == null ? -1 : this.slot(path));
+    String name = aggregate.name().toLowerCase();
+    this.aggregateNames.add(path == null ? name : name + "(" + path + ")");
+    return this;
+  }
+
+  /*
+   * Get the slot of a field, adding it if it is new.
+   */
+  private int slot(String path) {
+    if (path == null || path.isEmpty())
+      throw new IllegalArgumentException();
+    int i = this.fields.indexOf(path);
+    if (i < 0) {
+      i = this.fields.size();
+      this.fields.add(path);
+    }
+    return i;
+  }
+
+  /*
+   * Run the partitions of the file, each with its own accumulators.
+   */
+  private List<Map<List<Object>, Accumulator>> execute(Path path, Consumer<Object[]> consumer) throws IOException, JSONException {
+    final NDJSONPartitioner partitioner = new NDJSONPartitioner(path);
+    final JSONFieldSelector selector = new JSONFieldSelector(this.fields);
+    final long[] bounds = partitioner.split(this.threads);
+    int n = bounds.length - 1;
+    ExecutorService executor = Executors.newFixedThreadPool(n);
+    try {
+      List<Future<Map<List<Object>, Accumulator>>> futures = new ArrayList<Future<Map<List<Object>, Accumulator>>>();
+      for (int i = 0; i < n; i++) {
+        final long start = bounds[i];
+        final long end = bounds[i + 1];
+        futures.add(executor.submit(new Callable<Map<List<Object>, Accumulator>>() {
+          @Override
+          public Map<List<Object>, Accumulator> call() throws IOException, JSONException {
+            try (JSONReader reader = partitioner.open(start, end)) {
+              return NDJSONQuery.this.scan(reader, selector, consumer);
+            }
+          }
+        }));
+      }
+      List<Map<List<Object>, Accumulator>> results = new ArrayList<Map<List<Object>, Accumulator>>();
+      for (Future<Map<List<Object>, Accumulator>> future : futures)
+        results.add(NDJSONQuery.get(future));
+      return results;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /*
+   * Process the records of one partition.
+   */
+  private Map<List<Object>, Accumulator> scan(JSONReader reader, JSONFieldSelector selector, Consumer<Object[]> consumer) throws IOException, JSONException {
+    Map<List<Object>, Accumulator> groups = new HashMap<List<Object>, Accumulator>();
+    Object[] slots = new Object[selector.size()];
+    Object[] selected = new Object[this.selectSlots.size()];
+    int groupCount = this.groupSlots.size();
+    int aggregateCount = this.aggregates.size();
+    int filterCount = this.filters.size();
+    // A reusable key for lookups, copied only for new groups.
+    Object[] keyValues = new Object[groupCount];
+    List<Object> probe = Arrays.asList(keyValues);
+    records:
+    while (selector.readRecord(reader, slots)) {
+      for (int i = 0; i < filterCount; i++) {
+        if (!this.filters.get(i).test(slots[this.filterSlots.get(i)]))
+          continue records;
+      }
+      if (consumer != null) {
+        for (int i = 0; i < selected.length; i++)
+          selected[i] = slots[this.selectSlots.get(i)];
+        consumer.accept(selected);
+        continue;
+      }
+      if (aggregateCount == 0)
+        continue;
+      for (int i = 0; i < groupCount; i++)
+        keyValues[i] = slots[this.groupSlots.get(i)];
+      Accumulator acc = groups.get(probe);
+      if (acc == null) {
+        acc = new Accumulator(this.aggregates);
+        groups.put(Collections.unmodifiableList(Arrays.asList(keyValues.clone())), acc);
+      }
+      for (int i = 0; i < aggregateCount; i++) {
+        int slot = this.aggregateSlots.get(i);
+        acc.add(i, this.aggregates.get(i), slot < 0 ? JSONLiteral.TRUE : slots[slot]);
+      }
+    }
+    return groups;
+  }
+
+  private static <T> T get(Future<T> future) throws IOException, JSONException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException)
+        throw (IOException) cause;
+      if (cause instanceof JSONException)
+        throw (JSONException) cause;
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException) cause;
+      throw new IOException(cause);
+    }
+  }
+
+  /*
+   * Primitive accumulators for the aggregates of one group.
+   */
+  private static class Accumulator {
+    final long[] counts;
+    final double[] values;
+    // Exact SUMs while every value has been an integer: a long, or a
+    // BigInteger once that overflows.
+    final boolean[] integral;
+    final long[] longSums;
+    final BigInteger[] bigSums;
+
+    Accumulator(List<Aggregate> aggregates) {
+      this.counts = new long[aggregates.size()];
+      this.values = new double[aggregates.size()];
+      this.integral = new boolean[aggregates.size()];
+      this.longSums = new long[aggregates.size()];
+      this.bigSums = new BigInteger[aggregates.size()];
+      for (int i = 0; i < this.values.length; i++) {
+        if (aggregates.get(i) == Aggregate.MIN)
+          this.values[i] = Double.POSITIVE_INFINITY;
+        else if (aggregates.get(i) == Aggregate.MAX)
+          this.values[i] = Double.NEGATIVE_INFINITY;
+        else if (aggregates.get(i) == Aggregate.SUM)
+          this.integral[i] = true;
+      }
+    }
+
+    void add(int i, Aggregate aggregate, Object value) {
+      if (aggregate == Aggregate.COUNT) {
+        if (value != null && value != JSONLiteral.NULL)
+          this.counts[i]++;
+        return;
+      }
+      if (!(value instanceof Number))
+        return;
+      this.counts[i]++;
+      if (aggregate == Aggregate.SUM) {
+        this.addSum(i, (Number) value);
+        return;
+      }
+      double d = ((Number) value).doubleValue();
+      if (aggregate == Aggregate.MIN)
+        this.values[i] = Math.min(this.values[i], d);
+      else
+        this.values[i] = Math.max(this.values[i], d);
+    }
+
+    private void addSum(int i, Number value) {
+      if (this.integral[i]) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+          this.addExact(i, value.longValue());
+          return;
+        }
+        BigInteger big = null;
+        if (value instanceof BigInteger)
+          big = (BigInteger) value;
+        else if (value instanceof JSONNumber && ((JSONNumber) value).isIntegral())
+          big = ((JSONNumber) value).bigIntegerValue();
+        if (big != null) {
+          if (big.bitLength() < Long.SIZE)
+            this.addExact(i, big.longValue());
+          else
+            this.addExact(i, big);
+          return;
+        }
+        // Not an integer; carry on in floating point.
+        this.values[i] = this.sum(i).doubleValue();
+        this.integral[i] = false;
+        this.bigSums[i] = null;
+      }
+      this.values[i] += value.doubleValue();
+    }
+
+    private void addExact(int i, long value) {
+      if (this.bigSums[i] == null) {
+        try {
+          this.longSums[i] = Math.addExact(this.longSums[i], value);
+          return;
+        } catch (ArithmeticException e) {
+          this.bigSums[i] = BigInteger.valueOf(this.longSums[i]);
+        }
+      }
+      this.bigSums[i] = this.bigSums[i].add(BigInteger.valueOf(value));
+    }
+
+    private void addExact(int i, BigInteger value) {
+      if (this.bigSums[i] == null)
+        this.bigSums[i] = BigInteger.valueOf(this.longSums[i]);
+      this.bigSums[i] = this.bigSums[i].add(value);
+    }
+
+    /*
+     * The SUM at index i: a Long or BigInteger while exact, and
+     * otherwise a Double.
+     */
+    Number sum(int i) {
+      if (!this.integral[i])
+        return Double.valueOf(this.values[i]);
+      if (this.bigSums[i] != null)
+        return this.bigSums[i];
+      return Long.valueOf(this.longSums[i]);
+    }
+
+    void merge(Accumulator other, List<Aggregate> aggregates) {
+      for (int i = 0; i < this.values.length; i++) {
+        this.counts[i] += other.counts[i];
+        switch (aggregates.get(i)) {
+        case SUM:
+          if (this.integral[i] && other.integral[i]) {
+            if (other.bigSums[i] != null)
+              this.addExact(i, other.bigSums[i]);
+            else
+              this.addExact(i, other.longSums[i]);
+          } else {
+            this.values[i] = this.sum(i).doubleValue() + other.sum(i).doubleValue();
+            this.integral[i] = false;
+            this.bigSums[i] = null;
+          }
+          break;
+        case MIN:
+          this.values[i] = Math.min(this.values[i], other.values[i]);
+          break;
+        case MAX:
+          this.values[i] = Math.max(this.values[i], other.values[i]);
+          break;
+        default:
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * The result of running a query: the aggregates for each group.
+   */
+  public static class Result {
+    private final List<String> groupFields;
+    private final List<String> aggregateNames;
+    private final List<Aggregate> aggregates;
+    private final Map<List<Object>, Accumulator> groups;
+
+    private Result(NDJSONQuery query, Map<List<Object>, Accumulator> groups) {
+      this.groupFields = new ArrayList<String>();
+      for (int slot : query.groupSlots)
+        this.groupFields.add(query.fields.get(slot));
+      this.aggregateNames = new ArrayList<String>(query.aggregateNames);
+      this.aggregates = new ArrayList<Aggregate>(query.aggregates);
+      this.groups = groups;
+    }
+
+    /**
+     * Get the keys of the groups.  Each key holds the values of the
+     * grouping fields in the order they were given, with
+     * <code>null</code> for a missing field.  Without grouping
+     * fields there is one group with an empty key, provided any
+     * record matched.
+     *
+     * @return the group keys
+     */
+    public List<List<Object>> keys() {
+      return new ArrayList<List<Object>>(this.groups.keySet());
+    }
+
+    /**
+     * Get the value of an aggregate for a group.  Counts are
+     * returned as whole numbers.  MIN and MAX are NaN for a group
+     * with no numeric values.  Integer sums beyond 2<sup>53</sup>
+     * are rounded; {@link #getNumber(List, int)} returns them
+     * exactly.
+     *
+     * @param key the group key
+     * @param aggregate index of the aggregate in the order it was
+     * added to the query
+     * @return the value of the aggregate, or NaN if there is no such
+     * group
+     */
+    public double get(List<Object> key, int aggregate) {
+      Accumulator acc = this.groups.get(key);
+      if (acc == null)
+        return Double.NaN;
+      switch (this.aggregates.get(aggregate)) {
+      case COUNT:
+        return acc.counts[aggregate];
+      case SUM:
+        return acc.sum(aggregate).doubleValue();
+      default:
+        return acc.counts[aggregate] == 0 ? Double.NaN : acc.values[aggregate];
+      }
+    }
+
+    /**
+     * Get the value of an aggregate for a group as a Number.  Counts
+     * are Longs.  A SUM is a Long, or a BigInteger if it does not
+     * fit, while every value summed is an integer, and a Double
+     * otherwise.  MIN and MAX are Doubles, and <code>null</code> for
+     * a group with no numeric values.
+     *
+     * @param key the group key
+     * @param aggregate index of the aggregate in the order it was
+     * added to the query
+     * @return the value of the aggregate, or <code>null</code> if
+     * there is no such group
+     */
+    public Number getNumber(List<Object> key, int aggregate) {
+      Accumulator acc = this.groups.get(key);
+      if (acc == null)
+        return null;
+      switch (this.aggregates.get(aggregate)) {
+      case COUNT:
+        return Long.valueOf(acc.counts[aggregate]);
+      case SUM:
+        return acc.sum(aggregate);
+      default:
+        return acc.counts[aggregate] == 0 ? null : Double.valueOf(acc.values[aggregate]);
+      }
+    }
+
+    /**
+     * Get the result as a JSONArray with one JSONObject per group.
+     * Each object has a member for each grouping field, named by its
+     * path, and one for each aggregate, named like
+     * <code>sum(bytes)</code>.
+     *
+     * @return the result as JSON
+     */
+    public JSONArray toJSONArray() {
+      JSONArray array = new JSONArray(this.groups.size());
+      for (List<Object> key : this.groups.keySet()) {
+        JSONObject object = new JSONObject();
+        for (int i = 0; i < key.size(); i++)
+          object.putTrusted(this.groupFields.get(i), key.get(i));
+        for (int i = 0; i < this.aggregates.size(); i++) {
+          Number value = this.getNumber(key, i);
+          object.putTrusted(this.aggregateNames.get(i), value == null ? JSONLiteral.NULL : value);
+        }
+        array.addTrusted(object);
+      }
+      return array;
+    }
+  }
+
+}
@@ -0,0 +1,522 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import com.sigio.util.HyperLogLog;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Infers the effective schema of an NDJSON dataset: the types of its
+ * fields, whether they may be null or missing, how many distinct
+ * values they have and how long their values get.
+ *
+ * <p>Fields are named by paths of member names separated by dots,
+ * with <code>[]</code> standing for the elements of an array, so
+ * <code>items[].price</code> is the price of each item.  The path of
+ * the records themselves is the empty string.  For example:</p>
+ *
+ * <pre>
+ * NDJSONSchema.Result schema = new NDJSONSchema().infer(path);
+ * for (NDJSONSchema.Field field : schema.getFields().values())
+ *   System.out.println(field.getPath() + " " + field.getTypes()
+ *                      + " ~" + field.getCardinality());
+ * </pre>
+ *
+ * <p>The file is split into byte ranges on line boundaries which are
+ * read in parallel.  Each range is summarized into a tree of
+ * counters, with a {@link HyperLogLog} sketch per field for the
+ * distinct values, and the trees are merged at the end.  Records are
+ * parsed with a {@link JSONRecycler}, so each range reuses the same
+ * few containers throughout.</p>
+ */
+public class NDJSONSchema {
+
+  /**
+   * The types a value can have.
+   */
+  public enum Type {
+    /** JSON null. */
+    NULL,
+    /** true or false. */
+    BOOLEAN,
+    /** A number without a fraction or exponent. */
+    INTEGER,
+    /** Any other number. */
+    NUMBER,
+    /** A string. */
+    STRING,
+    /** An array. */
+    ARRAY,
+    /** An object. */
+    OBJECT
+  }
+
+  private int threads = Runtime.getRuntime().availableProcessors();
+  private int precision = HyperLogLog.DEFAULT_PRECISION;
+
+  /**
+   * Construct a schema inferrer with the default settings.
+   */
+  public NDJSONSchema() {
+    super();
+  }
+
+  /**
+   * Set the number of threads used to read a file, which is split
+   * into as many partitions.  The default is the number of available
+   * processors.
+   *
+   * @param threads the number of threads
+   * @return this inferrer
+   * @throws IllegalArgumentException if threads &lt; 1
+   */
+  public NDJSONSchema threads(int threads) {
+    if (threads < 1)
+      throw new IllegalArgumentException();
+    this.threads = threads;
+    return this;
+  }
+
+  /**
+   * Set the precision of the distinct value sketches; see {@link
+   * HyperLogLog#HyperLogLog(int)}.  Each field of each partition
+   * has a sketch of 2<sup>precision</sup> bytes.
+   *
+   * @param precision the precision, from 4 to 18
+   * @return this inferrer
+   * @throws IllegalArgumentException if precision is out of range
+   */
+  public NDJSONSchema precision(int precision) {
+    if (precision < 4 || precision > 18)
+      throw new IllegalArgumentException();
+    this.precision = precision;
+    return this;
+  }
+
+  /**
+   * Infer the schema of an NDJSON file.
+   *
+   * @param path the file to read
+   * @return the schema
+   * @throws IOException if the file cannot be read
+   * @throws JSONException if a record is malformed
+   */
+  public Result infer(Path path) throws IOException, JSONException {
+    final NDJSONPartitioner partitioner = new NDJSONPartitioner(path);
+    final long[] bounds = partitioner.split(this.threads);
+    int n = bounds.length - 1;
+    ExecutorService executor = Executors.newFixedThreadPool(n);
+    try {
+      List<Future<Node>> futures = new ArrayList<Future<Node>>();
+      for (int i = 0; i < n; i++) {
+        final long start = bounds[i];
+        final long end = bounds[i + 1];
+        futures.add(executor.submit(new Callable<Node>() {
+          @Override
+          public Node call() throws IOException, JSONException {
+            try (JSONReader reader = partitioner.open(start, end)) {
+              return NDJSONSchema.this.scan(reader);
+            }
+          }
+        }));
+      }
+      Node root = null;
+      for (Future<Node> future : futures) {
+        Node partial = NDJSONSchema.get(future);
+        if (root == null)
+          root = partial;
+        else
+          root.merge(partial);
+      }
+      return new Result(root);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Infer the schema of a sequence of JSON values read on the
+   * calling thread.
+   *
+   * @param in the values to read
+   * @return the schema
+   * @throws IOException if a read error occurs
+   * @throws JSONException if a value is malformed
+   */
+  public Result infer(Reader in) throws IOException, JSONException {
+    return new Result(this.scan(in instanceof JSONReader ? (JSONReader) in : new JSONReader(in)));
+  }
+
+  /*
+   * Summarize the records of one partition.
+   */
+  private Node scan(JSONReader reader) throws IOException, JSONException {
+    JSONRecycler recycler = new JSONRecycler();
+    reader.setRecycler(recycler);
+    Node root = new Node(this.precision);
+    Object value;
+    while ((value = reader.readValue()) != JSONReader.EOF) {
+      root.add(value);
+      recycler.recycle(value);
+    }
+    return root;
+  }
+
+  private static <T> T get(Future<T> future) throws IOException, JSONException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException)
+        throw (IOException) cause;
+      if (cause instanceof JSONException)
+        throw (JSONException) cause;
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException) cause;
+      throw new IOException(cause);
+    }
+  }
+
+  /*
+   * Mergeable counters for the values at one path, with the nodes
+   * for the paths below it.
+   */
+  private static class Node {
+    final int precision;
+    final long[] types = new long[Type.values().length];
+    long count = 0;
+    long maxLength = -1;
+    // Distinct scalar values, made when the first one is seen.
+    HyperLogLog distinct = null;
+    Map<String, Node> members = null;
+    Node elements = null;
+
+    Node(int precision) {
+      this.precision = precision;
+    }
+
+    void add(Object value) {
+      this.count++;
+      if (value instanceof Map<?,?>) {
+        Map<?,?> map = (Map<?,?>) value;
+        this.types[Type.OBJECT.ordinal()]++;
+        if (map.isEmpty())
+          return;
+        if (this.members == null)
+          this.members = new HashMap<String, Node>();
+        for (Map.Entry<?,?> entry : map.entrySet()) {
+          String name = (String) entry.getKey();
+          Node member = this.members.get(name);
+          if (member == null) {
+            member = new Node(this.precision);
+            this.members.put(name, member);
+          }
+          member.add(entry.getValue());
+        }
+      } else if (value instanceof Collection<?>) {
+        Collection<?> collection = (Collection<?>) value;
+        this.types[Type.ARRAY.ordinal()]++;
+        this.maxLength = Math.max(this.maxLength, collection.size());
+        if (collection.isEmpty())
+          return;
+        if (this.elements == null)
+          this.elements = new Node(this.precision);
+        for (Object element : collection)
+          this.elements.add(element);
+      } else if (value == JSONLiteral.NULL || value == null) {
+        this.types[Type.NULL.ordinal()]++;
+      } else {
+        if (this.distinct == null)
+          this.distinct = new HyperLogLog(this.precision);
+        if (value instanceof CharSequence) {
+          CharSequence s = (CharSequence) value;
+          this.types[Type.STRING.ordinal()]++;
+          this.maxLength = Math.max(this.maxLength, s.length());
+          this.distinct.add(s);
+        } else if (value instanceof Long) {
+          this.types[Type.INTEGER.ordinal()]++;
+          this.distinct.add(((Long) value).longValue());
+        } else if (value instanceof BigInteger) {
+          this.types[Type.INTEGER.ordinal()]++;
+          this.distinct.add(value.toString());
+        } else if (value instanceof JSONNumber) {
+          JSONNumber number = (JSONNumber) value;
+          this.types[number.isIntegral() ? Type.INTEGER.ordinal() : Type.NUMBER.ordinal()]++;
+          this.distinct.add(number.toString());
+        } else if (value instanceof Number) {
+          this.types[Type.NUMBER.ordinal()]++;
+          this.distinct.add(((Number) value).doubleValue());
+        } else if (value == JSONLiteral.TRUE || value == JSONLiteral.FALSE) {
+          this.types[Type.BOOLEAN.ordinal()]++;
+          this.distinct.add(value == JSONLiteral.TRUE ? 1 : 0);
+        } else {
+          this.types[Type.STRING.ordinal()]++;
+          this.distinct.add(value.toString());
+        }
+      }
+    }
+
+    void merge(Node other) {
+      this.count += other.count;
+      for (int i = 0; i < this.types.length; i++)
+        this.types[i] += other.types[i];
+      this.maxLength = Math.max(this.maxLength, other.maxLength);
+      if (other.distinct != null) {
+        if (this.distinct == null)
+          this.distinct = other.distinct;
+        else
+          this.distinct.merge(other.distinct);
+      }
+      if (other.members != null) {
+        if (this.members == null)
+          this.members = new HashMap<String, Node>();
+        for (Map.Entry<String, Node> entry : other.members.entrySet()) {
+          Node member = this.members.get(entry.getKey());
+          if (member == null)
+            this.members.put(entry.getKey(), entry.getValue());
+          else
+            member.merge(entry.getValue());
+        }
+      }
+      if (other.elements != null) {
+        if (this.elements == null)
+          this.elements = other.elements;
+        else
+          this.elements.merge(other.elements);
+      }
+    }
+  }
+
+  /**
+   * What was found at one path.
+   */
+  public static class Field {
+    private final String path;
+    private final long count;
+    private final long[] types;
+    private final boolean optional;
+    private final long cardinality;
+    private final long maxLength;
+
+    private Field(String path, Node node, boolean optional) {
+      this.path = path;
+      this.count = node.count;
+      this.types = node.types.clone();
+      this.optional = optional;
+      this.cardinality = node.distinct == null ? 0 : node.distinct.estimate();
+      this.maxLength = node.maxLength;
+    }
+
+    /**
+     * Get the path of the field.
+     *
+     * @return the path
+     */
+    public String getPath() {
+      return this.path;
+    }
+
+    /**
+     * Get the number of values found at the path, counting each
+     * element of an array separately.
+     *
+     * @return the number of values
+     */
+    public long getCount() {
+      return this.count;
+    }
+
+    /**
+     * Get the number of values of a type found at the path.
+     *
+     * @param type the type
+     * @return the number of values of the type
+     */
+    public long getCount(Type type) {
+      return this.types[type.ordinal()];
+    }
+
+    /**
+     * Get the types of the values found at the path, including
+     * {@link Type#NULL} if any were null.
+     *
+     * @return the types
+     */
+    public Set<Type> getTypes() {
+      Set<Type> set = EnumSet.noneOf(Type.class);
+      for (Type type : Type.values()) {
+        if (this.types[type.ordinal()] > 0)
+          set.add(type);
+      }
+      return set;
+    }
+
+    /**
+     * Check whether the field is missing from some of the objects
+     * that it is a member of.
+     *
+     * @return <code>true</code> if the field is sometimes missing
+     */
+    public boolean isOptional() {
+      return this.optional;
+    }
+
+    /**
+     * Check whether the field is ever null or missing.
+     *
+     * @return <code>true</code> if the field is sometimes null or
+     * missing
+     */
+    public boolean isNullable() {
+      return this.optional || this.types[Type.NULL.ordinal()] > 0;
+    }
+
+    /**
+     * Get an estimate of the number of distinct values, other than
+     * null, arrays and objects, found at the path.
+     *
+     * @return the estimated number of distinct values
+     */
+    public long getCardinality() {
+      return this.cardinality;
+    }
+
+    /**
+     * Get the greatest length of a string, or number of elements of
+     * an array, found at the path.
+     *
+     * @return the greatest length, or -1 if no strings or arrays
+     * were found
+     */
+    public long getMaxLength() {
+      return this.maxLength;
+    }
+
+    /**
+     * Get a summary of the field as a JSON object.
+     *
+     * @return the summary
+     */
+    public JSONObject toJSONObject() {
+      JSONObject object = new JSONObject();
+      JSONArray types = new JSONArray();
+      for (Type type : this.getTypes())
+        types.add(type.name().toLowerCase());
+      object.put("types", types);
+      object.put("count", this.count);
+      object.put("nullable", this.isNullable() ? JSONLiteral.TRUE : JSONLiteral.FALSE);
+      object.put("optional", this.optional ? JSONLiteral.TRUE : JSONLiteral.FALSE);
+      object.put("cardinality", this.cardinality);
+      if (this.maxLength >= 0)
+        object.put("maxLength", this.maxLength);
+      return object;
+    }
+  }
+
+  /**
+   * The schema found in a dataset.
+   */
+  public static class Result {
+    private final long records;
+    private final Map<String, Field> fields = new TreeMap<String, Field>();
+
+    private Result(Node root) {
+      this.records = root.count;
+      this.flatten("", root, false);
+    }
+
+    private void flatten(String path, Node node, boolean optional) {
+      this.fields.put(path, new Field(path, node, optional));
+      if (node.members != null) {
+        long objects = node.types[Type.OBJECT.ordinal()];
+        for (Map.Entry<String, Node> entry : node.members.entrySet()) {
+          String name = path.isEmpty() ? entry.getKey() : path + "." + entry.getKey();
+          this.flatten(name, entry.getValue(), entry.getValue().count < objects);
+        }
+      }
+      if (node.elements != null)
+        this.flatten(path + "[]", node.elements, false);
+    }
+
+    /**
+     * Get the number of records read.
+     *
+     * @return the number of records
+     */
+    public long getRecordCount() {
+      return this.records;
+    }
+
+    /**
+     * Get the fields found, by path in path order.  The records
+     * themselves are the field with the empty path.
+     *
+     * @return the fields
+     */
+    public Map<String, Field> getFields() {
+      return Collections.unmodifiableMap(this.fields);
+    }
+
+    /**
+     * Get the field at a path.
+     *
+     * @param path the path
+     * @return the field, or <code>null</code> if nothing was found at
+     * the path
+     */
+    public Field getField(String path) {
+      return this.fields.get(path);
+    }
+
+    /**
+     * Get the schema as a JSON object holding the summary of each
+     * field by path.
+     *
+     * @return the schema
+     */
+    public JSONObject toJSONObject() {
+      JSONObject object = new JSONObject();
+      for (Field field : this.fields.values())
+        object.put(field.getPath(), field.toJSONObject());
+      return object;
+    }
+  }
+
+}
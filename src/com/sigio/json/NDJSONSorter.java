@@ -0,0 +1,572 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorts NDJSON files (one JSON object per line) by the values of one
+ * or more fields, using temporary files for inputs larger than
+ * memory.
+ *
+ * <p>Fields are named by dotted paths of member names, as for {@link
+ * NDJSONQuery}, and compared in the order they were added.  Values
+ * are ordered missing, JSON null, false, true, numbers by numeric
+ * value, strings by UTF-16 code units, and then arrays and objects,
+ * which compare equal to others of their kind.  The sort is stable:
+ * records with equal keys keep their order from the input.  For
+ * example, to sort a log by time and then by id:</p>
+ *
+ * <pre>
+ * new NDJSONSorter().by("timestamp").by("id").sort(in, out);
+ * </pre>
+ *
+ * <p>The input is read in batches that fit in a share of the memory
+ * budget.  Each batch is sorted on its own thread and written to a
+ * temporary file as a run, in a compact binary form that keeps the
+ * decoded keys next to the original line.  The runs are then merged
+ * through a heap, many at a time, in as many passes as needed.  Lines
+ * are copied to the output exactly as they were read; blank lines
+ * are dropped.  Input that fits in one batch is sorted in memory
+ * without temporary files.</p>
+ */
+public class NDJSONSorter {
+
+  // Most runs merged at once; more are merged in several passes.
+  private static final int MAX_FAN_IN = 64;
+  // Estimated bytes for a record besides its characters.
+  private static final int RECORD_OVERHEAD = 96;
+
+  private final List<String> paths = new ArrayList<String>();
+  private final List<Boolean> descending = new ArrayList<Boolean>();
+  private long memory = 256L << 20;
+  private int threads = Runtime.getRuntime().availableProcessors();
+  private Path tempDirectory = null;
+
+  /**
+   * Construct a sorter with no keys.  Sorting with no keys copies
+   * the records in their input order.
+   */
+  public NDJSONSorter() {
+    super();
+  }
+
+  /**
+   * Sort by the value of a field, in ascending order, after the keys
+   * already added.
+   *
+   * @param path dotted path of the field
+   * @return this sorter
+   */
+  public NDJSONSorter by(String path) {
+    return this.key(path, false);
+  }
+
+  /**
+   * Sort by the value of a field, in descending order, after the
+   * keys already added.
+   *
+   * @param path dotted path of the field
+   * @return this sorter
+   */
+  public NDJSONSorter byDescending(String path) {
+    return this.key(path, true);
+  }
+
+  /**
+   * Set the approximate number of bytes of records held in memory at
+   * once.  The default is 256MB.
+   *
+   * @param bytes the memory budget
+   * @return this sorter
+   * @throws IllegalArgumentException if bytes is not positive
+   */
+  public NDJSONSorter memory(long bytes) {
+    if (bytes <= 0)
+      throw new IllegalArgumentException();
+    this.memory = bytes;
+    return this;
+  }
+
+  /**
+   * Set the number of threads that sort and write runs.  The default
+   * is the number of available processors.
+   *
+   * @param threads the number of threads
+   * @return this sorter
+   * @throws IllegalArgumentException if threads &lt; 1
+   */
+  public NDJSONSorter threads(int threads) {
+    if (threads < 1)
+      throw new IllegalArgumentException();
+    this.threads = threads;
+    return this;
+  }
+
+  /**
+   * Set the directory for temporary files.  The default is the
+   * system's temporary directory.
+   *
+   * @param directory the directory, or <code>null</code> for the
+   * default
+   * @return this sorter
+   */
+  public NDJSONSorter tempDirectory(Path directory) {
+    this.tempDirectory = directory;
+    return this;
+  }
+
+  /**
+   * Sort a UTF-8 NDJSON file into another file.  The output file is
+   * created or replaced; it must not be the input file.
+   *
+   * @param in the file to sort
+   * @param out the file to write
+   * @return the number of records written
+   * @throws IOException if a file cannot be read or written
+   * @throws JSONException if a record is malformed
+   */
+  public long sort(Path in, Path out) throws IOException, JSONException {
+    final JSONFieldSelector selector = new JSONFieldSelector(this.paths);
+    final Comparator<Record> comparator = this.comparator();
+    // One share for the batch being read and one for each being
+    // sorted and written.
+    long batchBytes = Math.max(this.memory / (this.threads + 1), 1);
+    List<Path> runs = new ArrayList<Path>();
+    // Every temporary file, deleted at the end whatever happens.
+    List<Path> temps = new ArrayList<Path>();
+    ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+    final Semaphore slots = new Semaphore(this.threads);
+    List<Future<Path>> futures = new ArrayList<Future<Path>>();
+    try {
+      try (BufferedReader reader = Files.newBufferedReader(in, StandardCharsets.UTF_8)) {
+        List<Record> batch = new ArrayList<Record>();
+        long bytes = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+          if (line.trim().isEmpty())
+            continue;
+          batch.add(new Record(this.keys(selector, line), line));
+          bytes += RECORD_OVERHEAD + 2L * line.length();
+          if (bytes >= batchBytes) {
+            futures.add(this.spill(executor, slots, batch, comparator, temps));
+            batch = new ArrayList<Record>();
+            bytes = 0;
+          }
+        }
+        if (futures.isEmpty()) {
+          // Everything fit in one batch.
+          Collections.sort(batch, comparator);
+          return NDJSONSorter.write(batch, out);
+        }
+        if (!batch.isEmpty())
+          futures.add(this.spill(executor, slots, batch, comparator, temps));
+      }
+      for (Future<Path> future : futures)
+        runs.add(NDJSONSorter.get(future));
+      while (runs.size() > MAX_FAN_IN) {
+        List<Path> merged = new ArrayList<Path>();
+        for (int i = 0; i < runs.size(); i += MAX_FAN_IN) {
+          List<Path> group = runs.subList(i, Math.min(i + MAX_FAN_IN, runs.size()));
+          Path run = this.createTempFile(temps);
+          try (DataOutputStream output = NDJSONSorter.openRun(run)) {
+            this.merge(group, comparator, new RunWriter(output));
+          }
+          NDJSONSorter.delete(group);
+          merged.add(run);
+        }
+        runs = merged;
+      }
+      try (Writer output = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+        return this.merge(runs, comparator, new LineWriter(output));
+      }
+    } finally {
+      // Stop any runs still being written before deleting them.
+      executor.shutdownNow();
+      try {
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      NDJSONSorter.delete(temps);
+    }
+  }
+
+  private NDJSONSorter key(String path, boolean descending) {
+    if (path == null || path.isEmpty())
+      throw new IllegalArgumentException();
+    this.paths.add(path);
+    this.descending.add(Boolean.valueOf(descending));
+    return this;
+  }
+
+  /*
+   * Compare records by their keys in order, each ascending or
+   * descending.
+   */
+  private Comparator<Record> comparator() {
+    final boolean[] reverse = new boolean[this.descending.size()];
+    for (int i = 0; i < reverse.length; i++)
+      reverse[i] = this.descending.get(i).booleanValue();
+    return new Comparator<Record>() {
+      @Override
+      public int compare(Record a, Record b) {
+        for (int i = 0; i < reverse.length; i++) {
+          int c = JSONValueComparator.INSTANCE.compare(a.keys[i], b.keys[i]);
+          if (c != 0)
+            return reverse[i] ? -c : c;
+        }
+        return 0;
+      }
+    };
+  }
+
+  /*
+   * Read the key fields of a line, normalized so that they can be
+   * written to a run and read back unchanged.
+   */
+  private Object[] keys(JSONFieldSelector selector, String line) throws IOException, JSONException {
+    Object[] keys = new Object[selector.size()];
+    selector.readRecord(new JSONReader(new StringReader(line)), keys);
+    for (int i = 0; i < keys.length; i++)
+      keys[i] = JSONValueComparator.normalize(keys[i]);
+    return keys;
+  }
+
+  /*
+   * Sort a batch and write it to a run on the executor, waiting if
+   * every thread is busy so that at most that many batches are held.
+   */
+  private Future<Path> spill(ExecutorService executor, final Semaphore slots, final List<Record> batch, final Comparator<Record> comparator, List<Path> temps) throws IOException {
+    try {
+      slots.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    }
+    final Path run;
+    try {
+      run = this.createTempFile(temps);
+    } catch (IOException e) {
+      slots.release();
+      throw e;
+    }
+    return executor.submit(new Callable<Path>() {
+      @Override
+      public Path call() throws IOException {
+        try {
+          Collections.sort(batch, comparator);
+          try (DataOutputStream output = NDJSONSorter.openRun(run)) {
+            RunWriter writer = new RunWriter(output);
+            for (Record record : batch)
+              writer.write(record);
+          }
+          return run;
+        } finally {
+          batch.clear();
+          slots.release();
+        }
+      }
+    });
+  }
+
+  /*
+   * Merge sorted runs into a sink through a heap.  Ties go to the
+   * earlier run, which keeps the sort stable.
+   */
+  private long merge(List<Path> runs, final Comparator<Record> comparator, Sink sink) throws IOException {
+    PriorityQueue<RunReader> heap = new PriorityQueue<RunReader>(runs.size(), new Comparator<RunReader>() {
+      @Override
+      public int compare(RunReader a, RunReader b) {
+        int c = comparator.compare(a.current, b.current);
+        return c != 0 ? c : Integer.compare(a.order, b.order);
+      }
+    });
+    List<RunReader> readers = new ArrayList<RunReader>();
+    long count = 0;
+    try {
+      for (int i = 0; i < runs.size(); i++) {
+        RunReader reader = new RunReader(runs.get(i), i, this.paths.size());
+        readers.add(reader);
+        if (reader.next())
+          heap.add(reader);
+      }
+      while (!heap.isEmpty()) {
+        RunReader reader = heap.poll();
+        sink.write(reader.current);
+        count++;
+        if (reader.next())
+          heap.add(reader);
+      }
+      return count;
+    } finally {
+      for (RunReader reader : readers)
+        reader.close();
+    }
+  }
+
+  private Path createTempFile(List<Path> temps) throws IOException {
+    Path run;
+    if (this.tempDirectory == null)
+      run = Files.createTempFile("ndjson-sort", ".run");
+    else
+      run = Files.createTempFile(this.tempDirectory, "ndjson-sort", ".run");
+    temps.add(run);
+    return run;
+  }
+
+  private static DataOutputStream openRun(Path run) throws IOException {
+    return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), 1 << 16));
+  }
+
+  private static long write(List<Record> records, Path out) throws IOException {
+    try (Writer output = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+      LineWriter writer = new LineWriter(output);
+      for (Record record : records)
+        writer.write(record);
+    }
+    return records.size();
+  }
+
+  private static void delete(List<Path> runs) throws IOException {
+    for (Path run : runs)
+      Files.deleteIfExists(run);
+  }
+
+  private static <T> T get(Future<T> future) throws IOException, JSONException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException)
+        throw (IOException) cause;
+      if (cause instanceof JSONException)
+        throw (JSONException) cause;
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException) cause;
+      throw new IOException(cause);
+    }
+  }
+
+  /*
+   * A line of input with its decoded keys.
+   */
+  private static class Record {
+    final Object[] keys;
+    final String line;
+
+    Record(Object[] keys, String line) {
+      this.keys = keys;
+      this.line = line;
+    }
+  }
+
+  private interface Sink {
+    void write(Record record) throws IOException;
+  }
+
+  /*
+   * Writes records as lines of the output.
+   */
+  private static class LineWriter implements Sink {
+    private final Writer out;
+
+    LineWriter(Writer out) {
+      this.out = out;
+    }
+
+    @Override
+    public void write(Record record) throws IOException {
+      this.out.write(record.line);
+      this.out.write('\n');
+    }
+  }
+
+  /*
+   * Writes records to a run.  Each key is a tag byte followed by its
+   * value, if it has one, and then the line follows as a length and
+   * its UTF-8 bytes.  Lengths are unsigned varints.
+   */
+  private static class RunWriter implements Sink {
+    static final int MISSING = 0;
+    static final int NULL = 1;
+    static final int FALSE = 2;
+    static final int TRUE = 3;
+    static final int LONG = 4;
+    static final int DOUBLE = 5;
+    static final int STRING = 6;
+    static final int ARRAY = 7;
+    static final int OBJECT = 8;
+
+    private final DataOutputStream out;
+
+    RunWriter(DataOutputStream out) {
+      this.out = out;
+    }
+
+    @Override
+    public void write(Record record) throws IOException {
+      for (Object key : record.keys) {
+        if (key == null) {
+          this.out.writeByte(MISSING);
+        } else if (key == JSONLiteral.NULL) {
+          this.out.writeByte(NULL);
+        } else if (key == JSONLiteral.FALSE) {
+          this.out.writeByte(FALSE);
+        } else if (key == JSONLiteral.TRUE) {
+          this.out.writeByte(TRUE);
+        } else if (key instanceof Long) {
+          this.out.writeByte(LONG);
+          this.out.writeLong(((Long) key).longValue());
+        } else if (key instanceof Double) {
+          this.out.writeByte(DOUBLE);
+          this.out.writeDouble(((Double) key).doubleValue());
+        } else if (key instanceof String) {
+          this.out.writeByte(STRING);
+          this.writeString((String) key);
+        } else {
+          this.out.writeByte(key instanceof java.util.Collection ? ARRAY : OBJECT);
+        }
+      }
+      this.writeString(record.line);
+    }
+
+    private void writeString(String s) throws IOException {
+      byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      int n = bytes.length;
+      while ((n & ~0x7F) != 0) {
+        this.out.writeByte((n & 0x7F) | 0x80);
+        n >>>= 7;
+      }
+      this.out.writeByte(n);
+      this.out.write(bytes);
+    }
+  }
+
+  /*
+   * Reads the records of a run back one at a time.
+   */
+  private static class RunReader {
+    final int order;
+    private final int keyCount;
+    private final DataInputStream in;
+    Record current;
+
+    RunReader(Path run, int order, int keyCount) throws IOException {
+      this.order = order;
+      this.keyCount = keyCount;
+      this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), 1 << 16));
+    }
+
+    boolean next() throws IOException {
+      int first = this.in.read();
+      if (first < 0) {
+        this.current = null;
+        return false;
+      }
+      Object[] keys = new Object[this.keyCount];
+      for (int i = 0; i < this.keyCount; i++) {
+        int tag = i == 0 ? first : this.in.readUnsignedByte();
+        switch (tag) {
+        case RunWriter.MISSING:
+          keys[i] = null;
+          break;
+        case RunWriter.NULL:
+          keys[i] = JSONLiteral.NULL;
+          break;
+        case RunWriter.FALSE:
+          keys[i] = JSONLiteral.FALSE;
+          break;
+        case RunWriter.TRUE:
+          keys[i] = JSONLiteral.TRUE;
+          break;
+        case RunWriter.LONG:
+          keys[i] = Long.valueOf(this.in.readLong());
+          break;
+        case RunWriter.DOUBLE:
+          keys[i] = Double.valueOf(this.in.readDouble());
+          break;
+        case RunWriter.STRING:
+          keys[i] = this.readString(-1);
+          break;
+        case RunWriter.ARRAY:
+          keys[i] = Collections.emptyList();
+          break;
+        default:
+          keys[i] = Collections.emptyMap();
+          break;
+        }
+      }
+      String line = this.readString(this.keyCount == 0 ? first : -1);
+      this.current = new Record(keys, line);
+      return true;
+    }
+
+    /*
+     * Read a length and that many UTF-8 bytes.  The first byte of
+     * the length may already have been read.
+     */
+    private String readString(int first) throws IOException {
+      int n = 0;
+      int shift = 0;
+      int b = first >= 0 ? first : this.in.readUnsignedByte();
+      while ((b & 0x80) != 0) {
+        n |= (b & 0x7F) << shift;
+        shift += 7;
+        b = this.in.readUnsignedByte();
+      }
+      n |= b << shift;
+      byte[] bytes = new byte[n];
+      this.in.readFully(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    void close() throws IOException {
+      this.in.close();
+    }
+  }
+
+}
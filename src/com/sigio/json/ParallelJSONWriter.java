@@ -0,0 +1,228 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A JSONWriter that serializes large arrays and objects on several
+ * threads.
+ *
+ * <p>When a collection or map with at least twice the chunk size of
+ * elements or members is written with the standard serializers, its
+ * contents are split into chunks of consecutive elements, and each
+ * chunk is encoded into its own buffer by a task on a
+ * <code>ForkJoinPool</code>.  The buffers are then written in order
+ * with separators between them, so the output is exactly what a
+ * plain JSONWriter would produce.  Large values inside a chunk are
+ * split in the same way, with their tasks running in the same pool.
+ * Smaller values, and values that the registry has a custom
+ * serializer for, are written on the calling thread as usual.</p>
+ *
+ * <p>Each chunk's output is held in memory until it is written, so
+ * while a large value is being written, up to all of its text may be
+ * in memory at once.  The value must not be modified while it is
+ * being written, and serializers must be safe for use by multiple
+ * threads.</p>
+ *
+ * <p>Instances are not safe for use by multiple threads.</p>
+ */
+public class ParallelJSONWriter extends JSONWriter {
+
+  /** The default number of elements or members in a chunk. */
+  public static final int DEFAULT_CHUNK_SIZE = 1024;
+
+  private final ForkJoinPool pool;
+  private final int chunkSize;
+
+  /**
+   * Construct a writer that uses the default serializer registry,
+   * the common fork-join pool and the default chunk size.
+   *
+   * @param out the writer to write JSON text to
+   */
+  public ParallelJSONWriter(Writer out) {
+    this(out, JSONSerializerRegistry.getDefault());
+  }
+
+  /**
+   * Construct a writer that uses the specified serializer registry,
+   * the common fork-join pool and the default chunk size.
+   *
+   * @param out the writer to write JSON text to
+   * @param registry the registry used to find serializers for values
+   */
+  public ParallelJSONWriter(Writer out, JSONSerializerRegistry registry) {
+    this(out, registry, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Construct a writer that uses the specified serializer registry,
+   * pool and chunk size.
+   *
+   * @param out the writer to write JSON text to
+   * @param registry the registry used to find serializers for values
+   * @param pool the pool that runs the chunk tasks
+   * @param chunkSize the number of elements or members in a chunk
+   * @throws IllegalArgumentException if chunkSize is less than 1
+   */
+  public ParallelJSONWriter(Writer out, JSONSerializerRegistry registry, ForkJoinPool pool, int chunkSize) {
+    super(out, registry);
+    if (pool == null)
+      throw new NullPointerException();
+    if (chunkSize < 1)
+      throw new IllegalArgumentException();
+    this.pool = pool;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Get the number of elements or members in a chunk.
+   *
+   * @return the chunk size
+   */
+  public int getChunkSize() {
+    return this.chunkSize;
+  }
+
+  /**
+   * Write a java object as a JSON value string, splitting large
+   * arrays and objects across the pool.
+   *
+   * @param o Object to write
+   * @throws IOException If an I/O error occurs
+   */
+  @Override
+  public void write(Object o) throws IOException {
+    if (o instanceof Collection<?> && ((Collection<?>) o).size() >= 2 * this.chunkSize
+        && this.isSerializedBy(o, JSONSerializerRegistry.COLLECTION)) {
+      this.writeChunks(((Collection<?>) o).toArray(), false);
+    } else if (o instanceof Map<?,?> && ((Map<?,?>) o).size() >= 2 * this.chunkSize
+               && this.isSerializedBy(o, JSONSerializerRegistry.MAP)) {
+      this.writeChunks(((Map<?,?>) o).entrySet().toArray(), true);
+    } else {
+      super.write(o);
+    }
+  }
+
+  private boolean isSerializedBy(Object o, JSONSerializer<?> serializer) {
+    JSONSerializer<?> s = this.getSerializerRegistry().serializerFor(o.getClass());
+    return s == serializer;
+  }
+
+  /*
+   * Fork a task for each chunk of the elements, or of the map
+   * entries, then write their output in order as each one finishes.
+   */
+  private void writeChunks(Object[] elements, boolean members) throws IOException {
+    Deque<Chunk> chunks = new ArrayDeque<Chunk>();
+    for (int i = 0; i < elements.length; i += this.chunkSize)
+      chunks.add(new Chunk(this, elements, i, Math.min(i + this.chunkSize, elements.length), members));
+    boolean inPool = ForkJoinTask.inForkJoinPool();
+    for (Chunk chunk : chunks) {
+      if (inPool)
+        chunk.fork();
+      else
+        this.pool.execute(chunk);
+    }
+    try {
+      super.writeRaw(members ? JSON.BEGIN_OBJECT : JSON.BEGIN_ARRAY);
+      boolean first = true;
+      while (!chunks.isEmpty()) {
+        Chunk chunk = chunks.remove();
+        CharArrayWriter text;
+        try {
+          text = chunk.join();
+        } catch (UncheckedIOException e) {
+          // The pool may rethrow a copy with the original as cause.
+          Throwable t = e;
+          while (t instanceof UncheckedIOException)
+            t = t.getCause();
+          if (t instanceof IOException)
+            throw (IOException) t;
+          throw e;
+        }
+        if (!first)
+          super.writeRaw(JSON.VALUE_SEPARATOR);
+        first = false;
+        text.writeTo(super.out);
+      }
+      super.writeRaw(members ? JSON.END_OBJECT : JSON.END_ARRAY);
+    } finally {
+      for (Chunk chunk : chunks)
+        chunk.cancel(false);
+    }
+  }
+
+  /*
+   * Encodes a range of elements, or of map entries as members,
+   * with separators between them but no brackets or braces.
+   */
+  private static class Chunk extends RecursiveTask<CharArrayWriter> {
+    private static final long serialVersionUID = 1L;
+
+    private final ParallelJSONWriter parent;
+    private final Object[] elements;
+    private final int start;
+    private final int end;
+    private final boolean members;
+
+    Chunk(ParallelJSONWriter parent, Object[] elements, int start, int end, boolean members) {
+      this.parent = parent;
+      this.elements = elements;
+      this.start = start;
+      this.end = end;
+      this.members = members;
+    }
+
+    @Override
+    protected CharArrayWriter compute() {
+      CharArrayWriter text = new CharArrayWriter();
+      JSONWriter writer = new ParallelJSONWriter(text, this.parent.getSerializerRegistry(), this.parent.pool, this.parent.chunkSize);
+      try {
+        for (int i = this.start; i < this.end; i++) {
+          if (i > this.start)
+            writer.writeRaw(JSON.VALUE_SEPARATOR);
+          if (this.members) {
+            Map.Entry<?,?> entry = (Map.Entry<?,?>) this.elements[i];
+            writer.write(entry.getKey());
+            writer.writeRaw(JSON.NAME_SEPARATOR);
+            writer.write(entry.getValue());
+          } else {
+            writer.write(this.elements[i]);
+          }
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return text;
+    }
+  }
+
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * An immutable JSON array that supports cheap modified copies.
+ *
+ * <p>Elements are stored in a bit-partitioned vector trie with a
+ * branching factor of 32 and a separate tail block, so indexed access
+ * is effectively constant time.  {@link #with(int, Object)}, {@link
+ * #append(Object)} and {@link #withoutLast()} return a new array in
+ * O(log n) time that shares all of the unchanged structure with the
+ * original, which is itself left untouched.  Like {@link
+ * PersistentJSONObject}, instances may be read by any number of
+ * threads without locking.</p>
+ *
+ * <p>Values must be valid JSON values as described by {@link
+ * JSONValue}, or persistent objects and arrays.  Mutable Maps and
+ * Collections are converted to their persistent equivalents,
+ * recursively, when they are added.  The List mutators all throw
+ * <code>UnsupportedOperationException</code>.  {@link #toJSONArray()}
+ * makes an ordinary mutable copy.</p>
+ */
+public final class PersistentJSONArray extends AbstractList<Object> implements RandomAccess {
+
+  private static final int BITS = 5;
+  private static final int WIDTH = 1 << BITS;
+  private static final int MASK = WIDTH - 1;
+
+  private static final Object[] EMPTY_NODE = new Object[WIDTH];
+  private static final PersistentJSONArray EMPTY = new PersistentJSONArray(0, BITS, EMPTY_NODE, new Object[0]);
+
+  private final int count;
+  private final int shift;
+  private final Object[] root;
+  private final Object[] tail;
+
+  private PersistentJSONArray(int count, int shift, Object[] root, Object[] tail) {
+    this.count = count;
+    this.shift = shift;
+    this.root = root;
+    this.tail = tail;
+  }
+
+  /**
+   * Get the empty persistent array.
+   *
+   * @return an array with no elements
+   */
+  public static PersistentJSONArray empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Create a persistent array with the same elements as a
+   * collection.  Nested maps and collections are converted as well.
+   *
+   * @param collection the elements of the array
+   * @return a persistent array, which is the argument itself if it
+   * is already persistent
+   * @throws ClassCastException if an element is not a suitable JSON
+   * value
+   */
+  public static PersistentJSONArray from(Collection<? extends Object> collection) {
+    if (collection instanceof PersistentJSONArray)
+      return (PersistentJSONArray) collection;
+    Object[] values = collection.toArray();
+    if (values.length == 0)
+      return EMPTY;
+    for (int i = 0; i < values.length; i++)
+      values[i] = PersistentJSONObject.freeze(values[i]);
+    // Build a block at a time rather than an element at a time.
+    int n = Math.min(WIDTH, values.length);
+    PersistentJSONArray array = new PersistentJSONArray(n, BITS, EMPTY_NODE, Arrays.copyOfRange(values, 0, n));
+    for (int i = n; i < values.length; i += WIDTH)
+      array = array.pushTail(Arrays.copyOfRange(values, i, Math.min(i + WIDTH, values.length)));
+    return array;
+  }
+
+  /**
+   * Get a copy of this array with one more element at the end.
+   *
+   * @param value the element to append
+   * @return the new array
+   * @throws ClassCastException if the value is not a suitable JSON value
+   */
+  public PersistentJSONArray append(Object value) {
+    value = PersistentJSONObject.freeze(value);
+    if (this.count - this.tailOffset() < WIDTH) {
+      Object[] newTail = Arrays.copyOf(this.tail, this.tail.length + 1);
+      newTail[this.tail.length] = value;
+      return new PersistentJSONArray(this.count + 1, this.shift, this.root, newTail);
+    }
+    return this.pushTail(new Object[] { value });
+  }
+
+  /**
+   * Get a copy of this array with an element replaced.  An index
+   * equal to the size of the array appends the element.
+   *
+   * @param idx the index of the element to replace
+   * @param value the new element
+   * @return the new array
+   * @throws IndexOutOfBoundsException if the index is out of range
+   * {@code (index < 0 || index > size())}
+   * @throws ClassCastException if the value is not a suitable JSON value
+   */
+  public PersistentJSONArray with(int idx, Object value) {
+    if (idx == this.count)
+      return this.append(value);
+    this.checkIndex(idx);
+    value = PersistentJSONObject.freeze(value);
+    if (idx >= this.tailOffset()) {
+      Object[] newTail = this.tail.clone();
+      newTail[idx & MASK] = value;
+      return new PersistentJSONArray(this.count, this.shift, this.root, newTail);
+    }
+    return new PersistentJSONArray(this.count, this.shift, PersistentJSONArray.assoc(this.shift, this.root, idx, value), this.tail);
+  }
+
+  /**
+   * Get a copy of this array without its last element.
+   *
+   * @return the new array
+   * @throws IllegalStateException if the array is empty
+   */
+  public PersistentJSONArray withoutLast() {
+    if (this.count == 0)
+      throw new IllegalStateException();
+    if (this.count == 1)
+      return EMPTY;
+    if (this.count - this.tailOffset() > 1)
+      return new PersistentJSONArray(this.count - 1, this.shift, this.root, Arrays.copyOf(this.tail, this.tail.length - 1));
+    Object[] newTail = this.arrayFor(this.count - 2);
+    Object[] newRoot = this.popTail(this.shift, this.root);
+    int newShift = this.shift;
+    if (newRoot == null)
+      newRoot = EMPTY_NODE;
+    if (this.shift > BITS && newRoot[1] == null) {
+      newRoot = (Object[]) newRoot[0];
+      newShift -= BITS;
+    }
+    return new PersistentJSONArray(this.count - 1, newShift, newRoot, newTail);
+  }
+
+  /**
+   * Make a mutable deep copy of this array.
+   *
+   * @return a new JSONArray with copies of all nested persistent
+   * objects and arrays
+   */
+  public JSONArray toJSONArray() {
+    JSONArray array = new JSONArray(this.count);
+    for (int i = 0; i < this.count; i++)
+      array.addTrusted(PersistentJSONObject.thaw(this.get(i)));
+    return array;
+  }
+
+  @Override
+  public Object get(int idx) {
+    this.checkIndex(idx);
+    return this.arrayFor(idx)[idx & MASK];
+  }
+
+  @Override
+  public int size() {
+    return this.count;
+  }
+
+  private void checkIndex(int idx) {
+    if (idx < 0 || idx >= this.count)
+      throw new IndexOutOfBoundsException(Integer.toString(idx));
+  }
+
+  /*
+   * Index of the first element held in the tail.
+   */
+  private int tailOffset() {
+    if (this.count < WIDTH)
+      return 0;
+    return ((this.count - 1) >>> BITS) << BITS;
+  }
+
+  /*
+   * Find the leaf block that holds an element.
+   */
+  private Object[] arrayFor(int idx) {
+    if (idx >= this.tailOffset())
+      return this.tail;
+    Object[] node = this.root;
+    for (int level = this.shift; level > 0; level -= BITS)
+      node = (Object[]) node[(idx >>> level) & MASK];
+    return node;
+  }
+
+  /*
+   * Move the current (full) tail into the trie and start a new tail.
+   */
+  private PersistentJSONArray pushTail(Object[] newTail) {
+    Object[] newRoot;
+    int newShift = this.shift;
+    if ((this.count >>> BITS) > (1 << this.shift)) {
+      // The trie is full; add a level.
+      newRoot = new Object[WIDTH];
+      newRoot[0] = this.root;
+      newRoot[1] = PersistentJSONArray.newPath(this.shift, this.tail);
+      newShift += BITS;
+    } else {
+      newRoot = this.pushTail(this.shift, this.root, this.tail);
+    }
+    return new PersistentJSONArray(this.count + newTail.length, newShift, newRoot, newTail);
+  }
+
+  private Object[] pushTail(int level, Object[] parent, Object[] tailNode) {
+    int subidx = ((this.count - 1) >>> level) & MASK;
+    Object[] node = parent.clone();
+    Object[] insert;
+    if (level == BITS) {
+      insert = tailNode;
+    } else {
+      Object[] child = (Object[]) parent[subidx];
+      if (child != null)
+        insert = this.pushTail(level - BITS, child, tailNode);
+      else
+        insert = PersistentJSONArray.newPath(level - BITS, tailNode);
+    }
+    node[subidx] = insert;
+    return node;
+  }
+
+  private Object[] popTail(int level, Object[] node) {
+    int subidx = ((this.count - 2) >>> level) & MASK;
+    if (level > BITS) {
+      Object[] child = this.popTail(level - BITS, (Object[]) node[subidx]);
+      if (child == null && subidx == 0)
+        return null;
+      Object[] copy = node.clone();
+      copy[subidx] = child;
+      return copy;
+    } else if (subidx == 0) {
+      return null;
+    }
+    Object[] copy = node.clone();
+    copy[subidx] = null;
+    return copy;
+  }
+
+  private static Object[] newPath(int level, Object[] node) {
+    if (level == 0)
+      return node;
+    Object[] path = new Object[WIDTH];
+    path[0] = PersistentJSONArray.newPath(level - BITS, node);
+    return path;
+  }
+
+  private static Object[] assoc(int level, Object[] node, int idx, Object value) {
+    Object[] copy = node.clone();
+    if (level == 0) {
+      copy[idx & MASK] = value;
+    } else {
+      int subidx = (idx >>> level) & MASK;
+      copy[subidx] = PersistentJSONArray.assoc(level - BITS, (Object[]) node[subidx], idx, value);
+    }
+    return copy;
+  }
+
+}
@@ -0,0 +1,507 @@
+/*
+ * Copyright © 2026 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify it
+ * under the terms of the Lesser GNU General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.json;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.ResourceBundle;
+import java.util.Set;
+
+/**
+ * An immutable JSON object that supports cheap modified copies.
+ *
+ * <p>Members are stored in a hash array mapped trie.  {@link
+ * #with(String, Object)} and {@link #without(String)} return a new
+ * object in O(log n) time that shares all of the unchanged structure
+ * with the original, which is itself left untouched.  Because
+ * instances can never change, any number of threads may read them
+ * without locking; a shared document is typically published through
+ * a volatile field or an <code>AtomicReference</code> and replaced
+ * with each new version.</p>
+ *
+ * <p>Values must be valid JSON values as described by {@link
+ * JSONValue}, or persistent objects and arrays.  Mutable
+ * JSONObjects, JSONArrays and other Maps and Collections are
+ * converted to their persistent equivalents, recursively, when they
+ * are added, so the whole tree is immutable.  The Map mutators all
+ * throw <code>UnsupportedOperationException</code>.  Instances can be
+ * written with {@link JSONWriter} like any other Map, and {@link
+ * #toJSONObject()} makes an ordinary mutable copy.</p>
+ */
+public final class PersistentJSONObject extends AbstractMap<String,Object> {
+
+  private static final PersistentJSONObject EMPTY = new PersistentJSONObject(null, 0);
+
+  // Marks a missing key in lookups, since null is a valid value.
+  private static final Object NOT_FOUND = new Object();
+
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+
+  private final Node root;
+  private final int count;
+  private transient Set<Map.Entry<String,Object>> entrySet = null;
+
+  private PersistentJSONObject(Node root, int count) {
+    this.root = root;
+    this.count = count;
+  }
+
+  /**
+   * Get the empty persistent object.
+   *
+   * @return an object with no members
+   */
+  public static PersistentJSONObject empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Create a persistent object with the same members as a map.
+   * Nested maps and collections are converted as well.
+   *
+   * @param map the members of the object
+   * @return a persistent object, which is the argument itself if it
+   * is already persistent
+   * @throws NullPointerException if a key is <code>null</code>
+   * @throws ClassCastException if a value is not a suitable JSON value
+   */
+  public static PersistentJSONObject from(Map<? extends String, ? extends Object> map) {
+    if (map instanceof PersistentJSONObject)
+      return (PersistentJSONObject) map;
+    Node root = null;
+    int count = 0;
+    boolean[] added = new boolean[1];
+    for (Map.Entry<? extends String, ? extends Object> entry : map.entrySet()) {
+      String key = entry.getKey();
+      if (key == null)
+        throw new NullPointerException();
+      added[0] = false;
+      root = PersistentJSONObject.assoc(root, key, PersistentJSONObject.freeze(entry.getValue()), added);
+      if (added[0])
+        count++;
+    }
+    return count == 0 ? EMPTY : new PersistentJSONObject(root, count);
+  }
+
+  /**
+   * Get a copy of this object with a member added or replaced.
+   *
+   * @param key the member name
+   * @param value the member value
+   * @return the new object, or this object if the key already maps
+   * to the same value
+   * @throws NullPointerException if the key is <code>null</code>
+   * @throws ClassCastException if the value is not a suitable JSON value
+   */
+  public PersistentJSONObject with(String key, Object value) {
+    if (key == null)
+      throw new NullPointerException();
+    boolean[] added = new boolean[1];
+    Node newRoot = PersistentJSONObject.assoc(this.root, key, PersistentJSONObject.freeze(value), added);
+    if (newRoot == this.root)
+      return this;
+    return new PersistentJSONObject(newRoot, added[0] ? this.count + 1 : this.count);
+  }
+
+  /**
+   * Get a copy of this object without a member.
+   *
+   * @param key the member name
+   * @return the new object, or this object if it has no such member
+   */
+  public PersistentJSONObject without(String key) {
+    if (key == null || this.root == null)
+      return this;
+    Node newRoot = this.root.without(0, key.hashCode(), key);
+    if (newRoot == this.root)
+      return this;
+    if (newRoot == null)
+      return EMPTY;
+    return new PersistentJSONObject(newRoot, this.count - 1);
+  }
+
+  /**
+   * Make a mutable deep copy of this object.
+   *
+   * @return a new JSONObject with copies of all nested persistent
+   * objects and arrays
+   */
+  public JSONObject toJSONObject() {
+    JSONObject object = new JSONObject(Math.max(16, (int) (this.count / 0.75f) + 1));
+    for (Map.Entry<String,Object> entry : this.entrySet())
+      object.putTrusted(entry.getKey(), PersistentJSONObject.thaw(entry.getValue()));
+    return object;
+  }
+
+  @Override
+  public int size() {
+    return this.count;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return this.count == 0;
+  }
+
+  @Override
+  public Object get(Object key) {
+    Object value = this.find(key);
+    return value == NOT_FOUND ? null : value;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return this.find(key) != NOT_FOUND;
+  }
+
+  @Override
+  public Set<Map.Entry<String,Object>> entrySet() {
+    if (this.entrySet == null) {
+      this.entrySet = new AbstractSet<Map.Entry<String,Object>>() {
+        @Override
+        public Iterator<Map.Entry<String,Object>> iterator() {
+          return new EntryIterator(PersistentJSONObject.this.root);
+        }
+
+        @Override
+        public int size() {
+          return PersistentJSONObject.this.count;
+        }
+      };
+    }
+    return this.entrySet;
+  }
+
+  private Object find(Object key) {
+    if (!(key instanceof String) || this.root == null)
+      return NOT_FOUND;
+    return this.root.find(0, key.hashCode(), (String) key);
+  }
+
+  /*
+   * Convert a value to its immutable form, checking that it is a
+   * suitable JSON value.  Shared with PersistentJSONArray.
+   */
+  @SuppressWarnings("unchecked")
+  static Object freeze(Object value) {
+    if (value == null
+        || value instanceof PersistentJSONObject
+        || value instanceof PersistentJSONArray)
+      return value;
+    if (value instanceof Map)
+      return PersistentJSONObject.from((Map<? extends String, ? extends Object>) value);
+    if (value instanceof Collection)
+      return PersistentJSONArray.from((Collection<? extends Object>) value);
+    if (!JSONValue.isInstance(value)) {
+      ResourceBundle bundle = com.sigio.json.BundleLoader.getBundle();
+      String message = String.format(bundle.getString("INVALID_VALUE"), value.getClass().getName());
+      throw new ClassCastException(message);
+    }
+    return value;
+  }
+
+  /*
+   * Convert a value from a persistent tree to its mutable form.
+   * Shared with PersistentJSONArray.
+   */
+  static Object thaw(Object value) {
+    if (value instanceof PersistentJSONObject)
+      return ((PersistentJSONObject) value).toJSONObject();
+    if (value instanceof PersistentJSONArray)
+      return ((PersistentJSONArray) value).toJSONArray();
+    return value;
+  }
+
+  private static Node assoc(Node root, String key, Object value, boolean[] added) {
+    if (root == null)
+      root = BitmapNode.EMPTY;
+    return root.assoc(0, key.hashCode(), key, value, added);
+  }
+
+  private static int bitpos(int hash, int shift) {
+    return 1 << ((hash >>> shift) & MASK);
+  }
+
+  /*
+   * Make a node holding two entries whose keys differ but may have
+   * the same hash.
+   */
+  private static Node createNode(int shift, String key1, Object value1, int hash2, String key2, Object value2) {
+    int hash1 = key1.hashCode();
+    if (hash1 == hash2)
+      return new CollisionNode(hash1, new Object[] { key1, value1, key2, value2 });
+    boolean[] added = new boolean[1];
+    return BitmapNode.EMPTY
+      .assoc(shift, hash1, key1, value1, added)
+      .assoc(shift, hash2, key2, value2, added);
+  }
+
+  private static Object[] copyWith(Object[] array, int i, Object value) {
+    Object[] copy = array.clone();
+    copy[i] = value;
+    return copy;
+  }
+
+  /*
+   * A trie node.  Node arrays hold key/value pairs; in a BitmapNode a
+   * null key means that the value is a child node.
+   */
+  private abstract static class Node {
+    abstract Object find(int shift, int hash, String key);
+    abstract Node assoc(int shift, int hash, String key, Object value, boolean[] added);
+    abstract Node without(int shift, int hash, String key);
+    abstract Object[] array();
+  }
+
+  private static final class BitmapNode extends Node {
+    static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+    final int bitmap;
+    final Object[] array;
+
+    BitmapNode(int bitmap, Object[] array) {
+      this.bitmap = bitmap;
+      this.array = array;
+    }
+
+    @Override
+    Object[] array() {
+      return this.array;
+    }
+
+    private int index(int bit) {
+      return Integer.bitCount(this.bitmap & (bit - 1));
+    }
+
+    @Override
+    Object find(int shift, int hash, String key) {
+      int bit = PersistentJSONObject.bitpos(hash, shift);
+      if ((this.bitmap & bit) == 0)
+        return NOT_FOUND;
+      int i = 2 * this.index(bit);
+      Object k = this.array[i];
+      Object v = this.array[i + 1];
+      if (k == null)
+        return ((Node) v).find(shift + BITS, hash, key);
+      if (key.equals(k))
+        return v;
+      return NOT_FOUND;
+    }
+
+    @Override
+    Node assoc(int shift, int hash, String key, Object value, boolean[] added) {
+      int bit = PersistentJSONObject.bitpos(hash, shift);
+      int i = 2 * this.index(bit);
+      if ((this.bitmap & bit) != 0) {
+        Object k = this.array[i];
+        Object v = this.array[i + 1];
+        if (k == null) {
+          Node child = ((Node) v).assoc(shift + BITS, hash, key, value, added);
+          if (child == v)
+            return this;
+          return new BitmapNode(this.bitmap, PersistentJSONObject.copyWith(this.array, i + 1, child));
+        }
+        if (key.equals(k)) {
+          if (value == v)
+            return this;
+          return new BitmapNode(this.bitmap, PersistentJSONObject.copyWith(this.array, i + 1, value));
+        }
+        added[0] = true;
+        Node child = PersistentJSONObject.createNode(shift + BITS, (String) k, v, hash, key, value);
+        Object[] copy = this.array.clone();
+        copy[i] = null;
+        copy[i + 1] = child;
+        return new BitmapNode(this.bitmap, copy);
+      }
+      added[0] = true;
+      Object[] copy = new Object[this.array.length + 2];
+      System.arraycopy(this.array, 0, copy, 0, i);
+      copy[i] = key;
+      copy[i + 1] = value;
+      System.arraycopy(this.array, i, copy, i + 2, this.array.length - i);
+      return new BitmapNode(this.bitmap | bit, copy);
+    }
+
+    @Override
+    Node without(int shift, int hash, String key) {
+      int bit = PersistentJSONObject.bitpos(hash, shift);
+      if ((this.bitmap & bit) == 0)
+        return this;
+      int i = 2 * this.index(bit);
+      Object k = this.array[i];
+      Object v = this.array[i + 1];
+      if (k == null) {
+        Node child = ((Node) v).without(shift + BITS, hash, key);
+        if (child == v)
+          return this;
+        if (child != null) {
+          Object[] a = child.array();
+          if (a.length == 2 && a[0] != null) {
+            // A single entry moves up into this node so repeated
+            // removal and insertion does not deepen the trie.
+            Object[] copy = this.array.clone();
+            copy[i] = a[0];
+            copy[i + 1] = a[1];
+            return new BitmapNode(this.bitmap, copy);
+          }
+          return new BitmapNode(this.bitmap, PersistentJSONObject.copyWith(this.array, i + 1, child));
+        }
+      } else if (!key.equals(k)) {
+        return this;
+      }
+      if (this.bitmap == bit)
+        return null;
+      Object[] copy = new Object[this.array.length - 2];
+      System.arraycopy(this.array, 0, copy, 0, i);
+      System.arraycopy(this.array, i + 2, copy, i, this.array.length - i - 2);
+      return new BitmapNode(this.bitmap ^ bit, copy);
+    }
+  }
+
+  private static final class CollisionNode extends Node {
+    final int hash;
+    final Object[] array;
+
+    CollisionNode(int hash, Object[] array) {
+      this.hash = hash;
+      this.array = array;
+    }
+
+    @Override
+    Object[] array() {
+      return this.array;
+    }
+
+    private int indexOf(String key) {
+      for (int i = 0; i < this.array.length; i += 2) {
+        if (key.equals(this.array[i]))
+          return i;
+      }
+      return -1;
+    }
+
+    @Override
+    Object find(int shift, int hash, String key) {
+      int i = this.indexOf(key);
+      return i < 0 ? NOT_FOUND : this.array[i + 1];
+    }
+
+    @Override
+    Node assoc(int shift, int hash, String key, Object value, boolean[] added) {
+      if (hash != this.hash) {
+        // Push this node down a level and add the new key beside it.
+        BitmapNode parent = new BitmapNode(PersistentJSONObject.bitpos(this.hash, shift), new Object[] { null, this });
+        return parent.assoc(shift, hash, key, value, added);
+      }
+      int i = this.indexOf(key);
+      if (i >= 0) {
+        if (this.array[i + 1] == value)
+          return this;
+        return new CollisionNode(hash, PersistentJSONObject.copyWith(this.array, i + 1, value));
+      }
+      added[0] = true;
+      Object[] copy = new Object[this.array.length + 2];
+      System.arraycopy(this.array, 0, copy, 0, this.array.length);
+      copy[this.array.length] = key;
+      copy[this.array.length + 1] = value;
+      return new CollisionNode(hash, copy);
+    }
+
+    @Override
+    Node without(int shift, int hash, String key) {
+      int i = this.indexOf(key);
+      if (i < 0)
+        return this;
+      if (this.array.length == 4) {
+        // One entry left; the parent inlines it.
+        int j = i == 0 ? 2 : 0;
+        return new CollisionNode(hash, new Object[] { this.array[j], this.array[j + 1] });
+      }
+      Object[] copy = new Object[this.array.length - 2];
+      System.arraycopy(this.array, 0, copy, 0, i);
+      System.arraycopy(this.array, i + 2, copy, i, this.array.length - i - 2);
+      return new CollisionNode(hash, copy);
+    }
+  }
+
+  /*
+   * Depth first iterator over the entries of a trie.
+   */
+  private static final class EntryIterator implements Iterator<Map.Entry<String,Object>> {
+    // Stack of node arrays and positions within them; depth is at
+    // most one bitmap node per BITS of the hash plus a collision node.
+    private static final int MAX_DEPTH = (Integer.SIZE + BITS - 1) / BITS + 1;
+
+    private final Object[][] arrays = new Object[MAX_DEPTH][];
+    private final int[] positions = new int[MAX_DEPTH];
+    private int depth = -1;
+    private Map.Entry<String,Object> next = null;
+
+    EntryIterator(Node root) {
+      if (root != null)
+        this.push(root);
+      this.advance();
+    }
+
+    private void push(Node node) {
+      this.depth++;
+      this.arrays[this.depth] = node.array();
+      this.positions[this.depth] = 0;
+    }
+
+    private void advance() {
+      this.next = null;
+      while (this.depth >= 0) {
+        Object[] array = this.arrays[this.depth];
+        int i = this.positions[this.depth];
+        if (i >= array.length) {
+          this.arrays[this.depth--] = null;
+          continue;
+        }
+        this.positions[this.depth] = i + 2;
+        if (array[i] == null) {
+          this.push((Node) array[i + 1]);
+        } else {
+          this.next = new AbstractMap.SimpleImmutableEntry<String,Object>((String) array[i], array[i + 1]);
+          return;
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return this.next != null;
+    }
+
+    @Override
+    public Map.Entry<String,Object> next() {
+      if (this.next == null)
+        throw new NoSuchElementException();
+      Map.Entry<String,Object> entry = this.next;
+      this.advance();
+      return entry;
+    }
+  }
+
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright © 2015 Jason J.A. Stephenson
+ * 
+ * This file is part of sigio.jar.
+ * 
+ * sigio.jar is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * sigio.jar is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ * 
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with sigio.jar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sigio.util;
+
+import java.util.Arrays;
+
+/**
+ * A HyperLogLog sketch, which estimates the number of distinct
+ * values in a stream in a small, fixed amount of memory.
+ *
+ * <p>Values are hashed to 64 bits, and the sketch keeps one small
+ * register for each of 2<sup>precision</sup> buckets.  The standard
+ * error of the estimate is about 1.04 / &radic;2<sup>precision</sup>,
+ * so the default precision of 12 uses 4KiB and is typically within
+ * 2% of the true count.  Small counts are corrected by linear
+ * counting, and with 64 bit hashes no correction is needed for large
+ * ones.</p>
+ *
+ * <p>Sketches of the same precision can be merged, and the merged
+ * sketch estimates the number of distinct values added to any of
+ * them, so separate parts of a dataset can be counted separately and
+ * combined.</p>
+ *
+ * <p>Instances are not safe for use by multiple threads.</p>
+ */
+public class HyperLogLog {
+
+  /** The default precision. */
+  public static final int DEFAULT_PRECISION = 12;
+
+  private final int precision;
+  private final byte[] registers;
+
+  /**
+   * Construct an empty sketch with the default precision.
+   */
+  public HyperLogLog() {
+    this(DEFAULT_PRECISION);
+  }
+
+  /**
+   * Construct an empty sketch.
+   *
+   * @param precision the number of bits of the hash that choose a
+   * bucket, from 4 to 18
+   * @throws IllegalArgumentException if precision is out of range
+   */
+  public HyperLogLog(int precision) {
+    if (precision < 4 || precision > 18)
+      throw new IllegalArgumentException();
+    this.precision = precision;
+    this.registers = new byte[1 << precision];
+  }
+
+  /**
+   * Get the precision of this sketch.
+   *
+   * @return the precision
+   */
+  public int getPrecision() {
+    return this.precision;
+  }
+
+  /**
+   * Add a value given by a well mixed 64 bit hash of it.
+   *
+   * @param hash the hash of the value
+   */
+  public void addHash(long hash) {
+    int bucket = (int) (hash >>> (64 - this.precision));
+    // A marker bit keeps the rank within the bits left over.
+    long rest = (hash << this.precision) | (1L << (this.precision - 1));
+    byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+    if (rank > this.registers[bucket])
+      this.registers[bucket] = rank;
+  }
+
+  /**
+   * Add a long value.
+   *
+   * @param value the value
+   */
+  public void add(long value) {
+    this.addHash(HyperLogLog.mix(value));
+  }
+
+  /**
+   * Add a double value.  Values that are equal as doubles count as
+   * the same value, except that 0.0 and -0.0 differ.
+   *
+   * @param value the value
+   */
+  public void add(double value) {
+    this.addHash(HyperLogLog.mix(Double.doubleToLongBits(value) ^ 0x5851f42d4c957f2dL));
+  }
+
+  /**
+   * Add a sequence of characters.  Sequences with the same
+   * characters count as the same value whatever their class.
+   *
+   * @param value the value
+   */
+  public void add(CharSequence value) {
+    this.addHash(HyperLogLog.hash(value));
+  }
+
+  /**
+   * Add the values counted by another sketch to this one.
+   *
+   * @param other the sketch to merge
+   * @throws IllegalArgumentException if the sketches have different
+   * precisions
+   */
+  public void merge(HyperLogLog other) {
+    if (other.precision != this.precision)
+      throw new IllegalArgumentException();
+    for (int i = 0; i < this.registers.length; i++) {
+      if (other.registers[i] > this.registers[i])
+        this.registers[i] = other.registers[i];
+    }
+  }
+
+  /**
+   * Estimate the number of distinct values added.
+   *
+   * @return the estimated count
+   */
+  public long estimate() {
+    int m = this.registers.length;
+    double sum = 0;
+    int zeros = 0;
+    for (byte r : this.registers) {
+      sum += Math.scalb(1.0, -r);
+      if (r == 0)
+        zeros++;
+    }
+    double alpha;
+    switch (m) {
+    case 16:
+      alpha = 0.673;
+      break;
+    case 32:
+      alpha = 0.697;
+      break;
+    case 64:
+      alpha = 0.709;
+      break;
+    default:
+      alpha = 0.7213 / (1 + 1.079 / m);
+      break;
+    }
+    double estimate = alpha * m * m / sum;
+    if (estimate <= 2.5 * m && zeros > 0)
+      estimate = m * Math.log((double) m / zeros);
+    return Math.round(estimate);
+  }
+
+  /**
+   * Remove all values from the sketch.
+   */
+  public void clear() {
+    Arrays.fill(this.registers, (byte) 0);
+  }
+
+  /**
+   * Hash a sequence of characters to 64 bits: FNV-1a over the
+   * characters, finished with a 64 bit mixing function.
+   *
+   * @param value the characters to hash
+   * @return the hash
+   */
+  public static long hash(CharSequence value) {
+    long h = 0xcbf29ce484222325L;
+    int length = value.length();
+    for (int i = 0; i < length; i++) {
+      h ^= value.charAt(i);
+      h *= 0x100000001b3L;
+    }
+    return HyperLogLog.mix(h);
+  }
+
+  /**
+   * Mix the bits of a long so that every bit of the input affects
+   * every bit of the output (the MurmurHash3 finalizer).
+   *
+   * @param z the value to mix
+   * @return the mixed value
+   */
+  public static long mix(long z) {
+    z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+    z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+    return z ^ (z >>> 33);
+  }
+
+}